@@ -2,8 +2,10 @@ package ru.utsx.Devops;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcAutoConfiguration;
 
-@SpringBootApplication
+// R2DBC настраивается вручную в R2dbcConfiguration, основной стек остаётся на JDBC/JPA
+@SpringBootApplication(exclude = R2dbcAutoConfiguration.class)
 public class DevopsApplication {
 
     public static void main(String[] args) {
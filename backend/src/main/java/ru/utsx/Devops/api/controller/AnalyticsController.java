@@ -0,0 +1,44 @@
+package ru.utsx.Devops.api.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+import ru.utsx.Devops.api.facade.AnalyticsFacade;
+import ru.utsx.Devops.api.model.analytics.TopItemsDto;
+
+@RestController
+@RequiredArgsConstructor
+@RequestMapping(path = "/api/v1/analytics")
+public class AnalyticsController {
+
+    private final AnalyticsFacade analyticsFacade;
+
+    // Топ товаров за последние minutes минут по числу заказов (by=count) или по сумме (by=total)
+    @GetMapping("/top/products")
+    public TopItemsDto getTopProducts(@RequestParam(defaultValue = "count") String by,
+                                      @RequestParam(defaultValue = "60") int minutes,
+                                      @RequestParam(defaultValue = "10") int limit) {
+        return analyticsFacade.getTopProducts(by, minutes, limit);
+    }
+
+    // Топ пользователей по заказам; ключ - id пользователя
+    @GetMapping("/top/users")
+    public TopItemsDto getTopUsers(@RequestParam(defaultValue = "count") String by,
+                                   @RequestParam(defaultValue = "60") int minutes,
+                                   @RequestParam(defaultValue = "10") int limit) {
+        return analyticsFacade.getTopUsers(by, minutes, limit);
+    }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public ResponseEntity<String> handleIllegalArgument(IllegalArgumentException e) {
+        return new ResponseEntity<>(e.getMessage(), HttpStatus.BAD_REQUEST);
+    }
+
+}
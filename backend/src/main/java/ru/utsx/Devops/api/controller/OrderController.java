@@ -2,6 +2,7 @@ package ru.utsx.Devops.api.controller;
 
 import jakarta.persistence.EntityNotFoundException;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -11,14 +12,21 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
+import ru.utsx.Devops.api.model.order.BulkOperationResultDto;
+import ru.utsx.Devops.api.model.order.BulkUpdateOrdersDto;
 import ru.utsx.Devops.api.model.order.CreateOrderDto;
+import ru.utsx.Devops.api.model.order.DeliveryScheduleDto;
 import ru.utsx.Devops.api.model.order.OrderDto;
+import ru.utsx.Devops.api.model.order.OrderFilterDto;
 import ru.utsx.Devops.api.model.order.UpdateOrderDto;
 import ru.utsx.Devops.api.facade.OrderFacade;
 
+import java.time.LocalDate;
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequiredArgsConstructor
@@ -32,11 +40,44 @@ public class OrderController {
         return orderFacade.getAllOrders();
     }
 
+    // Постраничный список по возрастанию id; с несколькими шардами страница собирается слиянием ответов шардов
+    @GetMapping(params = "page")
+    public List<OrderDto> getOrders(@RequestParam int page, @RequestParam(defaultValue = "100") int size) {
+        return orderFacade.getOrders(page, size);
+    }
+
+    // Разреженный ответ: fields=id,status,total - из БД читаются только эти колонки, в ответе только эти поля
+    @GetMapping(params = "fields")
+    public List<Map<String, Object>> getAllOrders(@RequestParam String fields) {
+        return orderFacade.getAllOrders(fields);
+    }
+
+    @GetMapping(params = {"page", "fields"})
+    public List<Map<String, Object>> getOrders(@RequestParam int page,
+                                               @RequestParam(defaultValue = "100") int size,
+                                               @RequestParam String fields) {
+        return orderFacade.getOrders(page, size, fields);
+    }
+
+    // График доставки: заказы с датой доставки в [from, to] постранично и количество по дням и статусам
+    @GetMapping("/schedule")
+    public DeliveryScheduleDto getDeliverySchedule(@RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                                   @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                                                   @RequestParam(defaultValue = "0") int page,
+                                                   @RequestParam(defaultValue = "100") int size) {
+        return orderFacade.getDeliverySchedule(from, to, page, size);
+    }
+
     @GetMapping("/{id}")
     public OrderDto getOrder(@PathVariable Long id) {
         return orderFacade.getOrder(id);
     }
 
+    @GetMapping(path = "/{id}", params = "fields")
+    public Map<String, Object> getOrder(@PathVariable Long id, @RequestParam String fields) {
+        return orderFacade.getOrder(id, fields);
+    }
+
     @PutMapping("/create")
     public Long createOrder(@RequestBody CreateOrderDto orderDto) {
         return orderFacade.createOrder(orderDto);
@@ -52,6 +93,19 @@ public class OrderController {
         orderFacade.deleteOrder(id);
     }
 
+    // dryRun=true только считает заказы, попадающие под фильтр, без изменений
+    @PutMapping("/bulk/update")
+    public BulkOperationResultDto updateOrders(@RequestBody BulkUpdateOrdersDto request,
+                                               @RequestParam(defaultValue = "false") boolean dryRun) {
+        return orderFacade.updateOrders(request, dryRun);
+    }
+
+    @PutMapping("/bulk/delete")
+    public BulkOperationResultDto deleteOrders(@RequestBody OrderFilterDto filter,
+                                               @RequestParam(defaultValue = "false") boolean dryRun) {
+        return orderFacade.deleteOrders(filter, dryRun);
+    }
+
     @ExceptionHandler(EntityNotFoundException.class)
     @ResponseStatus(HttpStatus.NOT_FOUND)
     public ResponseEntity<String> handleNoSuchElement(EntityNotFoundException e) {
@@ -0,0 +1,49 @@
+package ru.utsx.Devops.api.controller;
+
+import jakarta.persistence.EntityNotFoundException;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import ru.utsx.Devops.api.facade.OrderFacade;
+import ru.utsx.Devops.api.model.order.OrderDto;
+
+// По умолчанию список отдаётся JSON-массивом; с Accept: application/x-ndjson - потоком по мере чтения строк из базы
+@RestController
+@RequiredArgsConstructor
+@RequestMapping(path = "/api/v1/reactive/orders")
+public class ReactiveOrderController {
+
+    private final OrderFacade orderFacade;
+
+    @GetMapping
+    public Flux<OrderDto> getAllOrders() {
+        return orderFacade.getAllOrdersReactive();
+    }
+
+    // Отдельный маппинг: если NDJSON указан в produces общего метода, Spring стримит и на Accept: */*
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<OrderDto> streamAllOrders() {
+        return orderFacade.getAllOrdersReactive();
+    }
+
+    @GetMapping("/{id}")
+    public Mono<OrderDto> getOrder(@PathVariable Long id) {
+        return orderFacade.getOrderReactive(id);
+    }
+
+    @ExceptionHandler(EntityNotFoundException.class)
+    @ResponseStatus(HttpStatus.NOT_FOUND)
+    public ResponseEntity<String> handleNoSuchElement(EntityNotFoundException e) {
+        return new ResponseEntity<>(e.getMessage(), HttpStatus.NOT_FOUND);
+    }
+
+}
@@ -0,0 +1,49 @@
+package ru.utsx.Devops.api.controller;
+
+import jakarta.persistence.EntityNotFoundException;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import ru.utsx.Devops.api.facade.UserFacade;
+import ru.utsx.Devops.api.model.user.UserDto;
+
+// По умолчанию список отдаётся JSON-массивом; с Accept: application/x-ndjson - потоком по мере чтения строк из базы
+@RestController
+@RequiredArgsConstructor
+@RequestMapping(path = "/api/v1/reactive/users")
+public class ReactiveUserController {
+
+    private final UserFacade userFacade;
+
+    @GetMapping
+    public Flux<UserDto> getAllUsers() {
+        return userFacade.getAllUsersReactive();
+    }
+
+    // Отдельный маппинг: если NDJSON указан в produces общего метода, Spring стримит и на Accept: */*
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<UserDto> streamAllUsers() {
+        return userFacade.getAllUsersReactive();
+    }
+
+    @GetMapping("/{id}")
+    public Mono<UserDto> getUser(@PathVariable Long id) {
+        return userFacade.getUserByIdReactive(id);
+    }
+
+    @ExceptionHandler(EntityNotFoundException.class)
+    @ResponseStatus(HttpStatus.NOT_FOUND)
+    public ResponseEntity<String> handleNoSuchElement(EntityNotFoundException e) {
+        return new ResponseEntity<>(e.getMessage(), HttpStatus.NOT_FOUND);
+    }
+
+}
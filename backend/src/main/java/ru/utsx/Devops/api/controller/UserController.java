@@ -2,7 +2,9 @@ package ru.utsx.Devops.api.controller;
 
 import jakarta.persistence.EntityNotFoundException;
 import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.ExceptionHandler;
@@ -11,19 +13,28 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
 import ru.utsx.Devops.api.facade.UserFacade;
 import ru.utsx.Devops.api.model.user.CreateUserDto;
 import ru.utsx.Devops.api.model.user.UpdateUserDto;
 import ru.utsx.Devops.api.model.user.UserDto;
+import ru.utsx.Devops.api.model.user.UserImportResultDto;
+import ru.utsx.Devops.api.model.user.UsernameAvailabilityDto;
+
+import java.io.InputStream;
+import java.sql.SQLException;
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping(path = "api/v1/users")
 @RequiredArgsConstructor
 public class UserController {
 
+    private static final String UNIQUE_VIOLATION = "23505";
+
     private final UserFacade userFacade;
 
     @GetMapping
@@ -31,16 +42,56 @@ public class UserController {
         return userFacade.getAllUsers();
     }
 
+    // Постраничный список по возрастанию id; с несколькими шардами страница собирается слиянием ответов шардов
+    @GetMapping(params = "page")
+    public List<UserDto> getUsers(@RequestParam int page, @RequestParam(defaultValue = "100") int size) {
+        return userFacade.getUsers(page, size);
+    }
+
+    // Разреженный ответ: fields=id,username - из БД читаются только эти колонки users, заказы не загружаются
+    @GetMapping(params = "fields")
+    public List<Map<String, Object>> getAllUsers(@RequestParam String fields) {
+        return userFacade.getAllUsers(fields);
+    }
+
+    @GetMapping(params = {"page", "fields"})
+    public List<Map<String, Object>> getUsers(@RequestParam int page,
+                                              @RequestParam(defaultValue = "100") int size,
+                                              @RequestParam String fields) {
+        return userFacade.getUsers(page, size, fields);
+    }
+
+    // Быстрая проверка имени перед регистрацией: свободные имена обычно отвечаются фильтром без запроса в БД
+    @GetMapping("/availability")
+    public UsernameAvailabilityDto getUsernameAvailability(@RequestParam String username) {
+        return userFacade.getUsernameAvailability(username);
+    }
+
     @GetMapping("/{id}")
     public UserDto getUser(@PathVariable Long id) {
         return userFacade.getUserById(id);
     }
 
+    @GetMapping(path = "/{id}", params = "fields")
+    public Map<String, Object> getUser(@PathVariable Long id, @RequestParam String fields) {
+        return userFacade.getUserById(id, fields);
+    }
+
     @PutMapping("/create")
     public Long createUser(@RequestBody CreateUserDto userDto) {
         return userFacade.createUser(userDto);
     }
 
+    @PutMapping(path = "/import", consumes = "text/csv")
+    public UserImportResultDto importUsersCsv(InputStream body) {
+        return userFacade.importUsersCsv(body);
+    }
+
+    @PutMapping(path = "/import", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public UserImportResultDto importUsersNdjson(InputStream body) {
+        return userFacade.importUsersNdjson(body);
+    }
+
     @DeleteMapping("/{id}")
     public void deleteUser(@PathVariable Long id) {
         userFacade.deleteUser(id);
@@ -57,4 +108,21 @@ public class UserController {
         return new ResponseEntity<>(e.getMessage(), HttpStatus.NOT_FOUND);
     }
 
+    @ExceptionHandler(IllegalArgumentException.class)
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public ResponseEntity<String> handleIllegalArgument(IllegalArgumentException e) {
+        return new ResponseEntity<>(e.getMessage(), HttpStatus.BAD_REQUEST);
+    }
+
+    // Единственное ограничение уникальности в users - username: его нарушает имя, которое другой под занял
+    // раньше, чем об этом узнал фильтр этого пода
+    @ExceptionHandler(DataIntegrityViolationException.class)
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public ResponseEntity<String> handleDataIntegrityViolation(DataIntegrityViolationException e) {
+        if (e.getMostSpecificCause() instanceof SQLException sql && UNIQUE_VIOLATION.equals(sql.getSQLState())) {
+            return new ResponseEntity<>("Имя пользователя уже занято", HttpStatus.BAD_REQUEST);
+        }
+        return new ResponseEntity<>("Некорректные данные пользователя", HttpStatus.BAD_REQUEST);
+    }
+
 }
@@ -0,0 +1,34 @@
+package ru.utsx.Devops.api.facade;
+
+import java.time.Duration;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import ru.utsx.Devops.api.mappers.AnalyticsMapper;
+import ru.utsx.Devops.api.model.analytics.TopItemsDto;
+import ru.utsx.Devops.core.analytics.SlidingTopK;
+import ru.utsx.Devops.domain.orders.OrderAnalyticsService;
+
+@Component
+@RequiredArgsConstructor
+public class AnalyticsFacade {
+
+    private final OrderAnalyticsService orderAnalyticsService;
+
+    public TopItemsDto getTopProducts(String by, int minutes, int limit) {
+        return AnalyticsMapper.toDto(orderAnalyticsService.topProducts(metric(by), Duration.ofMinutes(minutes), limit));
+    }
+
+    public TopItemsDto getTopUsers(String by, int minutes, int limit) {
+        return AnalyticsMapper.toDto(orderAnalyticsService.topUsers(metric(by), Duration.ofMinutes(minutes), limit));
+    }
+
+    private static SlidingTopK.Metric metric(String by) {
+        return switch (by) {
+            case "count" -> SlidingTopK.Metric.COUNT;
+            case "total" -> SlidingTopK.Metric.WEIGHT;
+            default -> throw new IllegalArgumentException("Параметр by должен быть count или total");
+        };
+    }
+
+}
@@ -0,0 +1,74 @@
+package ru.utsx.Devops.api.facade;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.function.Supplier;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityNotFoundException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.utsx.Devops.api.model.order.DeliveryScheduleDto;
+import ru.utsx.Devops.api.model.order.OrderDto;
+import ru.utsx.Devops.api.model.user.UserDto;
+import ru.utsx.Devops.core.warmup.WarmupTask;
+
+// Прогрев read-путей на выборке реальных данных: первые страницы пользователей и заказов, чтение по id
+// (заодно заполняет кэши), график доставки на неделю и реактивное чтение; ответы сериализуются тем же ObjectMapper,
+// что и в HTTP. На пустой базе прогреваются только постраничные запросы и маппинг пустых списков.
+@Component
+public class FacadeWarmupTask implements WarmupTask {
+
+    private final UserFacade userFacade;
+    private final OrderFacade orderFacade;
+    private final ObjectMapper objectMapper;
+    private final int sampleSize;
+
+    public FacadeWarmupTask(UserFacade userFacade,
+                            OrderFacade orderFacade,
+                            ObjectMapper objectMapper,
+                            @Value("${app.warmup.sample-size:20}") int sampleSize) {
+        this.userFacade = userFacade;
+        this.orderFacade = orderFacade;
+        this.objectMapper = objectMapper;
+        this.sampleSize = sampleSize;
+    }
+
+    @Override
+    public void execute() {
+        List<UserDto> users = userFacade.getUsers(0, sampleSize);
+        List<OrderDto> orders = orderFacade.getOrders(0, sampleSize);
+        // Запись из выборки могла быть удалена между запросами - такие пропускаются
+        users.forEach(user -> lookup(() -> userFacade.getUserById(user.getId())));
+        orders.forEach(order -> lookup(() -> orderFacade.getOrder(order.getId())));
+
+        LocalDate today = LocalDate.now();
+        DeliveryScheduleDto schedule = orderFacade.getDeliverySchedule(today, today.plusDays(7), 0, sampleSize);
+        if (!orders.isEmpty()) {
+            lookup(() -> orderFacade.getOrderReactive(orders.get(0).getId()).block());
+        }
+        serialize(users);
+        serialize(orders);
+        serialize(schedule);
+    }
+
+    private void lookup(Supplier<?> read) {
+        try {
+            serialize(read.get());
+        } catch (EntityNotFoundException e) {
+            // пропускаем
+        }
+    }
+
+    private void serialize(Object value) {
+        try {
+            objectMapper.writeValue(OutputStream.nullOutputStream(), value);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+}
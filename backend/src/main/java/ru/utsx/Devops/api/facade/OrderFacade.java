@@ -2,14 +2,26 @@ package ru.utsx.Devops.api.facade;
 
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 import ru.utsx.Devops.api.mappers.OrderMapper;
+import ru.utsx.Devops.api.model.order.BulkOperationResultDto;
+import ru.utsx.Devops.api.model.order.BulkUpdateOrdersDto;
 import ru.utsx.Devops.api.model.order.CreateOrderDto;
+import ru.utsx.Devops.api.model.order.DeliveryScheduleDto;
 import ru.utsx.Devops.api.model.order.OrderDto;
+import ru.utsx.Devops.api.model.order.OrderFilterDto;
 import ru.utsx.Devops.api.model.order.UpdateOrderDto;
+import ru.utsx.Devops.domain.orders.OrderBulkCommandService;
 import ru.utsx.Devops.domain.orders.OrderCommandService;
+import ru.utsx.Devops.domain.orders.OrderField;
 import ru.utsx.Devops.domain.orders.OrderQueryService;
+import ru.utsx.Devops.domain.orders.OrderReactiveQueryService;
 
+import java.time.LocalDate;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 @Component
 @RequiredArgsConstructor
@@ -17,6 +29,8 @@ public class OrderFacade {
 
     private final OrderQueryService orderQueryService;
     private final OrderCommandService orderCommandService;
+    private final OrderBulkCommandService orderBulkCommandService;
+    private final OrderReactiveQueryService orderReactiveQueryService;
 
     public OrderDto getOrder(Long id) {
         return OrderMapper.toDto(orderQueryService.getOrder(id));
@@ -28,6 +42,43 @@ public class OrderFacade {
                 .toList();
     }
 
+    public List<OrderDto> getOrders(int page, int size) {
+        return orderQueryService.getOrders(page, size).stream()
+                .map(OrderMapper::toDto)
+                .toList();
+    }
+
+    public Map<String, Object> getOrder(Long id, String fields) {
+        Set<OrderField> selected = OrderField.parse(fields);
+        return OrderMapper.toFields(orderQueryService.getOrderFields(id, selected), selected);
+    }
+
+    public List<Map<String, Object>> getAllOrders(String fields) {
+        Set<OrderField> selected = OrderField.parse(fields);
+        return orderQueryService.getAllOrderFields(selected).stream()
+                .map(order -> OrderMapper.toFields(order, selected))
+                .toList();
+    }
+
+    public List<Map<String, Object>> getOrders(int page, int size, String fields) {
+        Set<OrderField> selected = OrderField.parse(fields);
+        return orderQueryService.getOrderFields(page, size, selected).stream()
+                .map(order -> OrderMapper.toFields(order, selected))
+                .toList();
+    }
+
+    public DeliveryScheduleDto getDeliverySchedule(LocalDate from, LocalDate to, int page, int size) {
+        return OrderMapper.toDto(orderQueryService.getDeliverySchedule(from, to, page, size), from, to, page, size);
+    }
+
+    public Mono<OrderDto> getOrderReactive(Long id) {
+        return orderReactiveQueryService.getOrder(id).map(OrderMapper::toDto);
+    }
+
+    public Flux<OrderDto> getAllOrdersReactive() {
+        return orderReactiveQueryService.getAllOrders().map(OrderMapper::toDto);
+    }
+
     public Long createOrder(CreateOrderDto orderDto) {
         return orderCommandService.createOrder(orderDto);
     }
@@ -40,4 +91,12 @@ public class OrderFacade {
         orderCommandService.deleteOrder(id);
     }
 
+    public BulkOperationResultDto updateOrders(BulkUpdateOrdersDto request, boolean dryRun) {
+        return orderBulkCommandService.updateOrders(request, dryRun);
+    }
+
+    public BulkOperationResultDto deleteOrders(OrderFilterDto filter, boolean dryRun) {
+        return orderBulkCommandService.deleteOrders(filter, dryRun);
+    }
+
 }
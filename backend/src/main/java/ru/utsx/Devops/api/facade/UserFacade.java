@@ -2,13 +2,24 @@ package ru.utsx.Devops.api.facade;
 
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 import ru.utsx.Devops.api.mappers.UserMapper;
 import ru.utsx.Devops.api.model.user.CreateUserDto;
 import ru.utsx.Devops.api.model.user.UpdateUserDto;
 import ru.utsx.Devops.api.model.user.UserDto;
+import ru.utsx.Devops.api.model.user.UserImportResultDto;
+import ru.utsx.Devops.api.model.user.UsernameAvailabilityDto;
 import ru.utsx.Devops.domain.users.UserCommandService;
+import ru.utsx.Devops.domain.users.UserField;
+import ru.utsx.Devops.domain.users.UserImportService;
 import ru.utsx.Devops.domain.users.UserQueryService;
+import ru.utsx.Devops.domain.users.UserReactiveQueryService;
+
+import java.io.InputStream;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 @Component
 @RequiredArgsConstructor
@@ -16,6 +27,8 @@ public class UserFacade {
 
     private final UserQueryService userQueryService;
     private final UserCommandService userCommandService;
+    private final UserImportService userImportService;
+    private final UserReactiveQueryService userReactiveQueryService;
 
     public UserDto getUserById(Long id) {
         return UserMapper.toDto(userQueryService.getUser(id));
@@ -27,6 +40,46 @@ public class UserFacade {
                 .toList();
     }
 
+    public List<UserDto> getUsers(int page, int size) {
+        return userQueryService.getUsers(page, size).stream()
+                .map(UserMapper::toDto)
+                .toList();
+    }
+
+    public Map<String, Object> getUserById(Long id, String fields) {
+        Set<UserField> selected = UserField.parse(fields);
+        return UserMapper.toFields(userQueryService.getUserFields(id, selected), selected);
+    }
+
+    public List<Map<String, Object>> getAllUsers(String fields) {
+        Set<UserField> selected = UserField.parse(fields);
+        return userQueryService.getAllUserFields(selected).stream()
+                .map(user -> UserMapper.toFields(user, selected))
+                .toList();
+    }
+
+    public List<Map<String, Object>> getUsers(int page, int size, String fields) {
+        Set<UserField> selected = UserField.parse(fields);
+        return userQueryService.getUserFields(page, size, selected).stream()
+                .map(user -> UserMapper.toFields(user, selected))
+                .toList();
+    }
+
+    public UsernameAvailabilityDto getUsernameAvailability(String username) {
+        return UsernameAvailabilityDto.builder()
+                .username(username)
+                .available(userQueryService.isUsernameAvailable(username))
+                .build();
+    }
+
+    public Mono<UserDto> getUserByIdReactive(Long id) {
+        return userReactiveQueryService.getUser(id).map(UserMapper::toDto);
+    }
+
+    public Flux<UserDto> getAllUsersReactive() {
+        return userReactiveQueryService.getAllUsers().map(UserMapper::toDto);
+    }
+
     public Long createUser(CreateUserDto userDto) {
         return userCommandService.createUser(userDto);
     }
@@ -39,4 +92,12 @@ public class UserFacade {
         userCommandService.updateUser(id, userDto);
     }
 
+    public UserImportResultDto importUsersCsv(InputStream csv) {
+        return userImportService.importCsv(csv);
+    }
+
+    public UserImportResultDto importUsersNdjson(InputStream ndjson) {
+        return userImportService.importNdjson(ndjson);
+    }
+
 }
@@ -0,0 +1,34 @@
+package ru.utsx.Devops.api.mappers;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+import ru.utsx.Devops.api.model.analytics.TopItemDto;
+import ru.utsx.Devops.api.model.analytics.TopItemsDto;
+import ru.utsx.Devops.core.analytics.SlidingTopK;
+
+public class AnalyticsMapper {
+
+    public static TopItemsDto toDto(SlidingTopK.Summary<?> summary) {
+        return TopItemsDto.builder()
+                .from(summary.from())
+                .to(summary.to())
+                .orders(summary.events())
+                .total(money(summary.weight()))
+                .countError((long) Math.ceil(summary.countError()))
+                .totalError(money(summary.weightError()))
+                .items(summary.entries().stream()
+                        .map(entry -> TopItemDto.builder()
+                                .key(entry.key())
+                                .count(entry.count())
+                                .total(money(entry.weight()))
+                                .build())
+                        .toList())
+                .build();
+    }
+
+    private static BigDecimal money(double value) {
+        return BigDecimal.valueOf(value).setScale(2, RoundingMode.HALF_UP);
+    }
+
+}
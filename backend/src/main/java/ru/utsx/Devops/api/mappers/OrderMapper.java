@@ -1,8 +1,23 @@
 package ru.utsx.Devops.api.mappers;
 
+import java.time.LocalDate;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
+import jakarta.persistence.Tuple;
+
+import ru.utsx.Devops.api.model.order.DeliveryDayDto;
+import ru.utsx.Devops.api.model.order.DeliveryScheduleDto;
 import ru.utsx.Devops.api.model.order.OrderDto;
+import ru.utsx.Devops.domain.orders.DeliveryDayCount;
+import ru.utsx.Devops.domain.orders.DeliverySchedule;
 import ru.utsx.Devops.domain.orders.Order;
+import ru.utsx.Devops.domain.orders.OrderField;
+import ru.utsx.Devops.domain.orders.OrderStatus;
+import ru.utsx.Devops.domain.orders.ScheduledOrder;
 
 public class OrderMapper {
 
@@ -17,4 +32,47 @@ public class OrderMapper {
                 .build();
     }
 
+    public static OrderDto toDto(ScheduledOrder order) {
+        return OrderDto.builder()
+                .id(order.id())
+                .userId(order.userId())
+                .deliveryDate(order.deliveryDate())
+                .productName(order.productName())
+                .status(order.status())
+                .total(order.total())
+                .build();
+    }
+
+    // Разреженный ответ: только запрошенные поля в порядке OrderField, как в OrderDto
+    public static Map<String, Object> toFields(Tuple order, Set<OrderField> fields) {
+        Map<String, Object> result = new LinkedHashMap<>();
+        fields.forEach(field -> result.put(field.getFieldName(), order.get(field.name())));
+        return result;
+    }
+
+    public static DeliveryScheduleDto toDto(DeliverySchedule schedule, LocalDate from, LocalDate to, int page, int size) {
+        // Счётчики приходят отсортированными по дню, поэтому LinkedHashMap сохраняет порядок дней
+        Map<LocalDate, Map<OrderStatus, Long>> byDay = new LinkedHashMap<>();
+        for (DeliveryDayCount count : schedule.counts()) {
+            byDay.computeIfAbsent(count.deliveryDate(), day -> new EnumMap<>(OrderStatus.class))
+                    .put(count.status(), count.count());
+        }
+        List<DeliveryDayDto> days = byDay.entrySet().stream()
+                .map(day -> DeliveryDayDto.builder()
+                        .date(day.getKey())
+                        .total(day.getValue().values().stream().mapToLong(Long::longValue).sum())
+                        .byStatus(day.getValue())
+                        .build())
+                .toList();
+        return DeliveryScheduleDto.builder()
+                .from(from)
+                .to(to)
+                .page(page)
+                .size(size)
+                .totalOrders(days.stream().mapToLong(DeliveryDayDto::getTotal).sum())
+                .days(days)
+                .orders(schedule.orders().stream().map(OrderMapper::toDto).toList())
+                .build();
+    }
+
 }
@@ -1,11 +1,16 @@
 package ru.utsx.Devops.api.mappers;
 
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 
+import jakarta.persistence.Tuple;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Component;
 import ru.utsx.Devops.api.model.user.UserDto;
 import ru.utsx.Devops.domain.users.User;
+import ru.utsx.Devops.domain.users.UserField;
 
 @Component
 @RequiredArgsConstructor
@@ -26,4 +31,11 @@ public class UserMapper {
                 .build();
     }
 
+    // Разреженный ответ: только запрошенные поля в порядке UserField, как в UserDto
+    public static Map<String, Object> toFields(Tuple user, Set<UserField> fields) {
+        Map<String, Object> result = new LinkedHashMap<>();
+        fields.forEach(field -> result.put(field.getFieldName(), user.get(field.name())));
+        return result;
+    }
+
 }
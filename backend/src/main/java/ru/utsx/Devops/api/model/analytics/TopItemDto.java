@@ -0,0 +1,14 @@
+package ru.utsx.Devops.api.model.analytics;
+
+import java.math.BigDecimal;
+
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+public class TopItemDto {
+    private final Object key;
+    private final long count;
+    private final BigDecimal total;
+}
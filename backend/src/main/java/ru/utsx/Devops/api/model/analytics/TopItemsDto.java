@@ -0,0 +1,21 @@
+package ru.utsx.Devops.api.model.analytics;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+
+import lombok.Builder;
+import lombok.Data;
+
+// Оценки count и total завышены не более чем на countError и totalError соответственно
+@Data
+@Builder
+public class TopItemsDto {
+    private final Instant from;
+    private final Instant to;
+    private final long orders;
+    private final BigDecimal total;
+    private final long countError;
+    private final BigDecimal totalError;
+    private final List<TopItemDto> items;
+}
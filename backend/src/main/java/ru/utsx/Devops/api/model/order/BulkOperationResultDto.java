@@ -0,0 +1,15 @@
+package ru.utsx.Devops.api.model.order;
+
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+public class BulkOperationResultDto {
+    private final boolean dryRun;
+    private final long matched;
+    private final long affected;
+    // Заказы, у которых дата доставки сдвинулась бы на более раннюю
+    private final long rejected;
+    private final int chunks;
+}
@@ -0,0 +1,17 @@
+package ru.utsx.Devops.api.model.order;
+
+import java.time.LocalDate;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.Builder;
+import lombok.Data;
+import ru.utsx.Devops.domain.orders.OrderStatus;
+
+@Data
+@Builder
+public class BulkUpdateOrdersDto {
+    private OrderFilterDto filter;
+    private OrderStatus status;
+    @JsonProperty("delivery_date")
+    private LocalDate deliveryDate;
+}
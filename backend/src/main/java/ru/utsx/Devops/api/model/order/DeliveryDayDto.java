@@ -0,0 +1,16 @@
+package ru.utsx.Devops.api.model.order;
+
+import java.time.LocalDate;
+import java.util.Map;
+
+import lombok.Builder;
+import lombok.Data;
+import ru.utsx.Devops.domain.orders.OrderStatus;
+
+@Data
+@Builder
+public class DeliveryDayDto {
+    private final LocalDate date;
+    private final long total;
+    private final Map<OrderStatus, Long> byStatus;
+}
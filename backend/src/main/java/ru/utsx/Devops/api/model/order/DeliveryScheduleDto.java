@@ -0,0 +1,20 @@
+package ru.utsx.Devops.api.model.order;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+public class DeliveryScheduleDto {
+    private final LocalDate from;
+    private final LocalDate to;
+    private final int page;
+    private final int size;
+    // Общее число заказов в диапазоне, по нему считается количество страниц
+    private final long totalOrders;
+    private final List<DeliveryDayDto> days;
+    private final List<OrderDto> orders;
+}
@@ -0,0 +1,18 @@
+package ru.utsx.Devops.api.model.order;
+
+import java.time.LocalDate;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.Builder;
+import lombok.Data;
+import ru.utsx.Devops.domain.orders.OrderStatus;
+
+// Условия объединяются через AND; хотя бы одно должно быть задано
+@Data
+@Builder
+public class OrderFilterDto {
+    private Long userId;
+    private OrderStatus status;
+    @JsonProperty("delivery_date")
+    private LocalDate deliveryDate;
+}
@@ -0,0 +1,18 @@
+package ru.utsx.Devops.api.model.user;
+
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+public class UserImportConflictDto {
+    private final long row;
+    private final String username;
+    private final Reason reason;
+
+    public enum Reason {
+        MISSING_FIELD,
+        USERNAME_TAKEN,
+        DUPLICATE_IN_FILE
+    }
+}
@@ -0,0 +1,16 @@
+package ru.utsx.Devops.api.model.user;
+
+import java.util.List;
+
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+public class UserImportResultDto {
+    private final long received;
+    private final long imported;
+    private final long conflictCount;
+    // Список ограничен, полное количество конфликтов - в conflictCount
+    private final List<UserImportConflictDto> conflicts;
+}
@@ -0,0 +1,11 @@
+package ru.utsx.Devops.api.model.user;
+
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+public class UsernameAvailabilityDto {
+    private final String username;
+    private final boolean available;
+}
@@ -0,0 +1,86 @@
+package ru.utsx.Devops.core.analytics;
+
+import java.util.Arrays;
+
+// Count-Min Sketch из depth строк по width ячеек: для каждого ключа хранятся число событий и сумма весов.
+// Оценка не меньше истинного значения и превышает его не более чем на (e / width) * N с вероятностью 1 - e^-depth,
+// где N - сумма по всем ключам. Индекс в каждой строке - свой независимый перемешанный хеш: при двойном хешировании
+// (h1 + row * h2) ключи, совпавшие по h1 и h2, сталкиваются сразу во всех строках.
+class CountMinSketch {
+
+    private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+
+    private final int depth;
+    private final int width;
+    private final long[] counts;
+    private final double[] weights;
+
+    CountMinSketch(int depth, int width) {
+        this.depth = depth;
+        this.width = width;
+        this.counts = new long[depth * width];
+        this.weights = new double[depth * width];
+    }
+
+    void add(long hash, double weight) {
+        for (int row = 0; row < depth; row++) {
+            int cell = cell(hash, row);
+            counts[cell]++;
+            weights[cell] += weight;
+        }
+    }
+
+    long estimateCount(long hash) {
+        long min = Long.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            min = Math.min(min, counts[cell(hash, row)]);
+        }
+        return min;
+    }
+
+    // Веса неотрицательны (суммы заказов), иначе оценка минимумом теряет смысл
+    double estimateWeight(long hash) {
+        double min = Double.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            min = Math.min(min, weights[cell(hash, row)]);
+        }
+        return min;
+    }
+
+    void clear() {
+        Arrays.fill(counts, 0);
+        Arrays.fill(weights, 0);
+    }
+
+    private int cell(long hash, int row) {
+        return row * width + (int) Math.floorMod(mix(hash + (row + 1) * GOLDEN_GAMMA), (long) width);
+    }
+
+    // 64-битный хеш всего ключа: у 32-битного hashCode строки вроде "Aa" и "BB" совпадают и делили бы ячейки во всех строках
+    static long hash(Object key) {
+        if (key instanceof String string) {
+            return mix(fnv1a(string));
+        }
+        if (key instanceof Long || key instanceof Integer) {
+            return mix(((Number) key).longValue());
+        }
+        return mix(key.hashCode());
+    }
+
+    private static long fnv1a(String value) {
+        long hash = 0xCBF29CE484222325L;
+        for (int i = 0; i < value.length(); i++) {
+            hash ^= value.charAt(i);
+            hash *= 0x100000001B3L;
+        }
+        return hash;
+    }
+
+    // SplitMix64: перемешивает хеш ключа, чтобы соседние id не попадали в соседние ячейки
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+}
@@ -0,0 +1,208 @@
+package ru.utsx.Devops.core.analytics;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// Самые частые и самые "тяжёлые" ключи за скользящее окно при фиксированной памяти.
+// Окно делится на кольцо корзин; в каждой корзине Count-Min Sketch (число событий и сумма весов по ключу)
+// и по candidates лучших ключей для каждой метрики. Запрос за последние N корзин объединяет кандидатов корзин и
+// суммирует их оценки по скетчам. Память не зависит от числа различных ключей:
+// buckets * (2 * depth * width ячеек + 2 * candidates ключей).
+// Ошибка оценки ключа - не больше epsilon() * (сумма метрики за запрошенный интервал), с вероятностью не ниже
+// 1 - buckets * e^-depth; оценки только завышаются. Ключ, не вошедший в кандидаты ни одной корзины, в ответ не
+// попадает, поэтому candidates берётся с запасом относительно запрашиваемого limit.
+public class SlidingTopK<K> {
+
+    public enum Metric {
+        COUNT,
+        WEIGHT
+    }
+
+    private final long bucketMillis;
+    private final int depth;
+    private final int width;
+    private final int candidates;
+    private final Clock clock;
+    private final Bucket<K>[] buckets;
+
+    @SuppressWarnings("unchecked")
+    public SlidingTopK(Duration window, Duration bucket, int depth, int width, int candidates, Clock clock) {
+        if (bucket.isZero() || bucket.isNegative() || window.compareTo(bucket) < 0) {
+            throw new IllegalArgumentException("Окно должно содержать хотя бы одну корзину");
+        }
+        if (depth < 1 || width < 1 || candidates < 1) {
+            throw new IllegalArgumentException("depth, width и candidates должны быть положительными");
+        }
+        this.bucketMillis = bucket.toMillis();
+        this.depth = depth;
+        this.width = width;
+        this.candidates = candidates;
+        this.clock = clock;
+        this.buckets = new Bucket[(int) Math.ceilDiv(window.toMillis(), bucketMillis)];
+        for (int i = 0; i < buckets.length; i++) {
+            buckets[i] = new Bucket<>(new CountMinSketch(depth, width), candidates);
+        }
+    }
+
+    public synchronized void add(K key, double weight) {
+        long epoch = clock.millis() / bucketMillis;
+        Bucket<K> bucket = buckets[(int) (epoch % buckets.length)];
+        if (bucket.epoch != epoch) {
+            bucket.reset(epoch);
+        }
+        long hash = CountMinSketch.hash(key);
+        bucket.sketch.add(hash, weight);
+        bucket.events++;
+        bucket.weight += weight;
+        bucket.byCount.offer(key, bucket.sketch.estimateCount(hash));
+        bucket.byWeight.offer(key, bucket.sketch.estimateWeight(hash));
+    }
+
+    // span округляется вверх до целого числа корзин и ограничивается окном; текущая корзина заполнена частично
+    public synchronized Summary<K> top(Duration span, int limit, Metric metric) {
+        long current = clock.millis() / bucketMillis;
+        int spanBuckets = (int) Math.clamp(Math.ceilDiv(span.toMillis(), bucketMillis), 1, buckets.length);
+        List<Bucket<K>> active = Arrays.stream(buckets)
+                .filter(bucket -> bucket.epoch > current - spanBuckets && bucket.epoch <= current)
+                .toList();
+
+        Set<K> keys = new HashSet<>();
+        long events = 0;
+        double weight = 0;
+        for (Bucket<K> bucket : active) {
+            keys.addAll((metric == Metric.COUNT ? bucket.byCount : bucket.byWeight).values.keySet());
+            events += bucket.events;
+            weight += bucket.weight;
+        }
+        Comparator<Entry<K>> order = metric == Metric.COUNT
+                ? Comparator.comparingLong(Entry<K>::count)
+                : Comparator.comparingDouble(Entry<K>::weight);
+        List<Entry<K>> entries = keys.stream()
+                .map(key -> estimate(key, active))
+                .sorted(order.reversed())
+                .limit(limit)
+                .toList();
+        return new Summary<>(Instant.ofEpochMilli((current - spanBuckets + 1) * bucketMillis),
+                Instant.ofEpochMilli(clock.millis()), events, weight, epsilon() * events, epsilon() * weight, entries);
+    }
+
+    public double epsilon() {
+        return Math.E / width;
+    }
+
+    public int candidates() {
+        return candidates;
+    }
+
+    public Duration window() {
+        return Duration.ofMillis(bucketMillis * buckets.length);
+    }
+
+    // Число ячеек скетчей и мест под кандидатов - верхняя граница памяти, не зависящая от данных
+    public long capacity() {
+        return (long) buckets.length * (2L * depth * width + 2L * candidates);
+    }
+
+    private Entry<K> estimate(K key, List<Bucket<K>> active) {
+        long hash = CountMinSketch.hash(key);
+        long count = 0;
+        double weight = 0;
+        for (Bucket<K> bucket : active) {
+            count += bucket.sketch.estimateCount(hash);
+            weight += bucket.sketch.estimateWeight(hash);
+        }
+        return new Entry<>(key, count, weight);
+    }
+
+    public record Entry<K>(K key, long count, double weight) {
+    }
+
+    // countError и weightError - граница завышения оценок count и weight за интервал [from, to]
+    public record Summary<K>(Instant from, Instant to, long events, double weight, double countError,
+                             double weightError, List<Entry<K>> entries) {
+    }
+
+    private static final class Bucket<K> {
+
+        private final CountMinSketch sketch;
+        private final Candidates<K> byCount;
+        private final Candidates<K> byWeight;
+        private long epoch = Long.MIN_VALUE;
+        private long events;
+        private double weight;
+
+        private Bucket(CountMinSketch sketch, int candidates) {
+            this.sketch = sketch;
+            this.byCount = new Candidates<>(candidates);
+            this.byWeight = new Candidates<>(candidates);
+        }
+
+        private void reset(long epoch) {
+            this.epoch = epoch;
+            sketch.clear();
+            byCount.clear();
+            byWeight.clear();
+            events = 0;
+            weight = 0;
+        }
+
+    }
+
+    // Не более capacity ключей с наибольшей оценкой; при переполнении вытесняется ключ с минимальной оценкой
+    private static final class Candidates<K> {
+
+        private final int capacity;
+        private final Map<K, Double> values;
+        private K minKey;
+        private double minValue;
+
+        private Candidates(int capacity) {
+            this.capacity = capacity;
+            this.values = new HashMap<>(capacity * 2);
+        }
+
+        private void offer(K key, double estimate) {
+            if (values.containsKey(key)) {
+                values.put(key, estimate);
+                if (key.equals(minKey)) {
+                    updateMin();
+                }
+            } else if (values.size() < capacity) {
+                values.put(key, estimate);
+                if (minKey == null || estimate < minValue) {
+                    minKey = key;
+                    minValue = estimate;
+                }
+            } else if (estimate > minValue) {
+                values.remove(minKey);
+                values.put(key, estimate);
+                updateMin();
+            }
+        }
+
+        private void clear() {
+            values.clear();
+            minKey = null;
+        }
+
+        private void updateMin() {
+            minKey = null;
+            for (Map.Entry<K, Double> entry : values.entrySet()) {
+                if (minKey == null || entry.getValue() < minValue) {
+                    minKey = entry.getKey();
+                    minValue = entry.getValue();
+                }
+            }
+        }
+
+    }
+
+}
@@ -0,0 +1,199 @@
+package ru.utsx.Devops.core.cache;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.List;
+import java.util.Properties;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+// Слушает канал cache_invalidation на отдельном соединении вне пула Hikari и вычищает локальный кэш.
+// После каждого (пере)подключения кэш сбрасывается целиком: уведомления за время разрыва потеряны.
+// На том же соединении слушаются каналы NotificationSubscriber, их сообщения передаются подписчикам.
+@Slf4j
+@Component
+public class CacheInvalidationListener implements SmartLifecycle {
+
+    private final String url;
+    private final Properties connectionProperties = new Properties();
+    private final CacheManager cacheManager;
+    private final CacheSnapshotStore cacheSnapshotStore;
+    private final ObjectProvider<NotificationSubscriber> subscriberProvider;
+    private final Duration pollTimeout;
+    private final Duration keepaliveInterval;
+    private final Duration reconnectDelay;
+
+    private final Counter received;
+    private final Counter reconnects;
+    private final Counter flushes;
+    private final Timer lag;
+
+    private volatile List<NotificationSubscriber> subscribers = List.of();
+    private volatile boolean running;
+    private volatile Thread worker;
+
+    public CacheInvalidationListener(@Value("${spring.datasource.url}") String url,
+                                     @Value("${spring.datasource.username}") String username,
+                                     @Value("${spring.datasource.password}") String password,
+                                     @Value("${app.cache.invalidation.poll-timeout:PT1S}") Duration pollTimeout,
+                                     @Value("${app.cache.invalidation.keepalive-interval:PT15S}") Duration keepaliveInterval,
+                                     @Value("${app.cache.invalidation.reconnect-delay:PT2S}") Duration reconnectDelay,
+                                     CacheManager cacheManager,
+                                     CacheSnapshotStore cacheSnapshotStore,
+                                     ObjectProvider<NotificationSubscriber> subscriberProvider,
+                                     MeterRegistry meterRegistry) {
+        this.url = url;
+        this.connectionProperties.setProperty("user", username);
+        this.connectionProperties.setProperty("password", password);
+        this.connectionProperties.setProperty("ApplicationName", "cache-invalidation-listener");
+        this.cacheManager = cacheManager;
+        this.cacheSnapshotStore = cacheSnapshotStore;
+        this.subscriberProvider = subscriberProvider;
+        this.pollTimeout = pollTimeout;
+        this.keepaliveInterval = keepaliveInterval;
+        this.reconnectDelay = reconnectDelay;
+
+        this.received = Counter.builder("cache.invalidation.received").register(meterRegistry);
+        this.reconnects = Counter.builder("cache.invalidation.reconnects").register(meterRegistry);
+        this.flushes = Counter.builder("cache.invalidation.flushes").register(meterRegistry);
+        this.lag = Timer.builder("cache.invalidation.lag")
+                .description("Time from pg_notify on the publishing pod to local eviction")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void start() {
+        subscribers = subscriberProvider.orderedStream().toList();
+        running = true;
+        worker = Thread.ofPlatform().daemon().name("cache-invalidation-listener").start(this::listen);
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        Thread thread = worker;
+        if (thread != null) {
+            thread.interrupt();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void listen() {
+        while (running) {
+            try (Connection connection = DriverManager.getConnection(url, connectionProperties)) {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + CacheInvalidationPublisher.CHANNEL);
+                    for (NotificationSubscriber subscriber : subscribers) {
+                        statement.execute("LISTEN " + subscriber.channel());
+                    }
+                }
+                flushAll();
+                receive(connection);
+            } catch (SQLException e) {
+                if (!running) {
+                    return;
+                }
+                reconnects.increment();
+                log.warn("Cache invalidation listener disconnected, reconnecting in {}: {}", reconnectDelay, e.getMessage());
+                try {
+                    Thread.sleep(reconnectDelay.toMillis());
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    private void receive(Connection connection) throws SQLException {
+        PGConnection pgConnection = connection.unwrap(PGConnection.class);
+        long lastKeepalive = System.currentTimeMillis();
+        while (running) {
+            PGNotification[] notifications = pgConnection.getNotifications((int) pollTimeout.toMillis());
+            if (notifications != null) {
+                for (PGNotification notification : notifications) {
+                    dispatch(notification);
+                }
+            }
+            // Без запроса обрыв TCP-соединения может остаться незамеченным
+            if (System.currentTimeMillis() - lastKeepalive > keepaliveInterval.toMillis()) {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("SELECT 1");
+                }
+                lastKeepalive = System.currentTimeMillis();
+            }
+        }
+    }
+
+    void dispatch(PGNotification notification) {
+        // Ошибка разбора одного сообщения не должна останавливать поток слушателя
+        try {
+            if (CacheInvalidationPublisher.CHANNEL.equals(notification.getName())) {
+                handle(notification.getParameter());
+                return;
+            }
+            for (NotificationSubscriber subscriber : subscribers) {
+                if (subscriber.channel().equals(notification.getName())) {
+                    subscriber.onMessage(notification.getParameter());
+                }
+            }
+        } catch (RuntimeException e) {
+            log.warn("Failed to handle notification on channel {}: {}", notification.getName(), e.getMessage());
+        }
+    }
+
+    void handle(String payload) {
+        // Формат: <cache>:<key|*>:<epoch millis отправки>
+        String[] parts = payload.split(":", 3);
+        if (parts.length != 3) {
+            log.warn("Malformed cache invalidation message: {}", payload);
+            return;
+        }
+        received.increment();
+        Cache cache = cacheManager.getCache(parts[0]);
+        if (cache != null) {
+            if (CacheInvalidationPublisher.ALL_KEYS.equals(parts[1])) {
+                cache.clear();
+            } else {
+                cache.evict(Long.valueOf(parts[1]));
+            }
+        }
+        if (CacheInvalidationPublisher.ALL_KEYS.equals(parts[1])) {
+            cacheSnapshotStore.clear(parts[0]);
+        } else {
+            cacheSnapshotStore.evict(parts[0], Long.valueOf(parts[1]));
+        }
+        lag.record(Duration.ofMillis(Math.max(0, System.currentTimeMillis() - Long.parseLong(parts[2]))));
+    }
+
+    private void flushAll() {
+        cacheManager.getCacheNames().forEach(name -> {
+            Cache cache = cacheManager.getCache(name);
+            if (cache != null) {
+                cache.clear();
+            }
+            cacheSnapshotStore.clear(name);
+        });
+        flushes.increment();
+    }
+
+}
@@ -0,0 +1,79 @@
+package ru.utsx.Devops.core.cache;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.utsx.Devops.core.sharding.ShardRouter;
+
+// Инвалидация локального кэша и рассылка уведомления остальным репликам через pg_notify.
+// Внутри транзакции всё выполняется после коммита, чтобы другие поды не перечитали старые данные.
+// Уведомления всегда идут через шард 0: его слушает CacheInvalidationListener.
+@Component
+public class CacheInvalidationPublisher {
+
+    static final String CHANNEL = "cache_invalidation";
+    static final String ALL_KEYS = "*";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final CacheManager cacheManager;
+    private final CacheSnapshotStore cacheSnapshotStore;
+
+    public CacheInvalidationPublisher(ShardRouter shardRouter, CacheManager cacheManager,
+                                      CacheSnapshotStore cacheSnapshotStore) {
+        this.jdbcTemplate = new JdbcTemplate(shardRouter.shard(0));
+        this.cacheManager = cacheManager;
+        this.cacheSnapshotStore = cacheSnapshotStore;
+    }
+
+    public void evict(String cacheName, Object key) {
+        publish(cacheName, String.valueOf(key));
+    }
+
+    public void evictAll(String cacheName) {
+        publish(cacheName, ALL_KEYS);
+    }
+
+    // Сообщение в канал NotificationSubscriber; как и инвалидация, внутри транзакции уходит после коммита
+    public void broadcast(String channel, String payload) {
+        afterCommit(() -> jdbcTemplate.queryForObject("SELECT pg_notify(?, ?)", Object.class, channel, payload));
+    }
+
+    private void publish(String cacheName, String key) {
+        afterCommit(() -> send(cacheName, key));
+    }
+
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    private void send(String cacheName, String key) {
+        Cache cache = cacheManager.getCache(cacheName);
+        if (cache != null) {
+            if (ALL_KEYS.equals(key)) {
+                cache.clear();
+            } else {
+                cache.evict(Long.valueOf(key));
+            }
+        }
+        if (ALL_KEYS.equals(key)) {
+            cacheSnapshotStore.clear(cacheName);
+        } else {
+            cacheSnapshotStore.evict(cacheName, Long.valueOf(key));
+        }
+        jdbcTemplate.queryForObject("SELECT pg_notify(?, ?)", Object.class,
+                CHANNEL, cacheName + ":" + key + ":" + System.currentTimeMillis());
+    }
+
+}
@@ -0,0 +1,11 @@
+package ru.utsx.Devops.core.cache;
+
+public final class CacheNames {
+
+    public static final String ORDERS = "orders";
+    public static final String USERS = "users";
+
+    private CacheNames() {
+    }
+
+}
@@ -0,0 +1,88 @@
+package ru.utsx.Devops.core.cache;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.Set;
+
+// Сериализация значений одного кэша в снимок и проверка, что восстановленные значения не устарели.
+// Ключ кэша - id сущности (Long). Реализации живут рядом с сущностями и регистрируются как бины.
+public interface CacheSnapshotCodec<V> {
+
+    String cacheName();
+
+    Class<V> type();
+
+    long key(V value);
+
+    void write(V value, ByteBuffer out);
+
+    V read(ByteBuffer in);
+
+    // Ключи из values, которые совпадают с текущими строками в БД (по updated_at); остальные значения снимка отбрасываются
+    Set<Long> current(Map<Long, V> values);
+
+    static void putString(ByteBuffer out, String value) {
+        if (value == null) {
+            out.putInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.putInt(bytes.length).put(bytes);
+    }
+
+    static String getString(ByteBuffer in) {
+        int length = in.getInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    // Секунды и наносекунды отдельно: updated_at сравнивается с БД на точное равенство
+    static void putInstant(ByteBuffer out, Instant value) {
+        out.put((byte) (value == null ? 0 : 1));
+        if (value != null) {
+            out.putLong(value.getEpochSecond()).putInt(value.getNano());
+        }
+    }
+
+    static Instant getInstant(ByteBuffer in) {
+        return in.get() == 0 ? null : Instant.ofEpochSecond(in.getLong(), in.getInt());
+    }
+
+    static void putDate(ByteBuffer out, LocalDate value) {
+        out.putLong(value == null ? Long.MIN_VALUE : value.toEpochDay());
+    }
+
+    static LocalDate getDate(ByteBuffer in) {
+        long epochDay = in.getLong();
+        return epochDay == Long.MIN_VALUE ? null : LocalDate.ofEpochDay(epochDay);
+    }
+
+    static void putDecimal(ByteBuffer out, BigDecimal value) {
+        if (value == null) {
+            out.putInt(-1);
+            return;
+        }
+        byte[] unscaled = value.unscaledValue().toByteArray();
+        out.putInt(unscaled.length).put(unscaled).putInt(value.scale());
+    }
+
+    static BigDecimal getDecimal(ByteBuffer in) {
+        int length = in.getInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] unscaled = new byte[length];
+        in.get(unscaled);
+        return new BigDecimal(new BigInteger(unscaled), in.getInt());
+    }
+
+}
@@ -0,0 +1,26 @@
+package ru.utsx.Devops.core.cache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.boot.autoconfigure.cache.CacheManagerCustomizer;
+import org.springframework.boot.autoconfigure.cache.CacheProperties;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.StringUtils;
+
+// Кэши со снимком строятся как LoadingCache с той же спецификацией spring.cache.caffeine.spec: на промахе
+// CaffeineCache спрашивает загрузчик, и только если снимок не дал значения, @Cacheable читает сущность из БД.
+@Configuration
+public class CacheSnapshotConfiguration {
+
+    @Bean
+    public CacheManagerCustomizer<CaffeineCacheManager> cacheSnapshotLoaders(CacheSnapshotStore cacheSnapshotStore,
+                                                                           CacheProperties cacheProperties) {
+        return cacheManager -> cacheSnapshotStore.cacheNames().forEach(name -> {
+            String spec = cacheProperties.getCaffeine().getSpec();
+            Caffeine<Object, Object> builder = StringUtils.hasText(spec) ? Caffeine.from(spec) : Caffeine.newBuilder();
+            cacheManager.registerCustomCache(name, builder.build(key -> cacheSnapshotStore.restore(name, key)));
+        });
+    }
+
+}
@@ -0,0 +1,342 @@
+package ru.utsx.Devops.core.cache;
+
+import java.io.IOException;
+import java.nio.BufferOverflowException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Component;
+
+// Снимки горячих записей кэшей в локальных файлах <dir>/<cache>.snapshot для быстрого прогрева после рестарта.
+// При старте файл отображается в память (mmap) и читается только индекс; значение декодируется, когда его ключ
+// впервые промахивается мимо кэша. Перед выдачей значения сверяются с БД порцией из validation-batch самых горячих
+// ещё не проверенных ключей: один лёгкий запрос по updated_at вместо полной загрузки каждой сущности.
+// Формат: magic, version, время записи, число записей, индекс (key, offset, length) по убыванию горячести, данные.
+@Slf4j
+@Component
+public class CacheSnapshotStore {
+
+    private static final int MAGIC = 0x43534E50;
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 4 + 4 + 8 + 4;
+    private static final int INDEX_ENTRY_BYTES = 8 + 4 + 4;
+
+    private final Map<String, CacheSnapshotCodec<Object>> codecs = new LinkedHashMap<>();
+    private final Path dir;
+    private final boolean enabled;
+    private final int validationBatch;
+    private final MeterRegistry meterRegistry;
+
+    private final Map<String, Snapshot> snapshots = new ConcurrentHashMap<>();
+
+    @SuppressWarnings("unchecked")
+    public CacheSnapshotStore(List<CacheSnapshotCodec<?>> codecs,
+                              MeterRegistry meterRegistry,
+                              @Value("${app.cache.snapshot.enabled:true}") boolean enabled,
+                              @Value("${app.cache.snapshot.dir:${java.io.tmpdir}/cache-snapshot}") String dir,
+                              @Value("${app.cache.snapshot.validation-batch:500}") int validationBatch) {
+        codecs.forEach(codec -> this.codecs.put(codec.cacheName(), (CacheSnapshotCodec<Object>) codec));
+        this.meterRegistry = meterRegistry;
+        this.enabled = enabled;
+        this.dir = Path.of(dir);
+        this.validationBatch = validationBatch;
+
+        Gauge.builder("cache.snapshot.pending", this, store -> store.snapshots.values().stream()
+                        .mapToInt(snapshot -> snapshot.pending.size() + snapshot.validated.size())
+                        .sum())
+                .description("Snapshot entries not yet restored into the cache or discarded")
+                .register(meterRegistry);
+        load();
+    }
+
+    public Set<String> cacheNames() {
+        return enabled ? codecs.keySet() : Set.of();
+    }
+
+    // Перечитывает снимки с диска, ранее загруженные записи забываются
+    public void load() {
+        snapshots.clear();
+        if (!enabled) {
+            return;
+        }
+        codecs.forEach((cacheName, codec) -> {
+            Path file = file(cacheName);
+            if (!Files.exists(file)) {
+                return;
+            }
+            long start = System.nanoTime();
+            String outcome = "success";
+            try {
+                Snapshot snapshot = map(codec, file);
+                snapshots.put(cacheName, snapshot);
+                log.info("Cache snapshot {} mapped: {} entries", file, snapshot.order.length);
+            } catch (IOException | RuntimeException e) {
+                outcome = "failure";
+                log.warn("Ignoring unreadable cache snapshot {}: {}", file, e.toString());
+            } finally {
+                Timer.builder("cache.snapshot.load")
+                        .description("Time to map a cache snapshot and read its index")
+                        .tag("cache", cacheName)
+                        .tag("outcome", outcome)
+                        .register(meterRegistry)
+                        .record(Duration.ofNanos(System.nanoTime() - start));
+            }
+        });
+    }
+
+    // Загрузчик кэша: значение из снимка, если оно совпадает с БД, иначе null - и кэш читает сущность как обычно
+    public Object restore(String cacheName, Object key) {
+        Snapshot snapshot = snapshots.get(cacheName);
+        if (snapshot == null || !(key instanceof Long id)
+                || !snapshot.pending.containsKey(id) && !snapshot.validated.containsKey(id)) {
+            return null;
+        }
+        synchronized (snapshot) {
+            Object value = snapshot.validated.remove(id);
+            if (value == null && snapshot.pending.containsKey(id)) {
+                validate(snapshot, id);
+                value = snapshot.validated.remove(id);
+            }
+            if (value != null) {
+                snapshot.restored.increment();
+            }
+            if (snapshot.pending.isEmpty() && snapshot.validated.isEmpty()) {
+                // Последняя ссылка на отображение: память освободится вместе с буфером
+                snapshots.remove(cacheName, snapshot);
+            }
+            return value;
+        }
+    }
+
+    // Ключ изменился: ни проверенное, ни ещё не проверенное значение из снимка больше не годится.
+    // Ожидает идущую сверку, чтобы её результат не перезаписал вытеснение
+    public void evict(String cacheName, Object key) {
+        Snapshot snapshot = snapshots.get(cacheName);
+        if (snapshot != null && key instanceof Long id) {
+            synchronized (snapshot) {
+                snapshot.pending.remove(id);
+                snapshot.validated.remove(id);
+            }
+        }
+    }
+
+    // Кэш сброшен целиком (в том числе после переподключения слушателя, когда уведомления могли потеряться):
+    // проверенные значения сверяются заново, непроверенные и так сверятся перед выдачей
+    public void clear(String cacheName) {
+        Snapshot snapshot = snapshots.get(cacheName);
+        if (snapshot != null) {
+            synchronized (snapshot) {
+                snapshot.validated.keySet().forEach(id -> {
+                    snapshot.pending.put(id, snapshot.slots.get(id));
+                    snapshot.requeued.add(id);
+                });
+                snapshot.validated.clear();
+            }
+        }
+    }
+
+    // Значения передаются по убыванию горячести. Файл пишется рядом и атомарно подменяет прежний снимок:
+    // уже отображённая в память версия остаётся доступной до освобождения
+    public int write(String cacheName, Collection<?> values) throws IOException {
+        CacheSnapshotCodec<Object> codec = codecs.get(cacheName);
+        if (!enabled || codec == null) {
+            return 0;
+        }
+        long start = System.nanoTime();
+        List<Object> entries = values.stream().filter(codec.type()::isInstance).collect(Collectors.toList());
+        ByteBuffer index = ByteBuffer.allocate(HEADER_BYTES + entries.size() * INDEX_ENTRY_BYTES);
+        index.putInt(MAGIC).putInt(VERSION).putLong(System.currentTimeMillis()).putInt(entries.size());
+        ByteBuffer data = ByteBuffer.allocate(64 * 1024);
+        for (Object value : entries) {
+            int offset = data.position();
+            while (true) {
+                try {
+                    codec.write(value, data);
+                    break;
+                } catch (BufferOverflowException e) {
+                    data = grow(data, offset);
+                }
+            }
+            index.putLong(codec.key(value)).putInt(offset).putInt(data.position() - offset);
+        }
+
+        Files.createDirectories(dir);
+        Path file = file(cacheName);
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            index.flip();
+            data.flip();
+            while (index.hasRemaining() || data.hasRemaining()) {
+                channel.write(new ByteBuffer[]{index, data});
+            }
+            channel.force(false);
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        Timer.builder("cache.snapshot.write")
+                .description("Time to encode and write a cache snapshot")
+                .tag("cache", cacheName)
+                .register(meterRegistry)
+                .record(Duration.ofNanos(System.nanoTime() - start));
+        return entries.size();
+    }
+
+    // Сверка порции: запрошенный ключ, возвращённые на повторную сверку и следующие по горячести непроверенные ключи
+    private void validate(Snapshot snapshot, long id) {
+        Map<Long, Object> batch = new LinkedHashMap<>();
+        decode(snapshot, id, batch);
+        while (batch.size() < validationBatch && !snapshot.requeued.isEmpty()) {
+            long next = snapshot.requeued.poll();
+            if (next != id && snapshot.pending.containsKey(next)) {
+                decode(snapshot, next, batch);
+            }
+        }
+        while (batch.size() < validationBatch && snapshot.cursor < snapshot.order.length) {
+            long next = snapshot.order[snapshot.cursor++];
+            if (next != id && snapshot.pending.containsKey(next)) {
+                decode(snapshot, next, batch);
+            }
+        }
+        if (batch.isEmpty()) {
+            return;
+        }
+        long start = System.nanoTime();
+        String outcome = "success";
+        try {
+            Set<Long> current = snapshot.codec.current(batch);
+            batch.forEach((key, value) -> {
+                if (current.contains(key)) {
+                    snapshot.validated.put(key, value);
+                } else {
+                    snapshot.stale.increment();
+                }
+            });
+        } catch (DataAccessException e) {
+            // Порция просто не восстанавливается: эти ключи загрузятся из БД обычным путём
+            outcome = "failure";
+            log.warn("Cache snapshot validation failed for {}: {}", snapshot.cacheName, e.getMessage());
+        } finally {
+            Timer.builder("cache.snapshot.validation")
+                    .description("Time to check a batch of snapshot entries against the database")
+                    .tag("cache", snapshot.cacheName)
+                    .tag("outcome", outcome)
+                    .register(meterRegistry)
+                    .record(Duration.ofNanos(System.nanoTime() - start));
+        }
+    }
+
+    private void decode(Snapshot snapshot, long id, Map<Long, Object> batch) {
+        Slot slot = snapshot.pending.remove(id);
+        if (slot == null) {
+            return;
+        }
+        try {
+            batch.put(id, snapshot.codec.read(snapshot.data.slice(slot.offset(), slot.length())));
+        } catch (BufferUnderflowException | IllegalArgumentException e) {
+            snapshot.stale.increment();
+            log.warn("Skipping corrupted entry {} in cache snapshot {}", id, snapshot.cacheName);
+        }
+    }
+
+    private Snapshot map(CacheSnapshotCodec<Object> codec, Path file) throws IOException {
+        MappedByteBuffer mapped;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        if (mapped.getInt() != MAGIC || mapped.getInt() != VERSION) {
+            throw new IOException("unknown snapshot format");
+        }
+        mapped.getLong();
+        int count = mapped.getInt();
+        int dataStart = HEADER_BYTES + count * INDEX_ENTRY_BYTES;
+        if (count < 0 || dataStart > mapped.limit()) {
+            throw new IOException("truncated snapshot index");
+        }
+        ByteBuffer data = mapped.slice(dataStart, mapped.limit() - dataStart);
+        Snapshot snapshot = new Snapshot(codec, data, new long[count]);
+        for (int i = 0; i < count; i++) {
+            long key = mapped.getLong();
+            Slot slot = new Slot(mapped.getInt(), mapped.getInt());
+            if (slot.offset() < 0 || slot.length() < 0 || slot.offset() + slot.length() > data.limit()) {
+                throw new IOException("snapshot entry out of bounds");
+            }
+            snapshot.order[i] = key;
+            snapshot.slots.put(key, slot);
+            snapshot.pending.put(key, slot);
+        }
+        return snapshot;
+    }
+
+    private Path file(String cacheName) {
+        return dir.resolve(cacheName + ".snapshot");
+    }
+
+    private static ByteBuffer grow(ByteBuffer data, int used) {
+        ByteBuffer bigger = ByteBuffer.allocate(data.capacity() * 2);
+        bigger.put(data.flip().limit(used));
+        return bigger;
+    }
+
+    private record Slot(int offset, int length) {
+    }
+
+    private final class Snapshot {
+
+        private final String cacheName;
+        private final CacheSnapshotCodec<Object> codec;
+        private final ByteBuffer data;
+        // Ключи по убыванию горячести на момент записи - порядок добора порций на сверку
+        private final long[] order;
+        private int cursor;
+        // Ключи, которые уже прошли сверку, но после сброса кэша проверяются заново; курсор их уже миновал
+        private final Deque<Long> requeued = new ArrayDeque<>();
+        private final Map<Long, Slot> slots = new ConcurrentHashMap<>();
+        private final Map<Long, Slot> pending = new ConcurrentHashMap<>();
+        private final Map<Long, Object> validated = new ConcurrentHashMap<>();
+        private final Counter restored;
+        private final Counter stale;
+
+        private Snapshot(CacheSnapshotCodec<Object> codec, ByteBuffer data, long[] order) {
+            this.cacheName = codec.cacheName();
+            this.codec = codec;
+            this.data = data;
+            this.order = order;
+            this.restored = lookups(cacheName, "restored");
+            this.stale = lookups(cacheName, "stale");
+        }
+
+    }
+
+    // restored - значение выдано из снимка, stale - отброшено после сверки с БД
+    private Counter lookups(String cacheName, String result) {
+        return Counter.builder("cache.snapshot.entries")
+                .description("Snapshot entries by validation result")
+                .tag("cache", cacheName)
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+}
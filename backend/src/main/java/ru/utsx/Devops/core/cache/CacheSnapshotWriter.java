@@ -0,0 +1,58 @@
+package ru.utsx.Devops.core.cache;
+
+import java.io.IOException;
+import java.util.Collection;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+// Периодически и при остановке пода сохраняет max-entries самых горячих записей каждого кэша со снимком
+@Slf4j
+@Component
+public class CacheSnapshotWriter {
+
+    private final CacheManager cacheManager;
+    private final CacheSnapshotStore cacheSnapshotStore;
+    private final int maxEntries;
+
+    public CacheSnapshotWriter(CacheManager cacheManager,
+                               CacheSnapshotStore cacheSnapshotStore,
+                               @Value("${app.cache.snapshot.max-entries:10000}") int maxEntries) {
+        this.cacheManager = cacheManager;
+        this.cacheSnapshotStore = cacheSnapshotStore;
+        this.maxEntries = maxEntries;
+    }
+
+    @Scheduled(fixedDelayString = "${app.cache.snapshot.interval:PT5M}", initialDelayString = "${app.cache.snapshot.interval:PT5M}")
+    public synchronized void snapshot() {
+        for (String cacheName : cacheSnapshotStore.cacheNames()) {
+            Cache cache = cacheManager.getCache(cacheName);
+            if (!(cache instanceof CaffeineCache caffeineCache)) {
+                continue;
+            }
+            com.github.benmanes.caffeine.cache.Cache<Object, Object> nativeCache = caffeineCache.getNativeCache();
+            // Без ограничения размера у кэша нет порядка по частоте обращений - берётся произвольная выборка
+            Collection<Object> hottest = nativeCache.policy().eviction()
+                    .map(eviction -> eviction.hottest(maxEntries).values())
+                    .orElseGet(() -> nativeCache.asMap().values().stream().limit(maxEntries).toList());
+            try {
+                int written = cacheSnapshotStore.write(cacheName, hottest);
+                log.debug("Cache snapshot for {} written: {} entries", cacheName, written);
+            } catch (IOException e) {
+                log.warn("Failed to write cache snapshot for {}: {}", cacheName, e.toString());
+            }
+        }
+    }
+
+    @PreDestroy
+    public void snapshotOnShutdown() {
+        snapshot();
+    }
+
+}
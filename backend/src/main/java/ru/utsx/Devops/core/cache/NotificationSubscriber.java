@@ -0,0 +1,11 @@
+package ru.utsx.Devops.core.cache;
+
+// Получатель сообщений pg_notify из собственного канала. CacheInvalidationListener слушает каналы всех
+// таких бинов на своём соединении; сообщения, отправленные за время переподключения, теряются.
+public interface NotificationSubscriber {
+
+    String channel();
+
+    void onMessage(String payload);
+
+}
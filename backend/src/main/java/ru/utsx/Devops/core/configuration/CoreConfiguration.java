@@ -1,13 +1,17 @@
 package ru.utsx.Devops.core.configuration;
 
+import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.data.jpa.repository.config.EnableJpaAuditing;
 import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @Configuration
 @EnableJpaRepositories(basePackages = {
         "ru.utsx.Devops.domain",
 })
 @EnableJpaAuditing
+@EnableScheduling
+@EnableCaching
 public class CoreConfiguration {
 }
@@ -0,0 +1,81 @@
+package ru.utsx.Devops.core.configuration;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.pool.PoolMetrics;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.util.StringUtils;
+import ru.utsx.Devops.core.sharding.ShardedDatabaseClient;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.ToIntFunction;
+
+// Пул R2DBC не регистрируется бином ConnectionFactory: его наличие отключает DataSourceAutoConfiguration,
+// а JPA-стек (команды, Liquibase) продолжает работать через JDBC.
+// На каждый шард (spring.datasource и app.sharding.urls) создаётся свой пул, метрики суммируются по пулам.
+@Configuration
+public class R2dbcConfiguration implements DisposableBean {
+
+    private final List<ConnectionPool> connectionPools = new ArrayList<>();
+
+    public R2dbcConfiguration(@Value("${app.r2dbc.url:}") String r2dbcUrl,
+                              @Value("${spring.datasource.url}") String jdbcUrl,
+                              @Value("${app.sharding.urls:}") List<String> shardUrls,
+                              @Value("${spring.datasource.username}") String username,
+                              @Value("${spring.datasource.password}") String password,
+                              @Value("${app.r2dbc.pool.max-size:10}") int maxSize,
+                              MeterRegistry meterRegistry) {
+        List<String> urls = new ArrayList<>();
+        urls.add(StringUtils.hasText(r2dbcUrl) ? r2dbcUrl : toR2dbcUrl(jdbcUrl));
+        shardUrls.stream().filter(StringUtils::hasText).map(url -> toR2dbcUrl(url.trim())).forEach(urls::add);
+
+        for (int shard = 0; shard < urls.size(); shard++) {
+            ConnectionFactoryOptions options = ConnectionFactoryOptions.parse(urls.get(shard)).mutate()
+                    .option(ConnectionFactoryOptions.USER, username)
+                    .option(ConnectionFactoryOptions.PASSWORD, password)
+                    .build();
+            connectionPools.add(new ConnectionPool(ConnectionPoolConfiguration.builder(ConnectionFactories.get(options))
+                    .name(urls.size() == 1 ? "r2dbc" : "r2dbc-shard-" + shard)
+                    .initialSize(0)
+                    .maxSize(maxSize)
+                    .build()));
+        }
+
+        registerPoolGauge(meterRegistry, "r2dbc.pool.acquired", PoolMetrics::acquiredSize);
+        registerPoolGauge(meterRegistry, "r2dbc.pool.idle", PoolMetrics::idleSize);
+        registerPoolGauge(meterRegistry, "r2dbc.pool.pending", PoolMetrics::pendingAcquireSize);
+    }
+
+    @Bean
+    public ShardedDatabaseClient reactiveDatabaseClient() {
+        return new ShardedDatabaseClient(connectionPools.stream()
+                .map(DatabaseClient::create)
+                .toList());
+    }
+
+    @Override
+    public void destroy() {
+        connectionPools.forEach(ConnectionPool::dispose);
+    }
+
+    private static String toR2dbcUrl(String jdbcUrl) {
+        return jdbcUrl.replaceFirst("^jdbc:", "r2dbc:");
+    }
+
+    private void registerPoolGauge(MeterRegistry meterRegistry, String name, ToIntFunction<PoolMetrics> metric) {
+        Gauge.builder(name, connectionPools, pools -> pools.stream()
+                        .mapToInt(pool -> pool.getMetrics().map(metric::applyAsInt).orElse(0))
+                        .sum())
+                .register(meterRegistry);
+    }
+
+}
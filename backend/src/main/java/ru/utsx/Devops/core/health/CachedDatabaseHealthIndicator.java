@@ -0,0 +1,105 @@
+package ru.utsx.Devops.core.health;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import ru.utsx.Devops.core.sharding.ShardRouter;
+
+// Проверка базы выполняется в фоне с фиксированным интервалом, пробы получают последний результат.
+// Если результат старше max-staleness (например, повис сам refresh), индикатор отдаёт DOWN.
+// Проверяется каждый шард, даже если предыдущий недоступен: результат по шардам в деталях, любой недоступный - DOWN.
+@Component
+public class CachedDatabaseHealthIndicator implements HealthIndicator {
+
+    private final List<JdbcTemplate> shards;
+    private final Duration maxStaleness;
+    private final Clock clock;
+
+    private volatile Health lastHealth = Health.down().withDetail("reason", "not checked yet").build();
+    private volatile Instant checkedAt;
+
+    @Autowired
+    public CachedDatabaseHealthIndicator(ShardRouter shardRouter,
+                                         @Value("${app.health.db.query-timeout:PT2S}") Duration queryTimeout,
+                                         @Value("${app.health.db.max-staleness:PT30S}") Duration maxStaleness) {
+        this(IntStream.range(0, shardRouter.shardCount())
+                        .mapToObj(shard -> createJdbcTemplate(shardRouter.shard(shard), queryTimeout))
+                        .toList(),
+                maxStaleness, Clock.systemUTC());
+    }
+
+    CachedDatabaseHealthIndicator(JdbcTemplate jdbcTemplate, Duration maxStaleness, Clock clock) {
+        this(List.of(jdbcTemplate), maxStaleness, clock);
+    }
+
+    CachedDatabaseHealthIndicator(List<JdbcTemplate> shards, Duration maxStaleness, Clock clock) {
+        this.shards = shards;
+        this.maxStaleness = maxStaleness;
+        this.clock = clock;
+    }
+
+    @Scheduled(fixedDelayString = "${app.health.db.refresh-interval:PT10S}")
+    public void refresh() {
+        Instant start = clock.instant();
+        Health.Builder builder = Health.up();
+        Map<String, Health> shardHealth = new LinkedHashMap<>();
+        for (int shard = 0; shard < shards.size(); shard++) {
+            try {
+                shards.get(shard).queryForObject("SELECT 1", Integer.class);
+                shardHealth.put(String.valueOf(shard), Health.up().build());
+            } catch (RuntimeException e) {
+                builder.down();
+                shardHealth.put(String.valueOf(shard), Health.down(e).build());
+            }
+        }
+        Instant end = clock.instant();
+        lastHealth = builder
+                .withDetail("shards", shardHealth)
+                .withDetail("database", "PostgreSQL")
+                .withDetail("latencyMs", Duration.between(start, end).toMillis())
+                .build();
+        checkedAt = end;
+    }
+
+    @Override
+    public Health health() {
+        Instant lastCheck = checkedAt;
+        if (lastCheck == null) {
+            return lastHealth;
+        }
+        Duration age = Duration.between(lastCheck, clock.instant());
+        if (age.compareTo(maxStaleness) > 0) {
+            return Health.down()
+                    .withDetail("reason", "health check result is stale")
+                    .withDetail("checkedAt", lastCheck.toString())
+                    .withDetail("ageMs", age.toMillis())
+                    .build();
+        }
+        return Health.status(lastHealth.getStatus())
+                .withDetails(lastHealth.getDetails())
+                .withDetail("checkedAt", lastCheck.toString())
+                .withDetail("ageMs", age.toMillis())
+                .build();
+    }
+
+    private static JdbcTemplate createJdbcTemplate(DataSource dataSource, Duration queryTimeout) {
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.setQueryTimeout((int) Math.max(1, queryTimeout.toSeconds()));
+        return jdbcTemplate;
+    }
+
+}
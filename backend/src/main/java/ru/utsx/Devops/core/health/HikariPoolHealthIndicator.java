@@ -0,0 +1,72 @@
+package ru.utsx.Devops.core.health;
+
+import java.sql.SQLException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import javax.sql.DataSource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.boot.actuate.health.Status;
+import org.springframework.stereotype.Component;
+import ru.utsx.Devops.core.sharding.ShardRouter;
+
+// Насыщение пула соединений для readiness: значения берутся из MXBean, запросов к базе нет.
+// Под нагрузкой с очередью ожидающих потоков больше порога pod временно выводится из балансировки.
+// Проверяется пул каждого шарда, достаточно насыщения любого из них; детали отдаются по номеру шарда.
+@Component
+public class HikariPoolHealthIndicator implements HealthIndicator {
+
+    private final ShardRouter shardRouter;
+    private final int maxAwaitingThreads;
+
+    public HikariPoolHealthIndicator(ShardRouter shardRouter,
+                                     @Value("${app.health.pool.max-awaiting-threads:5}") int maxAwaitingThreads) {
+        this.shardRouter = shardRouter;
+        this.maxAwaitingThreads = maxAwaitingThreads;
+    }
+
+    @Override
+    public Health health() {
+        Health.Builder builder = Health.up();
+        Map<String, Health> shards = new LinkedHashMap<>();
+        for (int shard = 0; shard < shardRouter.shardCount(); shard++) {
+            Health health = poolHealth(shardRouter.shard(shard));
+            if (Status.OUT_OF_SERVICE.equals(health.getStatus())) {
+                builder.outOfService();
+            }
+            shards.put(String.valueOf(shard), health);
+        }
+        return builder.withDetail("shards", shards).build();
+    }
+
+    private Health poolHealth(DataSource dataSource) {
+        HikariDataSource hikari;
+        try {
+            hikari = dataSource.unwrap(HikariDataSource.class);
+        } catch (SQLException e) {
+            return Health.unknown().withDetail("reason", "not a Hikari pool").build();
+        }
+        HikariPoolMXBean pool = hikari.getHikariPoolMXBean();
+        if (pool == null) {
+            return Health.unknown().withDetail("reason", "pool is not started yet").build();
+        }
+
+        int active = pool.getActiveConnections();
+        int awaiting = pool.getThreadsAwaitingConnection();
+        int max = hikari.getMaximumPoolSize();
+        Health.Builder builder = awaiting > maxAwaitingThreads ? Health.outOfService() : Health.up();
+        return builder
+                .withDetail("active", active)
+                .withDetail("idle", pool.getIdleConnections())
+                .withDetail("max", max)
+                .withDetail("awaiting", awaiting)
+                .withDetail("utilization", max == 0 ? 0.0 : (double) active / max)
+                .build();
+    }
+
+}
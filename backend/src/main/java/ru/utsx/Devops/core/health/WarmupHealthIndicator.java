@@ -0,0 +1,28 @@
+package ru.utsx.Devops.core.health;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.stereotype.Component;
+import ru.utsx.Devops.core.warmup.WarmupRunner;
+
+// Readiness остаётся OUT_OF_SERVICE, пока идёт прогрев; после него (в том числе неудачного) - UP
+@Component
+@RequiredArgsConstructor
+public class WarmupHealthIndicator implements HealthIndicator {
+
+    private final WarmupRunner warmupRunner;
+
+    @Override
+    public Health health() {
+        WarmupRunner.Progress progress = warmupRunner.progress();
+        Health.Builder builder = progress.outcome().finished() ? Health.up() : Health.outOfService();
+        return builder
+                .withDetail("outcome", progress.outcome())
+                .withDetail("iterations", progress.iterations())
+                .withDetail("elapsedMs", progress.elapsedMs())
+                .withDetail("budgetMs", warmupRunner.budget().toMillis())
+                .build();
+    }
+
+}
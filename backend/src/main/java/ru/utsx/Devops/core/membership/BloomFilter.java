@@ -0,0 +1,94 @@
+package ru.utsx.Devops.core.membership;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// Фильтр Блума для строк: mightContain == false означает, что строка точно не добавлялась,
+// true - что добавлялась с вероятностью ошибки около fpp, пока число элементов не превышает expectedInsertions.
+// Удаление не поддерживается: устаревшие элементы только повышают долю ложных срабатываний до перестройки.
+// Потокобезопасен без блокировок, биты выставляются через CAS.
+public final class BloomFilter {
+
+    private final long bitCount;
+    private final int hashCount;
+    private final AtomicLongArray bits;
+    private final AtomicLong setBits = new AtomicLong();
+
+    public BloomFilter(long expectedInsertions, double fpp) {
+        if (expectedInsertions < 1 || fpp <= 0 || fpp >= 1) {
+            throw new IllegalArgumentException("expectedInsertions должно быть положительным, fpp - в интервале (0, 1)");
+        }
+        // Оптимальные m = -n ln p / (ln 2)^2 и k = m / n * ln 2
+        long words = Math.ceilDiv((long) Math.ceil(-expectedInsertions * Math.log(fpp) / (Math.log(2) * Math.log(2))), 64L);
+        if (words > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Слишком большой фильтр для " + expectedInsertions + " элементов");
+        }
+        this.bits = new AtomicLongArray((int) words);
+        this.bitCount = words * 64;
+        this.hashCount = Math.max(1, (int) Math.round((double) bitCount / expectedInsertions * Math.log(2)));
+    }
+
+    public void put(String value) {
+        long hash = hash(value);
+        long h1 = mix(hash);
+        long h2 = mix(hash ^ 0x9E3779B97F4A7C15L) | 1;
+        for (int i = 0; i < hashCount; i++) {
+            long bit = Math.floorMod(h1 + i * h2, bitCount);
+            int word = (int) (bit >>> 6);
+            long mask = 1L << bit;
+            long previous = bits.getAndUpdate(word, current -> current | mask);
+            if ((previous & mask) == 0) {
+                setBits.incrementAndGet();
+            }
+        }
+    }
+
+    public boolean mightContain(String value) {
+        long hash = hash(value);
+        long h1 = mix(hash);
+        long h2 = mix(hash ^ 0x9E3779B97F4A7C15L) | 1;
+        for (int i = 0; i < hashCount; i++) {
+            long bit = Math.floorMod(h1 + i * h2, bitCount);
+            if ((bits.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Ожидаемая доля ложных срабатываний при текущем заполнении: (доля выставленных битов)^k
+    public double expectedFpp() {
+        return Math.pow((double) setBits.get() / bitCount, hashCount);
+    }
+
+    // Оценка числа различных элементов по числу выставленных битов: -m / k * ln(1 - X / m)
+    public long approximateElementCount() {
+        double fraction = (double) setBits.get() / bitCount;
+        return fraction >= 1 ? Long.MAX_VALUE : Math.round(-bitCount / (double) hashCount * Math.log1p(-fraction));
+    }
+
+    public long bitSize() {
+        return bitCount;
+    }
+
+    public int hashCount() {
+        return hashCount;
+    }
+
+    // FNV-1a по символам строки; перемешивание в mix распределяет биты по всей длине хеша
+    private static long hash(String value) {
+        long hash = 0xCBF29CE484222325L;
+        for (int i = 0; i < value.length(); i++) {
+            hash ^= value.charAt(i);
+            hash *= 0x100000001B3L;
+        }
+        return hash;
+    }
+
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+}
@@ -0,0 +1,57 @@
+package ru.utsx.Devops.core.profiling;
+
+import java.time.Duration;
+import java.util.List;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.InvalidEndpointRequestException;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.boot.actuate.endpoint.web.WebEndpointResponse;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+// POST /actuator/jfr {"profile":"profile","durationSeconds":30} блокируется на время записи и возвращает сводку,
+// GET /actuator/jfr/{id} отдаёт сам .jfr файл для JDK Mission Control
+// Изменяющие операции без авторизации: по умолчанию не публикуется, см. management.endpoints.web.exposure.include
+@Component
+@Endpoint(id = "jfr")
+@RequiredArgsConstructor
+public class JfrEndpoint {
+
+    private static final int DEFAULT_DURATION_SECONDS = 30;
+
+    private final JfrProfiler profiler;
+
+    @WriteOperation
+    public WebEndpointResponse<Object> record(@Nullable String profile, @Nullable Integer durationSeconds)
+            throws InterruptedException {
+        String recordingProfile = profile == null ? "profile" : profile;
+        Duration duration = Duration.ofSeconds(durationSeconds == null ? DEFAULT_DURATION_SECONDS : durationSeconds);
+        try {
+            return profiler.record(recordingProfile, duration)
+                    .<WebEndpointResponse<Object>>map(WebEndpointResponse::new)
+                    .orElseGet(() -> new WebEndpointResponse<>("Another JFR recording is in progress",
+                            WebEndpointResponse.STATUS_TOO_MANY_REQUESTS));
+        } catch (IllegalArgumentException e) {
+            throw new InvalidEndpointRequestException(e.getMessage(), e.getMessage());
+        }
+    }
+
+    @ReadOperation
+    public List<JfrSummary> recordings() {
+        return profiler.recordings();
+    }
+
+    @ReadOperation(produces = "application/octet-stream")
+    public WebEndpointResponse<Resource> recording(@Selector String id) {
+        return profiler.file(id)
+                .<WebEndpointResponse<Resource>>map(file -> new WebEndpointResponse<>(new FileSystemResource(file)))
+                .orElseGet(() -> new WebEndpointResponse<>(WebEndpointResponse.STATUS_NOT_FOUND));
+    }
+
+}
@@ -0,0 +1,132 @@
+package ru.utsx.Devops.core.profiling;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.Semaphore;
+
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+// Запись JFR по запросу: не больше одной одновременно, длительность ограничена, хранятся только последние файлы
+@Slf4j
+@Component
+public class JfrProfiler {
+
+    static final Set<String> PROFILES = Set.of("default", "profile");
+    private static final String PACKAGE_PREFIX = "ru.utsx.Devops.";
+    private static final DateTimeFormatter ID_FORMAT =
+            DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss-SSS").withZone(ZoneOffset.UTC);
+
+    private final Path directory;
+    private final Duration maxDuration;
+    private final int keepRecordings;
+    private final int topN;
+
+    private final Semaphore recordingSlot = new Semaphore(1);
+    private final Map<String, JfrSummary> recordings = new LinkedHashMap<>();
+
+    public JfrProfiler(@Value("${app.profiling.jfr.directory:${java.io.tmpdir}/devops-jfr}") Path directory,
+                       @Value("${app.profiling.jfr.max-duration:PT60S}") Duration maxDuration,
+                       @Value("${app.profiling.jfr.keep-recordings:5}") int keepRecordings,
+                       @Value("${app.profiling.jfr.top:15}") int topN) {
+        this.directory = directory;
+        this.maxDuration = maxDuration;
+        this.keepRecordings = keepRecordings;
+        this.topN = topN;
+    }
+
+    // Возвращает пустой Optional, если другая запись уже идёт
+    public Optional<JfrSummary> record(String profile, Duration duration) throws InterruptedException {
+        if (!PROFILES.contains(profile)) {
+            throw new IllegalArgumentException("Unknown JFR profile '" + profile + "', expected one of " + PROFILES);
+        }
+        if (duration.isNegative() || duration.isZero() || duration.compareTo(maxDuration) > 0) {
+            throw new IllegalArgumentException("Duration must be between 1s and " + maxDuration.toSeconds() + "s");
+        }
+        if (!recordingSlot.tryAcquire()) {
+            return Optional.empty();
+        }
+        try {
+            return Optional.of(doRecord(profile, duration));
+        } finally {
+            recordingSlot.release();
+        }
+    }
+
+    boolean isRecording() {
+        return recordingSlot.availablePermits() == 0;
+    }
+
+    public synchronized List<JfrSummary> recordings() {
+        return List.copyOf(recordings.values());
+    }
+
+    public synchronized Optional<Path> file(String id) {
+        // Путь строится только для известных id, поэтому selector не может указать на произвольный файл
+        return recordings.containsKey(id) ? Optional.of(path(id)) : Optional.empty();
+    }
+
+    private JfrSummary doRecord(String profile, Duration duration) throws InterruptedException {
+        Instant startedAt = Instant.now();
+        String id = ID_FORMAT.format(startedAt);
+        Path file = path(id);
+        try {
+            Files.createDirectories(directory);
+            try (Recording recording = new Recording(Configuration.getConfiguration(profile))) {
+                recording.setName("devops-" + id);
+                recording.setToDisk(true);
+                recording.setDestination(file);
+                // Страховка на случай, если поток будет прерван до stop()
+                recording.setDuration(duration.plusSeconds(5));
+                recording.start();
+                log.info("JFR recording {} started with profile '{}' for {}", id, profile, duration);
+                try {
+                    Thread.sleep(duration.toMillis());
+                } finally {
+                    recording.stop();
+                }
+            }
+
+            JfrSummaryReader reader = new JfrSummaryReader(PACKAGE_PREFIX, topN);
+            reader.read(file);
+            JfrSummary summary = reader.summary(id, profile, startedAt, duration, Files.size(file));
+            register(summary);
+            log.info("JFR recording {} finished, {} bytes", id, summary.fileSizeBytes());
+            return summary;
+        } catch (ParseException e) {
+            throw new IllegalStateException("Built-in JFR configuration '" + profile + "' is not available", e);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private synchronized void register(JfrSummary summary) throws IOException {
+        recordings.put(summary.id(), summary);
+        List<String> expired = new ArrayList<>(recordings.keySet());
+        for (String id : expired.subList(0, Math.max(0, expired.size() - keepRecordings))) {
+            recordings.remove(id);
+            Files.deleteIfExists(path(id));
+        }
+    }
+
+    private Path path(String id) {
+        return directory.resolve("recording-" + id + ".jfr");
+    }
+
+}
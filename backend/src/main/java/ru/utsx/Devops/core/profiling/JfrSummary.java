@@ -0,0 +1,22 @@
+package ru.utsx.Devops.core.profiling;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+// Сводка по записи: только кадры из пакетов приложения, полный профиль доступен в .jfr файле
+public record JfrSummary(String id,
+                         String profile,
+                         Instant startedAt,
+                         Duration duration,
+                         long fileSizeBytes,
+                         long executionSamples,
+                         List<Entry> hotMethods,
+                         List<Entry> allocationSites,
+                         List<Entry> lockContention) {
+
+    // value: число сэмплов, байты аллокаций или суммарное время ожидания в миллисекундах
+    public record Entry(String frame, long count, long value) {
+    }
+
+}
@@ -0,0 +1,114 @@
+package ru.utsx.Devops.core.profiling;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import jdk.jfr.consumer.RecordedClass;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingFile;
+
+// Разбор записи: каждое событие относится к верхнему кадру стека из пакетов приложения
+class JfrSummaryReader {
+
+    private final String packagePrefix;
+    private final int topN;
+
+    private long executionSamples;
+    private final Map<String, long[]> hotMethods = new HashMap<>();
+    private final Map<String, long[]> allocationSites = new HashMap<>();
+    private final Map<String, long[]> lockContention = new HashMap<>();
+
+    JfrSummaryReader(String packagePrefix, int topN) {
+        this.packagePrefix = packagePrefix;
+        this.topN = topN;
+    }
+
+    void read(Path file) throws IOException {
+        try (RecordingFile recording = new RecordingFile(file)) {
+            while (recording.hasMoreEvents()) {
+                accept(recording.readEvent());
+            }
+        }
+    }
+
+    private void accept(RecordedEvent event) {
+        switch (event.getEventType().getName()) {
+            case "jdk.ExecutionSample" -> {
+                executionSamples++;
+                add(hotMethods, appFrame(event.getStackTrace()), 1);
+            }
+            case "jdk.ObjectAllocationSample" -> {
+                String frame = appFrame(event.getStackTrace());
+                RecordedClass objectClass = event.getClass("objectClass");
+                if (frame != null && objectClass != null) {
+                    add(allocationSites, frame + " -> " + objectClass.getName(), event.getLong("weight"));
+                }
+            }
+            case "jdk.JavaMonitorEnter", "jdk.ThreadPark" -> {
+                String frame = appFrame(event.getStackTrace());
+                if (frame != null) {
+                    String lock = event.getEventType().getName().equals("jdk.JavaMonitorEnter")
+                            ? monitorName(event.getClass("monitorClass"))
+                            : "park";
+                    add(lockContention, frame + " -> " + lock, event.getDuration().toMillis());
+                }
+            }
+            default -> {
+            }
+        }
+    }
+
+    JfrSummary summary(String id, String profile, Instant startedAt, Duration duration,
+                       long fileSize) {
+        return new JfrSummary(id, profile, startedAt, duration, fileSize, executionSamples,
+                top(hotMethods), top(allocationSites), top(lockContention));
+    }
+
+    private String appFrame(RecordedStackTrace stackTrace) {
+        if (stackTrace == null) {
+            return null;
+        }
+        for (RecordedFrame frame : stackTrace.getFrames()) {
+            if (!frame.isJavaFrame() || frame.getMethod() == null) {
+                continue;
+            }
+            String type = frame.getMethod().getType().getName();
+            // Прокси и CGLIB-подклассы Spring не несут полезной информации о месте в коде,
+            // кадры самого профилировщика (старт и сброс записи) тоже пропускаются
+            if (type.startsWith(packagePrefix) && !type.contains("$$") && !type.equals(JfrProfiler.class.getName())) {
+                return type + "." + frame.getMethod().getName() + ":" + frame.getLineNumber();
+            }
+        }
+        return null;
+    }
+
+    private static String monitorName(RecordedClass monitorClass) {
+        return monitorClass == null ? "monitor" : monitorClass.getName();
+    }
+
+    private static void add(Map<String, long[]> target, String key, long value) {
+        if (key == null) {
+            return;
+        }
+        long[] counters = target.computeIfAbsent(key, k -> new long[2]);
+        counters[0]++;
+        counters[1] += value;
+    }
+
+    private List<JfrSummary.Entry> top(Map<String, long[]> source) {
+        return source.entrySet().stream()
+                .map(e -> new JfrSummary.Entry(e.getKey(), e.getValue()[0], e.getValue()[1]))
+                .sorted(Comparator.comparingLong(JfrSummary.Entry::value).reversed())
+                .limit(topN)
+                .toList();
+    }
+
+}
@@ -0,0 +1,20 @@
+package ru.utsx.Devops.core.sharding;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+import org.hibernate.annotations.IdGeneratorType;
+
+import static java.lang.annotation.ElementType.FIELD;
+import static java.lang.annotation.ElementType.METHOD;
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+// Id из sequence текущего шарда, номер шарда восстанавливается из самого id (ShardRouter.shardOfId)
+@IdGeneratorType(ShardAwareIdGenerator.class)
+@Retention(RUNTIME)
+@Target({FIELD, METHOD})
+public @interface ShardAwareId {
+
+    String sequenceName();
+
+}
@@ -0,0 +1,73 @@
+package ru.utsx.Devops.core.sharding;
+
+import java.lang.reflect.Member;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.hibernate.engine.jdbc.spi.JdbcCoordinator;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.id.IdentifierGenerator;
+import org.hibernate.id.factory.spi.CustomIdGeneratorCreationContext;
+
+// Блочная выдача id поверх sequence шарда: nextval возвращает верхнюю границу блока, блок - (hi - 999 .. hi],
+// как у pooled-оптимизатора с allocationSize 1000. На шарде i из N sequence выдаёт hi = 10000 + 1000 * (i + k * N)
+// (см. ShardSequenceAligner), поэтому шард вычисляется из id без справочника. Блоки кэшируются отдельно для каждого шарда.
+public class ShardAwareIdGenerator implements IdentifierGenerator {
+
+    public static final int BLOCK_SIZE = 1000;
+    static final long FIRST_HI = 10_000;
+
+    private final String nextHiSql;
+    private final Map<Integer, Block> blocks = new ConcurrentHashMap<>();
+
+    public ShardAwareIdGenerator(ShardAwareId config, Member member, CustomIdGeneratorCreationContext context) {
+        this.nextHiSql = "select nextval('" + config.sequenceName() + "')";
+    }
+
+    // Номер блока, считая от первого: 0 для ids 9001..10000, 1 для 10001..11000 и т.д.
+    static long blockIndex(long id) {
+        return Math.floorDiv(id + BLOCK_SIZE - 1, BLOCK_SIZE) - FIRST_HI / BLOCK_SIZE;
+    }
+
+    @Override
+    public Object generate(SharedSessionContractImplementor session, Object object) {
+        Block block = blocks.computeIfAbsent(ShardContext.current(), shard -> new Block());
+        synchronized (block) {
+            if (block.next > block.hi) {
+                block.hi = nextHi(session);
+                block.next = block.hi - BLOCK_SIZE + 1;
+            }
+            return block.next++;
+        }
+    }
+
+    // nextval выполняется на соединении текущей транзакции, то есть на том же шарде, куда пойдёт INSERT
+    private long nextHi(SharedSessionContractImplementor session) {
+        JdbcCoordinator jdbc = session.getJdbcCoordinator();
+        PreparedStatement statement = jdbc.getStatementPreparer().prepareStatement(nextHiSql);
+        try {
+            ResultSet resultSet = jdbc.getResultSetReturn().extract(statement, nextHiSql);
+            try {
+                resultSet.next();
+                return resultSet.getLong(1);
+            } finally {
+                jdbc.getLogicalConnection().getResourceRegistry().release(resultSet, statement);
+            }
+        } catch (SQLException e) {
+            throw session.getJdbcServices().getSqlExceptionHelper()
+                    .convert(e, "could not get next sequence value", nextHiSql);
+        } finally {
+            jdbc.getLogicalConnection().getResourceRegistry().release(statement);
+            jdbc.afterStatementExecution();
+        }
+    }
+
+    private static final class Block {
+        private long hi;
+        private long next = 1;
+    }
+
+}
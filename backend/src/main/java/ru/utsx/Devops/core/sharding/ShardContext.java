@@ -0,0 +1,31 @@
+package ru.utsx.Devops.core.sharding;
+
+// Шард, с которым работает текущий поток: по нему ShardRoutingDataSource выбирает пул,
+// а ShardAwareIdGenerator - sequence. Устанавливается только через ShardRouter, по умолчанию шард 0.
+public final class ShardContext {
+
+    private static final ThreadLocal<Integer> CURRENT = new ThreadLocal<>();
+
+    private ShardContext() {
+    }
+
+    public static int current() {
+        Integer shard = CURRENT.get();
+        return shard == null ? 0 : shard;
+    }
+
+    static Integer enter(int shard) {
+        Integer previous = CURRENT.get();
+        CURRENT.set(shard);
+        return previous;
+    }
+
+    static void restore(Integer previous) {
+        if (previous == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(previous);
+        }
+    }
+
+}
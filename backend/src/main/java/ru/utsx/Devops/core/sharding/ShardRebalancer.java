@@ -0,0 +1,245 @@
+package ru.utsx.Devops.core.sharding;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import ru.utsx.Devops.core.cache.CacheInvalidationPublisher;
+import ru.utsx.Devops.core.cache.CacheNames;
+
+// Онлайн-перенос пользователей между шардами. Пользователь переносится целиком (users, orders, orders_archive):
+// на исходном шарде строки блокируются FOR UPDATE - новые заказы (проверка FK) и изменения ждут окончания переноса,
+// чтение не блокируется. Сначала коммитится копия на целевом шарде, затем удаление на исходном; если удаление
+// не удалось и исходные строки на месте, копия удаляется. Перенесённые id находятся ShardRouter.find на остальных шардах.
+@Slf4j
+@Component
+public class ShardRebalancer {
+
+    private static final List<String> USER_TABLES = List.of("users", "orders", "orders_archive");
+
+    private final ShardRouter shardRouter;
+    private final CacheInvalidationPublisher cacheInvalidationPublisher;
+    private final Counter movedUsers;
+    private final Timer moveTimer;
+
+    public ShardRebalancer(ShardRouter shardRouter,
+                           CacheInvalidationPublisher cacheInvalidationPublisher,
+                           MeterRegistry meterRegistry) {
+        this.shardRouter = shardRouter;
+        this.cacheInvalidationPublisher = cacheInvalidationPublisher;
+        this.movedUsers = Counter.builder("sharding.rebalance.users.moved").register(meterRegistry);
+        this.moveTimer = Timer.builder("sharding.rebalance.move").register(meterRegistry);
+    }
+
+    public List<ShardStats> stats() {
+        List<ShardStats> stats = new ArrayList<>();
+        for (int i = 0; i < shardRouter.shardCount(); i++) {
+            int shard = i;
+            stats.add(new JdbcTemplate(shardRouter.shard(shard)).queryForObject("""
+                            SELECT (SELECT count(*) FROM users WHERE deleted_at IS NULL) AS users,
+                                   (SELECT count(*) FROM orders) AS orders,
+                                   (SELECT count(*) FROM orders_archive) AS archived_orders""",
+                    (rs, rowNum) -> new ShardStats(shard,
+                            rs.getLong("users"), rs.getLong("orders"), rs.getLong("archived_orders"))));
+        }
+        return stats;
+    }
+
+    // Перенос пользователя на целевой шард; пустой результат - пользователь не найден
+    public Optional<MoveResult> move(long userId, int target) {
+        if (target < 0 || target >= shardRouter.shardCount()) {
+            throw new IllegalArgumentException("Неизвестный шард " + target + ", всего шардов: " + shardRouter.shardCount());
+        }
+        Optional<Integer> source = locate(userId);
+        if (source.isEmpty()) {
+            return Optional.empty();
+        }
+        if (source.get() == target) {
+            return Optional.of(new MoveResult(userId, target, target, 0, 0));
+        }
+        MoveResult result = moveTimer.record(() -> copyAndDelete(userId, source.get(), target));
+        movedUsers.increment();
+        cacheInvalidationPublisher.evict(CacheNames.USERS, userId);
+        // Id заказов пользователя здесь не собираются, закэшированные заказы проще сбросить целиком
+        cacheInvalidationPublisher.evictAll(CacheNames.ORDERS);
+        log.info("User {} moved from shard {} to shard {}: {} orders, {} archived orders",
+                userId, result.from(), result.to(), result.orders(), result.archivedOrders());
+        return Optional.of(result);
+    }
+
+    // Выравнивание числа пользователей: по одному пользователю с самого загруженного шарда на самый свободный
+    public List<MoveResult> rebalance(int maxUsers) {
+        if (maxUsers < 1) {
+            throw new IllegalArgumentException("maxUsers должен быть больше 0");
+        }
+        List<MoveResult> moves = new ArrayList<>();
+        while (moves.size() < maxUsers) {
+            List<ShardStats> stats = stats();
+            ShardStats fullest = Collections.max(stats, (a, b) -> Long.compare(a.users(), b.users()));
+            ShardStats emptiest = Collections.min(stats, (a, b) -> Long.compare(a.users(), b.users()));
+            if (fullest.users() - emptiest.users() <= 1) {
+                break;
+            }
+            Long userId = new JdbcTemplate(shardRouter.shard(fullest.shard())).query(
+                    "SELECT id FROM users WHERE deleted_at IS NULL ORDER BY id DESC LIMIT 1",
+                    rs -> rs.next() ? rs.getLong(1) : null);
+            if (userId == null) {
+                break;
+            }
+            move(userId, emptiest.shard()).ifPresent(moves::add);
+        }
+        return moves;
+    }
+
+    private Optional<Integer> locate(long userId) {
+        for (int shard : shardRouter.lookupOrder(userId)) {
+            Boolean exists = new JdbcTemplate(shardRouter.shard(shard))
+                    .queryForObject("SELECT EXISTS (SELECT 1 FROM users WHERE id = ?)", Boolean.class, userId);
+            if (Boolean.TRUE.equals(exists)) {
+                return Optional.of(shard);
+            }
+        }
+        return Optional.empty();
+    }
+
+    private MoveResult copyAndDelete(long userId, int source, int target) {
+        try (Connection from = shardRouter.shard(source).getConnection();
+             Connection to = shardRouter.shard(target).getConnection()) {
+            from.setAutoCommit(false);
+            to.setAutoCommit(false);
+            int[] copied = new int[USER_TABLES.size()];
+            try {
+                try (PreparedStatement lock = from.prepareStatement("SELECT id FROM users WHERE id = ? FOR UPDATE")) {
+                    lock.setLong(1, userId);
+                    try (ResultSet rs = lock.executeQuery()) {
+                        if (!rs.next()) {
+                            throw new IllegalStateException("User " + userId + " was moved or purged concurrently");
+                        }
+                    }
+                }
+                try (PreparedStatement lock = from.prepareStatement("SELECT id FROM orders WHERE user_id = ? FOR UPDATE")) {
+                    lock.setLong(1, userId);
+                    lock.executeQuery().close();
+                }
+                for (int i = 0; i < USER_TABLES.size(); i++) {
+                    String table = USER_TABLES.get(i);
+                    copied[i] = copyRows(from, to, table, table.equals("users") ? "id" : "user_id", userId);
+                }
+                for (int i = USER_TABLES.size() - 1; i >= 0; i--) {
+                    String table = USER_TABLES.get(i);
+                    execute(from, "DELETE FROM " + table + " WHERE " + (table.equals("users") ? "id" : "user_id") + " = ?", userId);
+                }
+                to.commit();
+            } catch (SQLException | RuntimeException e) {
+                to.rollback();
+                from.rollback();
+                throw e;
+            }
+            try {
+                from.commit();
+            } catch (SQLException e) {
+                // Ошибка коммита не доказывает, что он не выполнился (например, связь оборвалась после COMMIT).
+                // Копия удаляется, только если исходные строки на месте, иначе перенос на самом деле завершён
+                if (!sourceRowsRemain(userId, source, target, e)) {
+                    log.warn("Commit on shard {} failed, but user {} is no longer there: move is complete", source, userId, e);
+                    return new MoveResult(userId, source, target, copied[1], copied[2]);
+                }
+                deleteCopy(to, userId, source, target, e);
+                throw e;
+            }
+            return new MoveResult(userId, source, target, copied[1], copied[2]);
+        } catch (SQLException e) {
+            throw new IllegalStateException("Failed to move user " + userId + " from shard " + source + " to shard " + target, e);
+        }
+    }
+
+    // Проверка по новому соединению: соединение с упавшим коммитом может быть уже непригодно
+    private boolean sourceRowsRemain(long userId, int source, int target, SQLException commitError) {
+        try {
+            return Boolean.TRUE.equals(new JdbcTemplate(shardRouter.shard(source))
+                    .queryForObject("SELECT EXISTS (SELECT 1 FROM users WHERE id = ?)", Boolean.class, userId));
+        } catch (DataAccessException e) {
+            // Не удалив копию, получаем в худшем случае двух владельцев, удалив - можем потерять пользователя
+            e.addSuppressed(commitError);
+            throw duplicateOwner(userId, source, target, e);
+        }
+    }
+
+    private void deleteCopy(Connection to, long userId, int source, int target, SQLException commitError) {
+        try {
+            to.setAutoCommit(true);
+            for (int i = USER_TABLES.size() - 1; i >= 0; i--) {
+                String table = USER_TABLES.get(i);
+                execute(to, "DELETE FROM " + table + " WHERE " + (table.equals("users") ? "id" : "user_id") + " = ?", userId);
+            }
+        } catch (SQLException e) {
+            e.addSuppressed(commitError);
+            throw duplicateOwner(userId, source, target, e);
+        }
+    }
+
+    private static IllegalStateException duplicateOwner(long userId, int source, int target, Exception cause) {
+        log.error("User {} may now exist on both shard {} and shard {}: the move failed and its copy was not removed, "
+                + "delete one of the copies manually", userId, source, target, cause);
+        return new IllegalStateException("User " + userId + " may exist on both shard " + source + " and shard " + target
+                + " after a failed move", cause);
+    }
+
+    // Строки копируются со всеми колонками как есть, включая id и служебные даты
+    private static int copyRows(Connection from, Connection to, String table, String keyColumn, long userId)
+            throws SQLException {
+        try (PreparedStatement select = from.prepareStatement("SELECT * FROM " + table + " WHERE " + keyColumn + " = ?")) {
+            select.setLong(1, userId);
+            try (ResultSet rs = select.executeQuery()) {
+                ResultSetMetaData meta = rs.getMetaData();
+                List<String> columns = new ArrayList<>();
+                for (int i = 1; i <= meta.getColumnCount(); i++) {
+                    columns.add(meta.getColumnName(i));
+                }
+                String insert = "INSERT INTO " + table + " (" + String.join(", ", columns) + ") VALUES ("
+                        + String.join(", ", Collections.nCopies(columns.size(), "?")) + ")";
+                int rows = 0;
+                try (PreparedStatement statement = to.prepareStatement(insert)) {
+                    while (rs.next()) {
+                        for (int i = 1; i <= columns.size(); i++) {
+                            statement.setObject(i, rs.getObject(i), meta.getColumnType(i));
+                        }
+                        statement.addBatch();
+                        rows++;
+                    }
+                    if (rows > 0) {
+                        statement.executeBatch();
+                    }
+                }
+                return rows;
+            }
+        }
+    }
+
+    private static void execute(Connection connection, String sql, long userId) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            statement.setLong(1, userId);
+            statement.executeUpdate();
+        }
+    }
+
+    public record ShardStats(int shard, long users, long orders, long archivedOrders) {
+    }
+
+    public record MoveResult(long userId, int from, int to, int orders, int archivedOrders) {
+    }
+
+}
@@ -0,0 +1,203 @@
+package ru.utsx.Devops.core.sharding;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
+import java.util.function.IntConsumer;
+import java.util.function.Supplier;
+
+import javax.sql.DataSource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.context.ContextExecutorService;
+import io.micrometer.context.ContextSnapshotFactory;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+
+// Маршрутизация по шардам. Единица шардирования - пользователь вместе с заказами (связаны через orders.user_id).
+// Новый пользователь попадает на шард по хэшу username, существующие записи ищутся на шарде, вычисленном из id,
+// а если их там нет (данные до включения шардирования или перенесённые ShardRebalancer) - на остальных шардах.
+// Запросы по всем шардам выполняются параллельно, результаты сливаются в общем порядке.
+public class ShardRouter implements AutoCloseable {
+
+    public static final int MAX_PAGE_SIZE = 1000;
+    static final int MAX_PAGE_WINDOW = 100_000;
+
+    private final List<DataSource> shards;
+    private final DataSource routingDataSource;
+    // Контекст вызывающего потока (текущий спан трассировки) переносится в потоки запросов к шардам
+    private final ExecutorService scatterExecutor = ContextExecutorService.wrap(
+            Executors.newVirtualThreadPerTaskExecutor(), ContextSnapshotFactory.builder().build());
+
+    public ShardRouter(List<DataSource> shards) {
+        if (shards.isEmpty()) {
+            throw new IllegalArgumentException("At least one shard is required");
+        }
+        this.shards = List.copyOf(shards);
+
+        Map<Object, Object> targets = new HashMap<>();
+        for (int i = 0; i < this.shards.size(); i++) {
+            targets.put(i, this.shards.get(i));
+        }
+        ShardRoutingDataSource routing = new ShardRoutingDataSource();
+        routing.setTargetDataSources(targets);
+        routing.setDefaultTargetDataSource(this.shards.get(0));
+        routing.setLenientFallback(false);
+        routing.afterPropertiesSet();
+        this.routingDataSource = routing;
+    }
+
+    public int shardCount() {
+        return shards.size();
+    }
+
+    // Пул конкретного шарда в обход маршрутизации; шард 0 также хранит LISTEN/NOTIFY для инвалидации кэша
+    public DataSource shard(int shard) {
+        return shards.get(shard);
+    }
+
+    DataSource routingDataSource() {
+        return routingDataSource;
+    }
+
+    public int shardOfId(long id) {
+        return (int) Math.floorMod(ShardAwareIdGenerator.blockIndex(id), (long) shards.size());
+    }
+
+    public int homeShard(String username) {
+        return username == null ? 0 : Math.floorMod(username.hashCode(), shards.size());
+    }
+
+    public <T> T onShard(int shard, Supplier<T> action) {
+        if (shard < 0 || shard >= shards.size()) {
+            throw new IllegalArgumentException("Unknown shard " + shard + ", configured: " + shards.size());
+        }
+        Integer previous = ShardContext.enter(shard);
+        try {
+            return action.get();
+        } finally {
+            ShardContext.restore(previous);
+        }
+    }
+
+    public void onShard(int shard, Runnable action) {
+        onShard(shard, () -> {
+            action.run();
+            return null;
+        });
+    }
+
+    public void forEachShard(IntConsumer action) {
+        for (int shard = 0; shard < shards.size(); shard++) {
+            int current = shard;
+            onShard(current, () -> action.accept(current));
+        }
+    }
+
+    // Порядок поиска записи по id: сначала шард из id, затем остальные по порядку
+    public List<Integer> lookupOrder(long id) {
+        int expected = shardOfId(id);
+        List<Integer> order = new ArrayList<>(shards.size());
+        order.add(expected);
+        for (int shard = 0; shard < shards.size(); shard++) {
+            if (shard != expected) {
+                order.add(shard);
+            }
+        }
+        return order;
+    }
+
+    public <T> Optional<Located<T>> find(long id, Supplier<Optional<T>> lookup) {
+        for (int shard : lookupOrder(id)) {
+            Optional<T> found = onShard(shard, lookup);
+            if (found.isPresent()) {
+                return Optional.of(new Located<>(shard, found.get()));
+            }
+        }
+        return Optional.empty();
+    }
+
+    // Один и тот же запрос на всех шардах, результаты по порядку шардов
+    public <T> List<T> scatter(Supplier<T> query) {
+        if (shards.size() == 1) {
+            return List.of(onShard(0, query));
+        }
+        List<CompletableFuture<T>> futures = new ArrayList<>(shards.size());
+        for (int shard = 0; shard < shards.size(); shard++) {
+            int current = shard;
+            futures.add(CompletableFuture.supplyAsync(() -> onShard(current, query), scatterExecutor));
+        }
+        try {
+            return futures.stream().map(CompletableFuture::join).toList();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    // Слияние списков, отсортированных на каждом шарде, в один список в общем порядке
+    public <T> List<T> gather(Supplier<List<T>> query, Comparator<? super T> order) {
+        List<List<T>> parts = scatter(query);
+        if (parts.size() == 1) {
+            return parts.get(0);
+        }
+        return parts.stream().flatMap(List::stream).sorted(order).toList();
+    }
+
+    // Окно, которое нужно прочитать с каждого шарда для страницы page: с одним шардом - сама страница,
+    // с несколькими - первые (page + 1) * size строк, страница вырезается после слияния в mergePage
+    public Pageable pageWindow(int page, int size) {
+        if (page < 0 || size < 1 || size > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("page должен быть >= 0, size - от 1 до " + MAX_PAGE_SIZE);
+        }
+        if (shards.size() == 1) {
+            return PageRequest.of(page, size);
+        }
+        long window = (long) (page + 1) * size;
+        if (window > MAX_PAGE_WINDOW) {
+            throw new IllegalArgumentException("Страница слишком глубокая: (page + 1) * size не может превышать " + MAX_PAGE_WINDOW);
+        }
+        return PageRequest.of(0, (int) window);
+    }
+
+    public <T> List<T> mergePage(List<List<T>> parts, Comparator<? super T> order, int page, int size) {
+        if (parts.size() == 1) {
+            return parts.get(0);
+        }
+        return parts.stream()
+                .flatMap(List::stream)
+                .sorted(order)
+                .skip((long) page * size)
+                .limit(size)
+                .toList();
+    }
+
+    public <T> List<T> gatherPage(Function<Pageable, List<T>> query, Comparator<? super T> order, int page, int size) {
+        Pageable window = pageWindow(page, size);
+        return mergePage(scatter(() -> query.apply(window)), order, page, size);
+    }
+
+    @Override
+    public void close() {
+        scatterExecutor.shutdown();
+        shards.forEach(shard -> {
+            if (shard instanceof HikariDataSource hikari) {
+                hikari.close();
+            }
+        });
+    }
+
+    public record Located<T>(int shard, T value) {
+    }
+
+}
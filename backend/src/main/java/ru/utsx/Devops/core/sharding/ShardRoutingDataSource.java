@@ -0,0 +1,14 @@
+package ru.utsx.Devops.core.sharding;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+// Основной DataSource приложения: соединение берётся из пула шарда, выбранного в ShardContext.
+// Шард фиксируется при открытии транзакции, поэтому ShardRouter.onShard вызывается до неё, а не внутри.
+class ShardRoutingDataSource extends AbstractRoutingDataSource {
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return ShardContext.current();
+    }
+
+}
@@ -0,0 +1,66 @@
+package ru.utsx.Devops.core.sharding;
+
+import java.util.List;
+import java.util.Map;
+
+import javax.sql.DataSource;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static ru.utsx.Devops.core.sharding.ShardAwareIdGenerator.BLOCK_SIZE;
+
+// Приводит users_seq/orders_seq шарда i из N к виду hi = 10000 + 1000 * (i + k * N): шаг 1000 * N,
+// ближайшее ещё не выданное значение с нужным остатком. Уже выданные блоки не переиспользуются.
+// Поды стартуют одновременно: sequence читаются и меняются в одной транзакции под advisory-блокировкой шарда,
+// поэтому следующий под перечитывает уже выровненное состояние и ничего не меняет.
+@Slf4j
+final class ShardSequenceAligner {
+
+    static final List<String> SEQUENCES = List.of("users_seq", "orders_seq");
+    static final long LOCK_KEY = "ShardSequenceAligner".hashCode();
+
+    private ShardSequenceAligner() {
+    }
+
+    static void align(DataSource dataSource, int shard, int shardCount) {
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        new TransactionTemplate(new DataSourceTransactionManager(dataSource)).executeWithoutResult(status -> {
+            jdbcTemplate.query("SELECT pg_advisory_xact_lock(?)", rs -> null, LOCK_KEY);
+            for (String sequence : SEQUENCES) {
+                alignSequence(jdbcTemplate, sequence, shard, shardCount);
+            }
+        });
+    }
+
+    private static void alignSequence(JdbcTemplate jdbcTemplate, String sequence, int shard, int shardCount) {
+        long step = (long) BLOCK_SIZE * shardCount;
+        Long increment = jdbcTemplate.query(
+                "SELECT increment_by FROM pg_sequences WHERE schemaname = current_schema() AND sequencename = ?",
+                rs -> rs.next() ? rs.getLong(1) : null, sequence);
+        if (increment == null) {
+            log.warn("Sequence {} not found on shard {}, skipping alignment", sequence, shard);
+            return;
+        }
+        Map<String, Object> state = jdbcTemplate.queryForMap("SELECT last_value, is_called FROM " + sequence);
+        long lastValue = ((Number) state.get("last_value")).longValue();
+        long next = Boolean.TRUE.equals(state.get("is_called")) ? lastValue + increment : lastValue;
+        if (increment == step && isShardHi(next, shard, shardCount)) {
+            return;
+        }
+        // hi не меньше следующего значения: выданные блоки, в том числе после выравнивания другим подом, не повторяются
+        long hi = Math.max(Math.ceilDiv(next, BLOCK_SIZE) * BLOCK_SIZE, ShardAwareIdGenerator.FIRST_HI);
+        while (!isShardHi(hi, shard, shardCount)) {
+            hi += BLOCK_SIZE;
+        }
+        jdbcTemplate.execute("ALTER SEQUENCE " + sequence + " INCREMENT BY " + step + " RESTART WITH " + hi);
+        log.info("Sequence {} on shard {} aligned: increment {}, next {}", sequence, shard, step, hi);
+    }
+
+    private static boolean isShardHi(long hi, int shard, int shardCount) {
+        return hi % BLOCK_SIZE == 0 && Math.floorMod(ShardAwareIdGenerator.blockIndex(hi), shardCount) == shard;
+    }
+
+}
@@ -0,0 +1,18 @@
+package ru.utsx.Devops.core.sharding;
+
+import java.util.List;
+
+import org.springframework.r2dbc.core.DatabaseClient;
+
+// R2DBC-клиенты шардов в том же порядке, что и пулы ShardRouter
+public record ShardedDatabaseClient(List<DatabaseClient> shards) {
+
+    public DatabaseClient shard(int shard) {
+        return shards.get(shard);
+    }
+
+    public int shardCount() {
+        return shards.size();
+    }
+
+}
@@ -0,0 +1,88 @@
+package ru.utsx.Devops.core.sharding;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import liquibase.integration.spring.SpringLiquibase;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.util.StringUtils;
+
+// Шард 0 - spring.datasource, дополнительные шарды перечисляются в app.sharding.urls с теми же учётными данными.
+// Без app.sharding.urls приложение работает с одной базой, как раньше. Собственный DataSource отключает
+// DataSourceAutoConfiguration, поэтому пулы создаются здесь с настройками из spring.datasource.hikari.*.
+// При нескольких шардах каждый мигрируется Liquibase и получает выровненные sequence до первого запроса.
+@Configuration
+public class ShardingConfiguration {
+
+    @Bean
+    public ShardRouter shardRouter(DataSourceProperties properties,
+                                   Environment environment,
+                                   ResourceLoader resourceLoader,
+                                   MeterRegistry meterRegistry,
+                                   @Value("${app.sharding.urls:}") List<String> shardUrls,
+                                   @Value("${spring.liquibase.enabled:true}") boolean liquibaseEnabled,
+                                   @Value("${spring.liquibase.change-log:classpath:db/changelog/db.changelog-master.xml}") String changeLog)
+            throws Exception {
+        List<String> urls = new ArrayList<>();
+        urls.add(properties.determineUrl());
+        shardUrls.stream().filter(StringUtils::hasText).map(String::trim).forEach(urls::add);
+
+        List<DataSource> pools = new ArrayList<>();
+        for (int shard = 0; shard < urls.size(); shard++) {
+            pools.add(createPool(properties, environment, meterRegistry, urls.get(shard), shard, urls.size()));
+        }
+        ShardRouter router = new ShardRouter(pools);
+        if (urls.size() > 1) {
+            for (int shard = 0; shard < urls.size(); shard++) {
+                if (liquibaseEnabled) {
+                    migrate(pools.get(shard), resourceLoader, changeLog);
+                }
+                ShardSequenceAligner.align(pools.get(shard), shard, urls.size());
+            }
+        }
+        return router;
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(ShardRouter shardRouter) {
+        return shardRouter.routingDataSource();
+    }
+
+    private static HikariDataSource createPool(DataSourceProperties properties, Environment environment,
+                                               MeterRegistry meterRegistry, String url, int shard, int shardCount) {
+        HikariDataSource pool = properties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .url(url)
+                .build();
+        Binder.get(environment).bind("spring.datasource.hikari", Bindable.ofInstance(pool));
+        if (shardCount > 1) {
+            pool.setPoolName("shard-" + shard);
+        }
+        pool.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+        return pool;
+    }
+
+    // Шард 0 дополнительно мигрирует LiquibaseAutoConfiguration, повторный прогон ничего не меняет
+    private static void migrate(DataSource dataSource, ResourceLoader resourceLoader, String changeLog) throws Exception {
+        SpringLiquibase liquibase = new SpringLiquibase();
+        liquibase.setDataSource(dataSource);
+        liquibase.setChangeLog(changeLog);
+        liquibase.setResourceLoader(resourceLoader);
+        liquibase.afterPropertiesSet();
+    }
+
+}
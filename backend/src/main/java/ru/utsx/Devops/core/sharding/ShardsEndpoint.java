@@ -0,0 +1,54 @@
+package ru.utsx.Devops.core.sharding;
+
+import java.util.List;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.InvalidEndpointRequestException;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.boot.actuate.endpoint.web.WebEndpointResponse;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+// GET /actuator/shards - пользователи и заказы по шардам,
+// POST /actuator/shards/{userId} {"targetShard":1} - перенос одного пользователя,
+// POST /actuator/shards {"maxUsers":100} - выравнивание числа пользователей между шардами
+// Изменяющие операции без авторизации: по умолчанию не публикуется, см. management.endpoints.web.exposure.include
+@Component
+@Endpoint(id = "shards")
+@RequiredArgsConstructor
+public class ShardsEndpoint {
+
+    private static final int DEFAULT_MAX_USERS = 100;
+
+    private final ShardRebalancer rebalancer;
+
+    @ReadOperation
+    public List<ShardRebalancer.ShardStats> shards() {
+        return rebalancer.stats();
+    }
+
+    @WriteOperation
+    public WebEndpointResponse<Object> move(@Selector long userId, int targetShard) {
+        try {
+            return rebalancer.move(userId, targetShard)
+                    .<WebEndpointResponse<Object>>map(WebEndpointResponse::new)
+                    .orElseGet(() -> new WebEndpointResponse<>("User not found with id " + userId,
+                            WebEndpointResponse.STATUS_NOT_FOUND));
+        } catch (IllegalArgumentException e) {
+            throw new InvalidEndpointRequestException(e.getMessage(), e.getMessage());
+        }
+    }
+
+    @WriteOperation
+    public List<ShardRebalancer.MoveResult> rebalance(@Nullable Integer maxUsers) {
+        try {
+            return rebalancer.rebalance(maxUsers == null ? DEFAULT_MAX_USERS : maxUsers);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidEndpointRequestException(e.getMessage(), e.getMessage());
+        }
+    }
+
+}
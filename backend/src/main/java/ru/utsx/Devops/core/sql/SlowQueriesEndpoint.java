@@ -0,0 +1,32 @@
+package ru.utsx.Devops.core.sql;
+
+import java.util.List;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.stereotype.Component;
+
+// /actuator/slowqueries: статистика по нормализованным запросам, отсортированная по суммарному времени
+@Component
+@Endpoint(id = "slowqueries")
+@RequiredArgsConstructor
+public class SlowQueriesEndpoint {
+
+    private final SlowQueryRecorder recorder;
+
+    @ReadOperation
+    public List<SlowQueryRecorder.StatementSnapshot> statements() {
+        return recorder.snapshot();
+    }
+
+    @ReadOperation
+    public SlowQueryRecorder.StatementSnapshot statement(@Selector String query) {
+        return recorder.snapshot().stream()
+                .filter(snapshot -> snapshot.query().equals(query))
+                .findFirst()
+                .orElse(null);
+    }
+
+}
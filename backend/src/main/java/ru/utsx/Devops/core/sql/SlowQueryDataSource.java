@@ -0,0 +1,132 @@
+package ru.utsx.Devops.core.sql;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import ru.utsx.Devops.core.sharding.ShardContext;
+
+// Обёртка над пулом: замеряет время выполнения каждого statement и передаёт его в SlowQueryRecorder.
+// unwrap делегируется пулу, поэтому Hikari MXBean и PGConnection остаются доступны.
+// Шард запоминается при получении соединения: EXPLAIN выполняется в другом потоке, где ShardContext не установлен.
+class SlowQueryDataSource extends DelegatingDataSource {
+
+    private final SlowQueryRecorder recorder;
+
+    SlowQueryDataSource(DataSource targetDataSource, SlowQueryRecorder recorder) {
+        super(targetDataSource);
+        this.recorder = recorder;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return wrapConnection(super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return wrapConnection(super.getConnection(username, password));
+    }
+
+    private Connection wrapConnection(Connection connection) {
+        int shard = ShardContext.current();
+        DataSource shardDataSource = shardDataSource(shard);
+        return proxy(Connection.class, connection, (proxy, method, args) -> {
+            Object result = invoke(connection, method, args);
+            if (result instanceof CallableStatement statement && args != null && args[0] instanceof String sql) {
+                return proxy(CallableStatement.class, statement, new StatementHandler(statement, sql, shard, shardDataSource));
+            }
+            if (result instanceof PreparedStatement statement && args != null && args[0] instanceof String sql) {
+                return proxy(PreparedStatement.class, statement, new StatementHandler(statement, sql, shard, shardDataSource));
+            }
+            if (result instanceof Statement statement) {
+                return proxy(Statement.class, statement, new StatementHandler(statement, null, shard, shardDataSource));
+            }
+            return result;
+        });
+    }
+
+    // Пул шарда, из которого выдано соединение; маршрутизирующий DataSource в другом потоке вернул бы шард 0
+    private DataSource shardDataSource(int shard) {
+        if (getTargetDataSource() instanceof AbstractRoutingDataSource routing) {
+            DataSource resolved = routing.getResolvedDataSources().get(shard);
+            return resolved != null ? resolved : routing.getResolvedDefaultDataSource();
+        }
+        return getTargetDataSource();
+    }
+
+    private final class StatementHandler implements InvocationHandler {
+
+        private final Statement target;
+        private final String preparedSql;
+        private final int shard;
+        private final DataSource shardDataSource;
+        private final Map<Integer, Object> parameters = new TreeMap<>();
+
+        private StatementHandler(Statement target, String preparedSql, int shard, DataSource shardDataSource) {
+            this.target = target;
+            this.preparedSql = preparedSql;
+            this.shard = shard;
+            this.shardDataSource = shardDataSource;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if (name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer index) {
+                parameters.put(index, name.equals("setNull") ? null : args[1]);
+            } else if (name.equals("clearParameters")) {
+                parameters.clear();
+            }
+            if (!name.startsWith("execute")) {
+                return SlowQueryDataSource.invoke(target, method, args);
+            }
+
+            String sql = args != null && args.length > 0 && args[0] instanceof String executed ? executed : preparedSql;
+            long start = System.nanoTime();
+            try {
+                return SlowQueryDataSource.invoke(target, method, args);
+            } finally {
+                if (sql != null) {
+                    recorder.record(shardDataSource, shard, sql, explainableParameters(name), System.nanoTime() - start);
+                }
+            }
+        }
+
+        // Для batch и запросов с NULL-параметрами EXPLAIN не повторит исходное выполнение, сэмпл не снимается
+        private List<Object> explainableParameters(String method) {
+            if (method.equals("executeBatch") || method.equals("executeLargeBatch") || parameters.containsValue(null)) {
+                return null;
+            }
+            return List.copyOf(parameters.values());
+        }
+
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getTargetException();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, T target, InvocationHandler handler) {
+        return (T) Proxy.newProxyInstance(SlowQueryDataSource.class.getClassLoader(), new Class<?>[]{type}, handler);
+    }
+
+}
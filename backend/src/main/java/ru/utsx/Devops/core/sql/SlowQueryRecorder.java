@@ -0,0 +1,205 @@
+package ru.utsx.Devops.core.sql;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+import javax.sql.DataSource;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+// Гистограммы времени выполнения по нормализованному SQL и EXPLAIN-сэмплы медленных запросов.
+// EXPLAIN выполняется в отдельном потоке на пуле шарда, где шёл запрос, чтобы не замедлять сам запрос и не попадать в статистику.
+@Slf4j
+@Component
+public class SlowQueryRecorder implements DisposableBean {
+
+    static final String OTHER = "other";
+    private static final int SAMPLES_PER_STATEMENT = 5;
+    private static final int MAX_NORMALIZED = 1000;
+
+    private final MeterRegistry meterRegistry;
+    private final Duration slowThreshold;
+    private final Duration explainMinInterval;
+    private final Duration explainTimeout;
+    private final boolean explainEnabled;
+    private final int maxStatements;
+
+    private final Map<String, StatementStats> statements = new ConcurrentHashMap<>();
+    // Исходный SQL -> нормализованный: подготовленных запросов немного, и регулярные выражения не гоняются на каждом
+    // выполнении. Сверх MAX_NORMALIZED (динамический SQL) нормализация выполняется без кэширования
+    private final Map<String, String> normalized = new ConcurrentHashMap<>();
+    private final ThreadPoolExecutor explainExecutor;
+
+    public SlowQueryRecorder(MeterRegistry meterRegistry,
+                             @Value("${app.sql.slow-threshold:PT0.2S}") Duration slowThreshold,
+                             @Value("${app.sql.explain.enabled:true}") boolean explainEnabled,
+                             @Value("${app.sql.explain.min-interval:PT1M}") Duration explainMinInterval,
+                             @Value("${app.sql.explain.timeout:PT10S}") Duration explainTimeout,
+                             @Value("${app.sql.max-statements:100}") int maxStatements) {
+        this.meterRegistry = meterRegistry;
+        this.slowThreshold = slowThreshold;
+        this.explainEnabled = explainEnabled;
+        this.explainMinInterval = explainMinInterval;
+        this.explainTimeout = explainTimeout;
+        this.maxStatements = maxStatements;
+        // Очередь из нескольких задач: при всплеске медленных запросов лишние EXPLAIN отбрасываются
+        this.explainExecutor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(8),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "slow-query-explain");
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.DiscardPolicy());
+    }
+
+    void record(DataSource dataSource, int shard, String sql, List<Object> parameters, long durationNanos) {
+        StatementStats stats = statsFor(normalize(sql));
+        stats.timer.record(durationNanos, TimeUnit.NANOSECONDS);
+
+        if (durationNanos < slowThreshold.toNanos()) {
+            return;
+        }
+        stats.slowCount.incrementAndGet();
+        stats.slowShards.add(shard);
+        if (explainEnabled && parameters != null && SqlNormalizer.isExplainable(sql)
+                && stats.tryAcquireExplain(explainMinInterval)) {
+            explainExecutor.execute(() -> explain(dataSource, shard, stats, sql, parameters, durationNanos));
+        }
+    }
+
+    public List<StatementSnapshot> snapshot() {
+        return statements.values().stream()
+                .map(StatementStats::snapshot)
+                .sorted((a, b) -> Double.compare(b.totalMs(), a.totalMs()))
+                .collect(Collectors.toList());
+    }
+
+    private String normalize(String sql) {
+        String cached = normalized.get(sql);
+        if (cached != null) {
+            return cached;
+        }
+        String result = SqlNormalizer.normalize(sql);
+        if (normalized.size() < MAX_NORMALIZED) {
+            normalized.put(sql, result);
+        }
+        return result;
+    }
+
+    private StatementStats statsFor(String normalizedSql) {
+        StatementStats stats = statements.get(normalizedSql);
+        if (stats != null) {
+            return stats;
+        }
+        // Ограничение кардинальности: динамически собранный SQL не должен раздувать реестр метрик
+        String key = statements.size() < maxStatements ? normalizedSql : OTHER;
+        return statements.computeIfAbsent(key, sql -> new StatementStats(sql, Timer.builder("jdbc.statement")
+                .description("JDBC statement execution time by normalized SQL")
+                .tag("query", sql.equals(OTHER) ? OTHER : queryId(sql))
+                .publishPercentileHistogram()
+                .register(meterRegistry)));
+    }
+
+    private void explain(DataSource dataSource, int shard, StatementStats stats, String sql, List<Object> parameters,
+                         long durationNanos) {
+        // ANALYZE выполняет запрос повторно, поэтому для изменяющих данные запросов снимается только план
+        String explain = SqlNormalizer.isReadOnly(sql)
+                ? "EXPLAIN (ANALYZE, BUFFERS) " + sql
+                : "EXPLAIN " + sql;
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement(explain)) {
+            statement.setQueryTimeout((int) Math.max(1, explainTimeout.toSeconds()));
+            for (int i = 0; i < parameters.size(); i++) {
+                statement.setObject(i + 1, parameters.get(i));
+            }
+            StringBuilder plan = new StringBuilder();
+            try (ResultSet rs = statement.executeQuery()) {
+                while (rs.next()) {
+                    plan.append(rs.getString(1)).append('\n');
+                }
+            }
+            stats.addSample(new PlanSample(Instant.now(), shard, durationNanos / 1_000_000.0, plan.toString()));
+        } catch (SQLException e) {
+            log.warn("EXPLAIN failed for slow statement {} on shard {}: {}", stats.sql, shard, e.getMessage());
+        }
+    }
+
+    static String queryId(String normalizedSql) {
+        return "%08x".formatted(normalizedSql.hashCode());
+    }
+
+    @Override
+    public void destroy() {
+        explainExecutor.shutdownNow();
+    }
+
+    public record PlanSample(Instant capturedAt, int shard, double durationMs, String plan) {
+    }
+
+    public record StatementSnapshot(String query, String sql, long count, long slowCount, List<Integer> slowShards,
+                                    double totalMs, double meanMs, double maxMs, List<PlanSample> samples) {
+    }
+
+    private static final class StatementStats {
+
+        private final String sql;
+        private final Timer timer;
+        private final AtomicLong slowCount = new AtomicLong();
+        private final Set<Integer> slowShards = ConcurrentHashMap.newKeySet();
+        private final AtomicLong lastExplainNanos = new AtomicLong(System.nanoTime() - Long.MAX_VALUE / 2);
+        private final Deque<PlanSample> samples = new ArrayDeque<>();
+
+        private StatementStats(String sql, Timer timer) {
+            this.sql = sql;
+            this.timer = timer;
+        }
+
+        private boolean tryAcquireExplain(Duration minInterval) {
+            long last = lastExplainNanos.get();
+            long now = System.nanoTime();
+            return now - last >= minInterval.toNanos() && lastExplainNanos.compareAndSet(last, now);
+        }
+
+        private synchronized void addSample(PlanSample sample) {
+            if (samples.size() == SAMPLES_PER_STATEMENT) {
+                samples.removeFirst();
+            }
+            samples.addLast(sample);
+        }
+
+        private synchronized StatementSnapshot snapshot() {
+            return new StatementSnapshot(
+                    sql.equals(OTHER) ? OTHER : queryId(sql),
+                    sql,
+                    timer.count(),
+                    slowCount.get(),
+                    slowShards.stream().sorted().toList(),
+                    timer.totalTime(TimeUnit.MILLISECONDS),
+                    timer.mean(TimeUnit.MILLISECONDS),
+                    timer.max(TimeUnit.MILLISECONDS),
+                    List.copyOf(samples));
+        }
+
+    }
+
+}
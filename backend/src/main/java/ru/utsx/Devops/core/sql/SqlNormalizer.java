@@ -0,0 +1,49 @@
+package ru.utsx.Devops.core.sql;
+
+import java.util.regex.Pattern;
+
+final class SqlNormalizer {
+
+    private static final int MAX_LENGTH = 2000;
+
+    private static final Pattern STRING_LITERAL = Pattern.compile("'(?:[^']|'')*'");
+    private static final Pattern NUMBER_LITERAL = Pattern.compile("(?<![\\w$])-?\\d+(?:\\.\\d+)?\\b");
+    private static final Pattern POSITIONAL_PARAMETER = Pattern.compile("\\$\\d+");
+    private static final Pattern IN_LIST = Pattern.compile("(?i)\\bin\\s*\\(\\s*\\?(?:\\s*,\\s*\\?)+\\s*\\)");
+    private static final Pattern EXPLAINABLE = Pattern.compile("\\s*(?i)(select|with|insert|update|delete|values)\\b");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    // Побочные эффекты внутри SELECT: выдача id из sequence, уведомления, advisory- и строковые блокировки
+    private static final Pattern SIDE_EFFECTS = Pattern.compile(
+            "(?i)\\b(nextval|setval|pg_notify|pg_(try_)?advisory\\w*)\\s*\\(|\\bfor\\s+(no\\s+key\\s+update|update|key\\s+share|share)\\b");
+
+    private SqlNormalizer() {
+    }
+
+    // Литералы и списки параметров сводятся к ?, чтобы одинаковые запросы попадали в одну гистограмму
+    static String normalize(String sql) {
+        String normalized = STRING_LITERAL.matcher(sql).replaceAll("?");
+        normalized = POSITIONAL_PARAMETER.matcher(normalized).replaceAll("?");
+        normalized = NUMBER_LITERAL.matcher(normalized).replaceAll("?");
+        normalized = IN_LIST.matcher(normalized).replaceAll("in (?)");
+        normalized = WHITESPACE.matcher(normalized).replaceAll(" ").trim();
+        return normalized.length() > MAX_LENGTH ? normalized.substring(0, MAX_LENGTH) : normalized;
+    }
+
+    // DDL и служебные команды (SET, SHOW, COPY, ...) через EXPLAIN не выполняются
+    static boolean isExplainable(String sql) {
+        return EXPLAINABLE.matcher(sql).lookingAt();
+    }
+
+    // EXPLAIN ANALYZE выполняет запрос повторно: допустим только для чтения без побочных эффектов
+    static boolean isReadOnly(String sql) {
+        String lower = STRING_LITERAL.matcher(sql).replaceAll("?").stripLeading().toLowerCase();
+        if (SIDE_EFFECTS.matcher(lower).find()) {
+            return false;
+        }
+        if (lower.startsWith("select")) {
+            return true;
+        }
+        return lower.startsWith("with") && !lower.matches("(?s).*\\b(insert|update|delete|merge)\\b.*");
+    }
+
+}
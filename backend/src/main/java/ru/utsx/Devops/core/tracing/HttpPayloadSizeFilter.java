@@ -0,0 +1,142 @@
+package ru.utsx.Devops.core.tracing;
+
+import java.io.IOException;
+
+import io.micrometer.common.KeyValue;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.server.observation.ServerRequestObservationContext;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.filter.ServerHttpObservationFilter;
+
+// Размеры тела запроса и ответа (до gzip) в спане http.server.requests.
+// Фильтр стоит сразу за ServerHttpObservationFilter, поэтому атрибуты попадают в спан до его закрытия.
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 2)
+public class HttpPayloadSizeFilter extends OncePerRequestFilter {
+
+    static final String REQUEST_SIZE = "http.request.body.size";
+    static final String RESPONSE_SIZE = "http.response.body.size";
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        ServerRequestObservationContext context = ServerHttpObservationFilter.findObservationContext(request).orElse(null);
+        if (context == null) {
+            chain.doFilter(request, response);
+            return;
+        }
+        CountingResponse countingResponse = new CountingResponse(response);
+        chain.doFilter(request, countingResponse);
+
+        if (request.isAsyncStarted()) {
+            request.getAsyncContext().addListener(new AsyncListener() {
+                @Override
+                public void onComplete(AsyncEvent event) {
+                    tag(context, request, countingResponse);
+                }
+
+                @Override
+                public void onTimeout(AsyncEvent event) {
+                }
+
+                @Override
+                public void onError(AsyncEvent event) {
+                }
+
+                @Override
+                public void onStartAsync(AsyncEvent event) {
+                }
+            });
+        } else {
+            tag(context, request, countingResponse);
+        }
+    }
+
+    // Ответы, записанные через getWriter (не через HttpMessageConverter), не считаются
+    private static void tag(ServerRequestObservationContext context, HttpServletRequest request,
+                            CountingResponse response) {
+        long requestSize = request.getContentLengthLong();
+        if (requestSize >= 0) {
+            context.addHighCardinalityKeyValue(KeyValue.of(REQUEST_SIZE, String.valueOf(requestSize)));
+        }
+        if (response.outputStream != null) {
+            context.addHighCardinalityKeyValue(KeyValue.of(RESPONSE_SIZE, String.valueOf(response.outputStream.bytes)));
+        }
+    }
+
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        return true;
+    }
+
+    static final class CountingResponse extends HttpServletResponseWrapper {
+
+        private CountingOutputStream outputStream;
+
+        CountingResponse(HttpServletResponse response) {
+            super(response);
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            if (outputStream == null) {
+                outputStream = new CountingOutputStream(super.getOutputStream());
+            }
+            return outputStream;
+        }
+    }
+
+    static final class CountingOutputStream extends ServletOutputStream {
+
+        private final ServletOutputStream delegate;
+        private long bytes;
+
+        CountingOutputStream(ServletOutputStream delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            delegate.write(b);
+            bytes++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            delegate.write(b, off, len);
+            bytes += len;
+        }
+
+        @Override
+        public void flush() throws IOException {
+            delegate.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            delegate.close();
+        }
+
+        @Override
+        public boolean isReady() {
+            return delegate.isReady();
+        }
+
+        @Override
+        public void setWriteListener(WriteListener writeListener) {
+            delegate.setWriteListener(writeListener);
+        }
+    }
+
+}
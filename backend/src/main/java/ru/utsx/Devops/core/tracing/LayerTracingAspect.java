@@ -0,0 +1,126 @@
+package ru.utsx.Devops.core.tracing;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import lombok.RequiredArgsConstructor;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.reactivestreams.Publisher;
+import org.springframework.aop.framework.AopProxyUtils;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.repository.Repository;
+import org.springframework.stereotype.Component;
+import org.springframework.util.ClassUtils;
+
+// Спан на каждый вызов controller -> facade -> service -> repository внутри уже начатой трассы (HTTP-запрос, @Scheduled).
+// Вызовы вне трассы и реактивные методы (спан закрылся бы до подписки) выполняются без обёртки.
+// Мапперы - статические методы, их время входит в спан фасада.
+@Aspect
+@Component
+@RequiredArgsConstructor
+public class LayerTracingAspect {
+
+    static final String OBSERVATION_NAME = "app.layer";
+
+    private final ObservationRegistry observationRegistry;
+    private final Map<Class<?>, String> componentNames = new ConcurrentHashMap<>();
+
+    @Around("execution(public * ru.utsx.Devops.api.controller..*(..))")
+    public Object controller(ProceedingJoinPoint joinPoint) throws Throwable {
+        return observe(joinPoint, "controller");
+    }
+
+    @Around("execution(public * ru.utsx.Devops.api.facade..*(..))")
+    public Object facade(ProceedingJoinPoint joinPoint) throws Throwable {
+        return observe(joinPoint, "facade");
+    }
+
+    @Around("execution(public * ru.utsx.Devops.domain..*(..)) && (@within(org.springframework.stereotype.Service)"
+            + " || @within(org.springframework.stereotype.Component))")
+    public Object service(ProceedingJoinPoint joinPoint) throws Throwable {
+        return observe(joinPoint, "service");
+    }
+
+    @Around("execution(* org.springframework.data.repository.Repository+.*(..))")
+    public Object repository(ProceedingJoinPoint joinPoint) throws Throwable {
+        return observe(joinPoint, "repository");
+    }
+
+    private Object observe(ProceedingJoinPoint joinPoint, String layer) throws Throwable {
+        Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+        if (observationRegistry.getCurrentObservation() == null
+                || Publisher.class.isAssignableFrom(method.getReturnType())) {
+            return joinPoint.proceed();
+        }
+        String name = componentName(joinPoint.getThis()) + "." + method.getName();
+        Observation observation = Observation.createNotStarted(OBSERVATION_NAME, observationRegistry)
+                .contextualName(name)
+                .lowCardinalityKeyValue("layer", layer)
+                .highCardinalityKeyValue("code.function", name);
+        payloadItems(joinPoint.getArgs()).ifPresent(items ->
+                observation.highCardinalityKeyValue("payload.items", String.valueOf(items)));
+        observation.start();
+        try (Observation.Scope ignored = observation.openScope()) {
+            Object result = joinPoint.proceed();
+            if (method.isAnnotationPresent(Modifying.class) && result instanceof Number affected) {
+                observation.highCardinalityKeyValue("rows.affected", affected.toString());
+            } else {
+                rows(result).ifPresent(rows -> observation.highCardinalityKeyValue("rows", String.valueOf(rows)));
+            }
+            return result;
+        } catch (Throwable e) {
+            observation.error(e);
+            throw e;
+        } finally {
+            observation.stop();
+        }
+    }
+
+    // Для репозиториев Spring Data - имя интерфейса репозитория, а не SimpleJpaRepository
+    private String componentName(Object proxy) {
+        return componentNames.computeIfAbsent(proxy.getClass(), type -> {
+            if (Proxy.isProxyClass(type)) {
+                for (Class<?> candidate : AopProxyUtils.proxiedUserInterfaces(proxy)) {
+                    if (Repository.class.isAssignableFrom(candidate)) {
+                        return candidate.getSimpleName();
+                    }
+                }
+            }
+            return ClassUtils.getUserClass(type).getSimpleName();
+        });
+    }
+
+    static Optional<Integer> rows(Object result) {
+        if (result instanceof Collection<?> collection) {
+            return Optional.of(collection.size());
+        }
+        if (result instanceof Slice<?> slice) {
+            return Optional.of(slice.getNumberOfElements());
+        }
+        if (result instanceof Optional<?> optional) {
+            return Optional.of(optional.isPresent() ? 1 : 0);
+        }
+        return Optional.empty();
+    }
+
+    // Размер входной коллекции (bulk-операции, saveAll); размер тела запроса пишется в HTTP-спан
+    private static Optional<Integer> payloadItems(Object[] args) {
+        for (Object arg : args) {
+            if (arg instanceof Collection<?> collection) {
+                return Optional.of(collection.size());
+            }
+        }
+        return Optional.empty();
+    }
+
+}
@@ -0,0 +1,249 @@
+package ru.utsx.Devops.core.tracing;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.opentelemetry.api.trace.SpanContext;
+import io.opentelemetry.api.trace.StatusCode;
+import io.opentelemetry.context.Context;
+import io.opentelemetry.sdk.common.CompletableResultCode;
+import io.opentelemetry.sdk.trace.ReadWriteSpan;
+import io.opentelemetry.sdk.trace.ReadableSpan;
+import io.opentelemetry.sdk.trace.SpanProcessor;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+// Tail-based sampling: спаны копятся по traceId, решение принимается, когда закрывается корневой спан трассы в этом
+// сервисе. Сохраняются медленные трассы, трассы с ошибкой и доля sample-ratio остальных - последние retained штук
+// в памяти, их отдаёт /actuator/traces. Поэтому head-sampling (management.tracing.sampling.probability) должен быть 1.0.
+@Component
+public class TraceRecorder implements SpanProcessor {
+
+    private final Duration slowThreshold;
+    private final double sampleRatio;
+    private final int maxPendingTraces;
+    private final int maxSpansPerTrace;
+    private final Duration pendingTimeout;
+    private final int retainedTraces;
+    private final Clock clock;
+
+    private final Map<String, PendingTrace> pending = new ConcurrentHashMap<>();
+    private final Deque<RecordedTrace> retained = new ArrayDeque<>();
+    private final Map<Reason, Counter> kept = new LinkedHashMap<>();
+    private final Counter droppedTraces;
+    private final Counter droppedSpans;
+
+    @Autowired
+    public TraceRecorder(MeterRegistry meterRegistry,
+                         @Value("${app.tracing.slow-threshold:PT0.5S}") Duration slowThreshold,
+                         @Value("${app.tracing.sample-ratio:0.01}") double sampleRatio,
+                         @Value("${app.tracing.max-pending-traces:10000}") int maxPendingTraces,
+                         @Value("${app.tracing.max-spans-per-trace:500}") int maxSpansPerTrace,
+                         @Value("${app.tracing.pending-timeout:PT1M}") Duration pendingTimeout,
+                         @Value("${app.tracing.retained-traces:100}") int retainedTraces) {
+        this(meterRegistry, slowThreshold, sampleRatio, maxPendingTraces, maxSpansPerTrace, pendingTimeout,
+                retainedTraces, Clock.systemUTC());
+    }
+
+    TraceRecorder(MeterRegistry meterRegistry, Duration slowThreshold, double sampleRatio, int maxPendingTraces,
+                  int maxSpansPerTrace, Duration pendingTimeout, int retainedTraces, Clock clock) {
+        this.slowThreshold = slowThreshold;
+        this.sampleRatio = sampleRatio;
+        this.maxPendingTraces = maxPendingTraces;
+        this.maxSpansPerTrace = maxSpansPerTrace;
+        this.pendingTimeout = pendingTimeout;
+        this.retainedTraces = retainedTraces;
+        this.clock = clock;
+
+        for (Reason reason : Reason.values()) {
+            kept.put(reason, Counter.builder("tracing.traces.kept").tag("reason", reason.name().toLowerCase())
+                    .register(meterRegistry));
+        }
+        this.droppedTraces = Counter.builder("tracing.traces.dropped")
+                .description("Traces that were neither slow, failed nor sampled")
+                .register(meterRegistry);
+        this.droppedSpans = Counter.builder("tracing.spans.dropped")
+                .description("Spans discarded because of pending trace limits")
+                .register(meterRegistry);
+        Gauge.builder("tracing.traces.pending", pending, Map::size).register(meterRegistry);
+    }
+
+    @Override
+    public void onStart(Context parentContext, ReadWriteSpan span) {
+    }
+
+    @Override
+    public boolean isStartRequired() {
+        return false;
+    }
+
+    @Override
+    public void onEnd(ReadableSpan span) {
+        String traceId = span.getSpanContext().getTraceId();
+        SpanContext parent = span.getParentSpanContext();
+        if (parent.isValid() && !parent.isRemote()) {
+            buffer(traceId, span.toSpanData());
+            return;
+        }
+        PendingTrace trace = pending.remove(traceId);
+        List<SpanData> spans = new ArrayList<>();
+        if (trace != null) {
+            synchronized (trace) {
+                spans.addAll(trace.spans);
+            }
+        }
+        SpanData root = span.toSpanData();
+        spans.add(root);
+        decide(root, spans);
+    }
+
+    @Override
+    public boolean isEndRequired() {
+        return true;
+    }
+
+    public List<TraceSummary> traces() {
+        synchronized (retained) {
+            return retained.stream().map(RecordedTrace::summary).toList();
+        }
+    }
+
+    public Optional<RecordedTrace> trace(String traceId) {
+        synchronized (retained) {
+            return retained.stream().filter(trace -> trace.summary().traceId().equals(traceId)).findFirst();
+        }
+    }
+
+    // Дочерние спаны, пережившие корневой (асинхронная работа), и трассы без корня в этом сервисе не копятся вечно
+    @Scheduled(fixedDelayString = "${app.tracing.pending-timeout:PT1M}")
+    public void evictStale() {
+        Instant cutoff = clock.instant().minus(pendingTimeout);
+        pending.entrySet().removeIf(entry -> {
+            if (entry.getValue().createdAt.isBefore(cutoff)) {
+                droppedTraces.increment();
+                return true;
+            }
+            return false;
+        });
+    }
+
+    @Override
+    public CompletableResultCode shutdown() {
+        pending.clear();
+        return CompletableResultCode.ofSuccess();
+    }
+
+    private void buffer(String traceId, SpanData span) {
+        PendingTrace trace = pending.get(traceId);
+        if (trace == null) {
+            if (pending.size() >= maxPendingTraces) {
+                droppedSpans.increment();
+                return;
+            }
+            trace = pending.computeIfAbsent(traceId, id -> new PendingTrace(clock.instant()));
+        }
+        synchronized (trace) {
+            if (trace.spans.size() < maxSpansPerTrace) {
+                trace.spans.add(span);
+                return;
+            }
+        }
+        droppedSpans.increment();
+    }
+
+    private void decide(SpanData root, List<SpanData> spans) {
+        Reason reason;
+        // Обработанные исключения (404 из @ExceptionHandler) помечают ошибкой только внутренние спаны, не корневой
+        if (root.getStatus().getStatusCode() == StatusCode.ERROR) {
+            reason = Reason.ERROR;
+        } else if (durationNanos(root) >= slowThreshold.toNanos()) {
+            reason = Reason.SLOW;
+        } else if (ThreadLocalRandom.current().nextDouble() < sampleRatio) {
+            reason = Reason.SAMPLED;
+        } else {
+            droppedTraces.increment();
+            return;
+        }
+        kept.get(reason).increment();
+
+        RecordedTrace trace = toTrace(root, spans, reason);
+        synchronized (retained) {
+            retained.addFirst(trace);
+            while (retained.size() > retainedTraces) {
+                retained.removeLast();
+            }
+        }
+    }
+
+    private static RecordedTrace toTrace(SpanData root, List<SpanData> spans, Reason reason) {
+        long start = root.getStartEpochNanos();
+        List<SpanSnapshot> snapshots = spans.stream()
+                .sorted(Comparator.comparingLong(SpanData::getStartEpochNanos))
+                .map(span -> {
+                    Map<String, String> attributes = new LinkedHashMap<>();
+                    span.getAttributes().forEach((key, value) -> attributes.put(key.getKey(), String.valueOf(value)));
+                    return new SpanSnapshot(span.getSpanId(),
+                            span.getParentSpanContext().isValid() ? span.getParentSpanId() : null,
+                            span.getName(),
+                            toMillis(span.getStartEpochNanos() - start),
+                            toMillis(durationNanos(span)),
+                            span.getStatus().getStatusCode() == StatusCode.ERROR,
+                            attributes);
+                })
+                .toList();
+        TraceSummary summary = new TraceSummary(root.getTraceId(), root.getName(),
+                Instant.ofEpochSecond(0, start), toMillis(durationNanos(root)), spans.size(), reason);
+        return new RecordedTrace(summary, snapshots);
+    }
+
+    private static long durationNanos(SpanData span) {
+        return span.getEndEpochNanos() - span.getStartEpochNanos();
+    }
+
+    private static double toMillis(long nanos) {
+        return nanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    public enum Reason {
+        ERROR, SLOW, SAMPLED
+    }
+
+    public record TraceSummary(String traceId, String name, Instant start, double durationMs, int spans, Reason reason) {
+    }
+
+    public record SpanSnapshot(String spanId, String parentSpanId, String name, double startOffsetMs, double durationMs,
+                               boolean error, Map<String, String> attributes) {
+    }
+
+    public record RecordedTrace(TraceSummary summary, List<SpanSnapshot> spans) {
+    }
+
+    private static final class PendingTrace {
+
+        private final Instant createdAt;
+        private final List<SpanData> spans = new ArrayList<>();
+
+        private PendingTrace(Instant createdAt) {
+            this.createdAt = createdAt;
+        }
+    }
+
+}
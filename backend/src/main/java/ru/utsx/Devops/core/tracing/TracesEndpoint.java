@@ -0,0 +1,32 @@
+package ru.utsx.Devops.core.tracing;
+
+import java.util.List;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.boot.actuate.endpoint.web.WebEndpointResponse;
+import org.springframework.stereotype.Component;
+
+// /actuator/traces: последние сохранённые трассы (новые первыми), /actuator/traces/{traceId} - дерево спанов трассы
+@Component
+@Endpoint(id = "traces")
+@RequiredArgsConstructor
+public class TracesEndpoint {
+
+    private final TraceRecorder recorder;
+
+    @ReadOperation
+    public List<TraceRecorder.TraceSummary> traces() {
+        return recorder.traces();
+    }
+
+    @ReadOperation
+    public WebEndpointResponse<TraceRecorder.RecordedTrace> trace(@Selector String traceId) {
+        return recorder.trace(traceId)
+                .map(WebEndpointResponse::new)
+                .orElseGet(() -> new WebEndpointResponse<>(WebEndpointResponse.STATUS_NOT_FOUND));
+    }
+
+}
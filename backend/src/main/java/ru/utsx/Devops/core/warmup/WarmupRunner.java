@@ -0,0 +1,149 @@
+package ru.utsx.Devops.core.warmup;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import javax.sql.DataSource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import ru.utsx.Devops.core.sharding.ShardRouter;
+
+// Прогрев нового pod до readiness: пулы Hikari заполняются до minimumIdle, затем задачи WarmupTask гоняют
+// read-пути и сериализацию, пока JIT не скомпилирует горячий код. Пока прогрев идёт, WarmupHealthIndicator
+// держит readiness в OUT_OF_SERVICE; по исчерпании бюджета или при ошибке pod всё равно становится готовым.
+@Slf4j
+@Component
+public class WarmupRunner {
+
+    private final List<WarmupTask> tasks;
+    private final ShardRouter shardRouter;
+    private final MeterRegistry meterRegistry;
+    private final boolean enabled;
+    private final Duration budget;
+    private final int iterations;
+
+    private volatile Progress progress;
+
+    public WarmupRunner(List<WarmupTask> tasks,
+                        ShardRouter shardRouter,
+                        MeterRegistry meterRegistry,
+                        @Value("${app.warmup.enabled:true}") boolean enabled,
+                        @Value("${app.warmup.budget:PT30S}") Duration budget,
+                        @Value("${app.warmup.iterations:200}") int iterations) {
+        this.tasks = tasks;
+        this.shardRouter = shardRouter;
+        this.meterRegistry = meterRegistry;
+        this.enabled = enabled;
+        this.budget = budget;
+        this.iterations = iterations;
+        this.progress = new Progress(enabled ? Outcome.PENDING : Outcome.DISABLED, 0, 0);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        Thread thread = new Thread(this::run, "warmup");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    public Progress progress() {
+        return progress;
+    }
+
+    public Duration budget() {
+        return budget;
+    }
+
+    void run() {
+        long start = System.nanoTime();
+        long deadline = start + budget.toNanos();
+        progress = new Progress(Outcome.RUNNING, 0, 0);
+        Outcome outcome = Outcome.COMPLETED;
+        int completed = 0;
+        try {
+            fillPools(deadline);
+            while (completed < iterations) {
+                if (System.nanoTime() >= deadline) {
+                    outcome = Outcome.BUDGET_EXHAUSTED;
+                    break;
+                }
+                for (WarmupTask task : tasks) {
+                    task.execute();
+                }
+                completed++;
+                progress = new Progress(Outcome.RUNNING, completed, elapsedMillis(start));
+            }
+        } catch (RuntimeException e) {
+            outcome = Outcome.FAILED;
+            log.warn("Warm-up failed after {} iterations, pod becomes ready without it", completed, e);
+        }
+        long duration = System.nanoTime() - start;
+        Timer.builder("warmup.duration")
+                .tag("outcome", outcome.name().toLowerCase())
+                .register(meterRegistry)
+                .record(duration, TimeUnit.NANOSECONDS);
+        progress = new Progress(outcome, completed, TimeUnit.NANOSECONDS.toMillis(duration));
+        log.info("Warm-up {}: {} iterations in {} ms", outcome, completed, progress.elapsedMs());
+    }
+
+    // Соединения берутся одновременно, чтобы пул открыл их сразу, а не по одному в фоне
+    private void fillPools(long deadline) {
+        for (int shard = 0; shard < shardRouter.shardCount(); shard++) {
+            DataSource dataSource = shardRouter.shard(shard);
+            if (!(dataSource instanceof HikariDataSource hikari)) {
+                continue;
+            }
+            long timeout = TimeUnit.NANOSECONDS.toSeconds(deadline - System.nanoTime());
+            List<Connection> connections = new ArrayList<>();
+            try {
+                for (int i = 0; i < hikari.getMinimumIdle(); i++) {
+                    Connection connection = hikari.getConnection();
+                    connections.add(connection);
+                    connection.isValid((int) Math.max(1, timeout));
+                }
+            } catch (SQLException e) {
+                throw new IllegalStateException("Could not fill connection pool of shard " + shard, e);
+            } finally {
+                connections.forEach(WarmupRunner::closeQuietly);
+            }
+        }
+    }
+
+    private static void closeQuietly(Connection connection) {
+        try {
+            connection.close();
+        } catch (SQLException e) {
+            log.debug("Could not return warm-up connection", e);
+        }
+    }
+
+    private static long elapsedMillis(long start) {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+    }
+
+    public enum Outcome {
+        DISABLED, PENDING, RUNNING, COMPLETED, BUDGET_EXHAUSTED, FAILED;
+
+        public boolean finished() {
+            return this != PENDING && this != RUNNING;
+        }
+    }
+
+    public record Progress(Outcome outcome, int iterations, long elapsedMs) {
+    }
+
+}
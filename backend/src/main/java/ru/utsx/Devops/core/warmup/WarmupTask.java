@@ -0,0 +1,8 @@
+package ru.utsx.Devops.core.warmup;
+
+// Одна итерация прогрева. WarmupRunner вызывает все задачи по кругу, пока не выйдут итерации или бюджет времени.
+public interface WarmupTask {
+
+    void execute();
+
+}
@@ -0,0 +1,73 @@
+package ru.utsx.Devops.domain.orders;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.ConstraintMode;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.ForeignKey;
+import jakarta.persistence.Id;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.ManyToOne;
+import jakarta.persistence.Table;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Immutable;
+import ru.utsx.Devops.domain.users.User;
+
+// Заказ, перенесённый OrderArchiver в orders_archive; доступен только на чтение
+@Getter
+@NoArgsConstructor
+
+@Entity
+@Immutable
+@Table(name = "orders_archive")
+public class ArchivedOrder {
+    @Id
+    private Long id;
+
+    @Column(name = "delivery_date", nullable = false)
+    private LocalDate deliveryDate;
+
+    @Column(name = "product_name", nullable = false)
+    private String productName;
+
+    @Column(name = "created_at")
+    private Instant createdAt;
+
+    @Column(name = "updated_at")
+    private Instant updatedAt;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private OrderStatus status;
+
+    @ManyToOne(fetch = FetchType.EAGER)
+    @JoinColumn(name = "user_id", nullable = false, foreignKey = @ForeignKey(ConstraintMode.NO_CONSTRAINT))
+    private User user;
+
+    @Column(nullable = false, precision = 10, scale = 2)
+    private BigDecimal total;
+
+    @Column(name = "archived_at", nullable = false)
+    private Instant archivedAt;
+
+    // Отсоединённая копия в виде Order, чтобы чтение по id не зависело от того, где лежит заказ
+    public Order toOrder() {
+        return Order.builder()
+                .id(id)
+                .deliveryDate(deliveryDate)
+                .productName(productName)
+                .createdAt(createdAt)
+                .updatedAt(updatedAt)
+                .status(status)
+                .user(user)
+                .total(total)
+                .build();
+    }
+}
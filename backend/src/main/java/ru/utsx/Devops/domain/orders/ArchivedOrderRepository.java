@@ -0,0 +1,30 @@
+package ru.utsx.Devops.domain.orders;
+
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+public interface ArchivedOrderRepository extends JpaRepository<ArchivedOrder, Long> {
+
+    Optional<ArchivedOrder> findByIdAndUserDeletedAtIsNull(Long id);
+
+    @Query("select a.user.id from ArchivedOrder a where a.id = :id")
+    Optional<Long> findUserIdById(@Param("id") Long id);
+
+    // Сущность неизменяемая, поэтому удаление идёт нативным запросом в обход Hibernate
+    @Transactional
+    @Modifying
+    @Query(value = "DELETE FROM orders_archive WHERE id = :id", nativeQuery = true)
+    int deleteArchivedById(@Param("id") Long id);
+
+    @Transactional
+    @Modifying
+    @Query(value = "DELETE FROM orders_archive WHERE id IN "
+            + "(SELECT id FROM orders_archive WHERE user_id = :userId LIMIT :limit FOR UPDATE SKIP LOCKED)", nativeQuery = true)
+    int deleteChunkByUserId(@Param("userId") Long userId, @Param("limit") int limit);
+
+}
@@ -0,0 +1,6 @@
+package ru.utsx.Devops.domain.orders;
+
+import java.time.LocalDate;
+
+public record DeliveryDayCount(LocalDate deliveryDate, OrderStatus status, long count) {
+}
@@ -0,0 +1,6 @@
+package ru.utsx.Devops.domain.orders;
+
+import java.util.List;
+
+public record DeliverySchedule(List<ScheduledOrder> orders, List<DeliveryDayCount> counts) {
+}
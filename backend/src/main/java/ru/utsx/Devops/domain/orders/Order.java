@@ -10,12 +10,9 @@ import jakarta.persistence.Entity;
 import jakarta.persistence.EnumType;
 import jakarta.persistence.Enumerated;
 import jakarta.persistence.FetchType;
-import jakarta.persistence.GeneratedValue;
-import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
-import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
 import jakarta.persistence.Version;
 import lombok.AccessLevel;
@@ -27,6 +24,7 @@ import lombok.Setter;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.Type;
 import org.hibernate.annotations.UpdateTimestamp;
+import ru.utsx.Devops.core.sharding.ShardAwareId;
 import ru.utsx.Devops.domain.users.User;
 
 @Getter
@@ -39,8 +37,7 @@ import ru.utsx.Devops.domain.users.User;
 @Table(name = "orders")
 public class Order {
     @Id
-    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "orders_seq_gen")
-    @SequenceGenerator(name = "orders_seq_gen", sequenceName = "orders_seq", allocationSize = 1000)
+    @ShardAwareId(sequenceName = "orders_seq")
     private Long id;
 
     @Column(name = "delivery_date", nullable = false)
@@ -0,0 +1,59 @@
+package ru.utsx.Devops.domain.orders;
+
+import java.time.Clock;
+import java.time.Duration;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import ru.utsx.Devops.core.analytics.SlidingTopK;
+
+// Топ товаров и заказывающих пользователей за последние минуты по числу заказов и по сумме total.
+// Считается потоково по созданным заказам этого пода, без сканов orders; оценки приближённые,
+// граница ошибки возвращается вместе с ответом (см. SlidingTopK)
+@Service
+public class OrderAnalyticsService {
+
+    private final SlidingTopK<String> products;
+    private final SlidingTopK<Long> users;
+
+    @Autowired
+    public OrderAnalyticsService(@Value("${app.analytics.window:PT1H}") Duration window,
+                                 @Value("${app.analytics.bucket:PT5M}") Duration bucket,
+                                 @Value("${app.analytics.sketch-depth:5}") int depth,
+                                 @Value("${app.analytics.sketch-width:1024}") int width,
+                                 @Value("${app.analytics.candidates:100}") int candidates) {
+        this(window, bucket, depth, width, candidates, Clock.systemUTC());
+    }
+
+    public OrderAnalyticsService(Duration window, Duration bucket, int depth, int width, int candidates, Clock clock) {
+        this.products = new SlidingTopK<>(window, bucket, depth, width, candidates, clock);
+        this.users = new SlidingTopK<>(window, bucket, depth, width, candidates, clock);
+    }
+
+    public void record(Order order) {
+        double total = order.getTotal().doubleValue();
+        products.add(order.getProductName(), total);
+        users.add(order.getUser().getId(), total);
+    }
+
+    public SlidingTopK.Summary<String> topProducts(SlidingTopK.Metric metric, Duration span, int limit) {
+        validate(products, span, limit);
+        return products.top(span, limit, metric);
+    }
+
+    public SlidingTopK.Summary<Long> topUsers(SlidingTopK.Metric metric, Duration span, int limit) {
+        validate(users, span, limit);
+        return users.top(span, limit, metric);
+    }
+
+    private static void validate(SlidingTopK<?> topK, Duration span, int limit) {
+        if (span.isZero() || span.isNegative() || span.compareTo(topK.window()) > 0) {
+            throw new IllegalArgumentException("Интервал должен быть от 1 минуты до " + topK.window().toMinutes() + " минут");
+        }
+        if (limit < 1 || limit > topK.candidates()) {
+            throw new IllegalArgumentException("limit должен быть от 1 до " + topK.candidates());
+        }
+    }
+
+}
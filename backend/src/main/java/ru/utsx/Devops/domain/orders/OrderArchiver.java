@@ -0,0 +1,103 @@
+package ru.utsx.Devops.domain.orders;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashSet;
+import java.util.List;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.utsx.Devops.core.cache.CacheInvalidationPublisher;
+import ru.utsx.Devops.core.cache.CacheNames;
+import ru.utsx.Devops.core.sharding.ShardRouter;
+
+// Перенос завершённых заказов (DELIVERED, CANCELLED) старше min-age в orders_archive.
+// Каждая порция переносится одним DELETE ... RETURNING + INSERT в своей транзакции, блокируются только строки порции.
+// Шарды обрабатываются по очереди, лимит порций действует на каждый шард.
+@Slf4j
+@Component
+public class OrderArchiver {
+
+    private static final String ARCHIVE_BATCH = """
+            WITH moved AS (
+                DELETE FROM orders WHERE id IN (
+                    SELECT id FROM orders
+                    WHERE status IN ('DELIVERED', 'CANCELLED') AND updated_at < ?
+                    LIMIT ?
+                    FOR UPDATE SKIP LOCKED)
+                RETURNING id, product_name, user_id, delivery_date, status, total, created_at, updated_at)
+            INSERT INTO orders_archive (id, product_name, user_id, delivery_date, status, total, created_at, updated_at, archived_at)
+            SELECT id, product_name, user_id, delivery_date, status, total, created_at, updated_at, now() FROM moved
+            RETURNING user_id""";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final CacheInvalidationPublisher cacheInvalidationPublisher;
+    private final ShardRouter shardRouter;
+    private final Duration minAge;
+    private final int batchSize;
+    private final int maxBatchesPerRun;
+
+    private final Counter archivedOrders;
+    private final Timer batchTimer;
+
+    public OrderArchiver(JdbcTemplate jdbcTemplate,
+                         TransactionTemplate transactionTemplate,
+                         CacheInvalidationPublisher cacheInvalidationPublisher,
+                         ShardRouter shardRouter,
+                         MeterRegistry meterRegistry,
+                         @Value("${orders.archive.min-age:P30D}") Duration minAge,
+                         @Value("${orders.archive.batch-size:1000}") int batchSize,
+                         @Value("${orders.archive.max-batches-per-run:20}") int maxBatchesPerRun) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.cacheInvalidationPublisher = cacheInvalidationPublisher;
+        this.shardRouter = shardRouter;
+        this.minAge = minAge;
+        this.batchSize = batchSize;
+        this.maxBatchesPerRun = maxBatchesPerRun;
+
+        this.archivedOrders = Counter.builder("orders.archive.moved")
+                .description("Orders moved from orders to orders_archive")
+                .register(meterRegistry);
+        this.batchTimer = Timer.builder("orders.archive.batch").register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${orders.archive.interval:PT1M}", initialDelayString = "${orders.archive.initial-delay:PT1M}")
+    public void archive() {
+        Timestamp cutoff = Timestamp.from(Instant.now().minus(minAge));
+        shardRouter.forEachShard(shard -> archiveShard(shard, cutoff));
+    }
+
+    private void archiveShard(int shard, Timestamp cutoff) {
+        long total = 0;
+        int moved;
+        int batches = 0;
+        do {
+            moved = batchTimer.record(() -> transactionTemplate.execute(status -> archiveBatch(cutoff)));
+            archivedOrders.increment(moved);
+            total += moved;
+            batches++;
+        } while (moved == batchSize && batches < maxBatchesPerRun);
+
+        if (total > 0) {
+            log.info("Archived {} orders updated before {} on shard {}", total, cutoff.toInstant(), shard);
+        }
+    }
+
+    private int archiveBatch(Timestamp cutoff) {
+        List<Long> userIds = jdbcTemplate.queryForList(ARCHIVE_BATCH, Long.class, cutoff, batchSize);
+        // Закэшированные пользователи содержат список заказов, который после переноса изменился
+        new HashSet<>(userIds).forEach(userId -> cacheInvalidationPublisher.evict(CacheNames.USERS, userId));
+        return userIds.size();
+    }
+
+}
@@ -0,0 +1,190 @@
+package ru.utsx.Devops.domain.orders;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.utsx.Devops.api.model.order.BulkOperationResultDto;
+import ru.utsx.Devops.api.model.order.BulkUpdateOrdersDto;
+import ru.utsx.Devops.api.model.order.OrderFilterDto;
+import ru.utsx.Devops.core.cache.CacheInvalidationPublisher;
+import ru.utsx.Devops.core.cache.CacheNames;
+import ru.utsx.Devops.core.sharding.ShardRouter;
+
+// Массовые изменения заказов по фильтру: порции по id (keyset), каждая порция - SELECT ... FOR UPDATE
+// и один UPDATE/DELETE в своей транзакции. Действует то же правило, что и в OrderCommandService.updateOrder:
+// дата доставки не переносится на более раннюю, такие заказы пропускаются и считаются в rejected.
+@Service
+public class OrderBulkCommandService {
+
+    private static final String FROM_FILTERED = """
+            FROM orders o
+            JOIN users u ON u.id = o.user_id
+            WHERE u.deleted_at IS NULL""";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final CacheInvalidationPublisher cacheInvalidationPublisher;
+    private final ShardRouter shardRouter;
+    private final MeterRegistry meterRegistry;
+    private final int chunkSize;
+
+    public OrderBulkCommandService(NamedParameterJdbcTemplate jdbcTemplate,
+                                   TransactionTemplate transactionTemplate,
+                                   CacheInvalidationPublisher cacheInvalidationPublisher,
+                                   ShardRouter shardRouter,
+                                   MeterRegistry meterRegistry,
+                                   @Value("${orders.bulk.chunk-size:1000}") int chunkSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.cacheInvalidationPublisher = cacheInvalidationPublisher;
+        this.shardRouter = shardRouter;
+        this.meterRegistry = meterRegistry;
+        this.chunkSize = chunkSize;
+    }
+
+    public BulkOperationResultDto updateOrders(BulkUpdateOrdersDto request, boolean dryRun) {
+        if (request.getStatus() == null && request.getDeliveryDate() == null) {
+            throw new IllegalArgumentException("Не заданы поля для изменения: status или delivery_date");
+        }
+        MapSqlParameterSource params = filterParams(request.getFilter());
+        String filter = filterSql(request.getFilter());
+
+        List<String> assignments = new ArrayList<>();
+        String rejectCondition = "false";
+        if (request.getStatus() != null) {
+            assignments.add("status = :newStatus");
+            params.addValue("newStatus", request.getStatus().name());
+        }
+        if (request.getDeliveryDate() != null) {
+            assignments.add("delivery_date = :newDeliveryDate");
+            params.addValue("newDeliveryDate", request.getDeliveryDate());
+            rejectCondition = "delivery_date > :newDeliveryDate";
+        }
+        assignments.add("updated_at = now()");
+
+        if (dryRun) {
+            return dryRun(filter, rejectCondition.replace("delivery_date", "o.delivery_date"), params);
+        }
+        String update = "UPDATE orders SET " + String.join(", ", assignments)
+                + " WHERE id IN (:ids) AND NOT (" + rejectCondition + ") RETURNING id";
+        return execute("update", filter, update, params);
+    }
+
+    public BulkOperationResultDto deleteOrders(OrderFilterDto filterDto, boolean dryRun) {
+        MapSqlParameterSource params = filterParams(filterDto);
+        String filter = filterSql(filterDto);
+        if (dryRun) {
+            return dryRun(filter, "false", params);
+        }
+        return execute("delete", filter, "DELETE FROM orders WHERE id IN (:ids) RETURNING id", params);
+    }
+
+    private BulkOperationResultDto dryRun(String filter, String rejectCondition, MapSqlParameterSource params) {
+        long matched = 0;
+        long rejected = 0;
+        for (Map<String, Object> counts : shardRouter.scatter(() -> jdbcTemplate.queryForMap(
+                "SELECT count(*) AS matched, count(*) FILTER (WHERE " + rejectCondition + ") AS rejected "
+                        + FROM_FILTERED + filter, params))) {
+            matched += ((Number) counts.get("matched")).longValue();
+            rejected += ((Number) counts.get("rejected")).longValue();
+        }
+        return BulkOperationResultDto.builder()
+                .dryRun(true)
+                .matched(matched)
+                .affected(matched - rejected)
+                .rejected(rejected)
+                .build();
+    }
+
+    // Шарды обрабатываются по очереди, порции на каждом шарде - по возрастанию id
+    private BulkOperationResultDto execute(String operation, String filter, String statement,
+                                           MapSqlParameterSource params) {
+        String lockChunk = "SELECT o.id " + FROM_FILTERED + filter
+                + " AND o.id > :afterId ORDER BY o.id LIMIT :limit FOR UPDATE OF o";
+        Timer chunkTimer = meterRegistry.timer("orders.bulk.chunk", "operation", operation);
+
+        long[] totals = new long[3];
+        shardRouter.forEachShard(shard -> {
+            long afterId = 0;
+            ChunkResult chunk;
+            do {
+                MapSqlParameterSource chunkParams = new MapSqlParameterSource(params.getValues())
+                        .addValue("afterId", afterId)
+                        .addValue("limit", chunkSize);
+                chunk = chunkTimer.record(() -> transactionTemplate.execute(
+                        status -> processChunk(lockChunk, statement, chunkParams)));
+                totals[0] += chunk.matched();
+                totals[1] += chunk.affected();
+                totals[2]++;
+                afterId = chunk.lastId();
+            } while (chunk.matched() == chunkSize);
+        });
+        long matched = totals[0];
+        long affected = totals[1];
+
+        long rejected = matched - affected;
+        meterRegistry.counter("orders.bulk.rows", "operation", operation, "result", "affected").increment(affected);
+        meterRegistry.counter("orders.bulk.rows", "operation", operation, "result", "rejected").increment(rejected);
+        if (affected > 0) {
+            // Изменения могут затронуть тысячи заказов: дешевле сбросить кэши целиком, чем рассылать ключи
+            cacheInvalidationPublisher.evictAll(CacheNames.ORDERS);
+            cacheInvalidationPublisher.evictAll(CacheNames.USERS);
+        }
+        return BulkOperationResultDto.builder()
+                .matched(matched)
+                .affected(affected)
+                .rejected(rejected)
+                .chunks((int) totals[2])
+                .build();
+    }
+
+    private ChunkResult processChunk(String lockChunk, String statement, MapSqlParameterSource params) {
+        List<Long> locked = jdbcTemplate.queryForList(lockChunk, params, Long.class);
+        if (locked.isEmpty()) {
+            return new ChunkResult(0, 0, 0);
+        }
+        params.addValue("ids", locked);
+        int changed = jdbcTemplate.queryForList(statement, params, Long.class).size();
+        return new ChunkResult(locked.size(), changed, locked.get(locked.size() - 1));
+    }
+
+    private static String filterSql(OrderFilterDto filter) {
+        if (filter == null || (filter.getUserId() == null && filter.getStatus() == null
+                && filter.getDeliveryDate() == null)) {
+            throw new IllegalArgumentException("Фильтр не может быть пустым");
+        }
+        StringBuilder sql = new StringBuilder();
+        if (filter.getUserId() != null) {
+            sql.append(" AND o.user_id = :userId");
+        }
+        if (filter.getStatus() != null) {
+            sql.append(" AND o.status = :status");
+        }
+        if (filter.getDeliveryDate() != null) {
+            sql.append(" AND o.delivery_date = :deliveryDate");
+        }
+        return sql.toString();
+    }
+
+    private static MapSqlParameterSource filterParams(OrderFilterDto filter) {
+        MapSqlParameterSource params = new MapSqlParameterSource();
+        if (filter != null) {
+            params.addValue("userId", filter.getUserId());
+            params.addValue("status", filter.getStatus() == null ? null : filter.getStatus().name());
+            params.addValue("deliveryDate", filter.getDeliveryDate());
+        }
+        return params;
+    }
+
+    private record ChunkResult(int matched, int affected, long lastId) {
+    }
+
+}
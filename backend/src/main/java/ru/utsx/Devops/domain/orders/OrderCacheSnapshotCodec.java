@@ -0,0 +1,135 @@
+package ru.utsx.Devops.domain.orders;
+
+import java.nio.ByteBuffer;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Component;
+import ru.utsx.Devops.core.cache.CacheNames;
+import ru.utsx.Devops.core.cache.CacheSnapshotCodec;
+import ru.utsx.Devops.core.sharding.ShardRouter;
+import ru.utsx.Devops.domain.users.User;
+
+import static ru.utsx.Devops.core.cache.CacheSnapshotCodec.getDate;
+import static ru.utsx.Devops.core.cache.CacheSnapshotCodec.getDecimal;
+import static ru.utsx.Devops.core.cache.CacheSnapshotCodec.getInstant;
+import static ru.utsx.Devops.core.cache.CacheSnapshotCodec.getString;
+import static ru.utsx.Devops.core.cache.CacheSnapshotCodec.putDate;
+import static ru.utsx.Devops.core.cache.CacheSnapshotCodec.putDecimal;
+import static ru.utsx.Devops.core.cache.CacheSnapshotCodec.putInstant;
+import static ru.utsx.Devops.core.cache.CacheSnapshotCodec.putString;
+
+// Заказ в снимке кэша хранится вместе с полями владельца, но без его списка заказов: у восстановленного заказа
+// user.orders пуст. Заказ актуален, если совпадают updated_at заказа (в orders или в архиве) и владельца,
+// а владелец не удалён.
+@Component
+public class OrderCacheSnapshotCodec implements CacheSnapshotCodec<Order> {
+
+    private static final String VERSIONS = """
+            SELECT o.id, o.updated_at, u.updated_at AS user_updated_at
+            FROM orders o
+            JOIN users u ON u.id = o.user_id
+            WHERE o.id IN (:ids) AND u.deleted_at IS NULL
+            UNION ALL
+            SELECT a.id, a.updated_at, u.updated_at AS user_updated_at
+            FROM orders_archive a
+            JOIN users u ON u.id = a.user_id
+            WHERE a.id IN (:ids) AND u.deleted_at IS NULL""";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final ShardRouter shardRouter;
+
+    public OrderCacheSnapshotCodec(NamedParameterJdbcTemplate jdbcTemplate, ShardRouter shardRouter) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.shardRouter = shardRouter;
+    }
+
+    @Override
+    public String cacheName() {
+        return CacheNames.ORDERS;
+    }
+
+    @Override
+    public Class<Order> type() {
+        return Order.class;
+    }
+
+    @Override
+    public long key(Order order) {
+        return order.getId();
+    }
+
+    @Override
+    public void write(Order order, ByteBuffer out) {
+        User user = order.getUser();
+        out.putLong(order.getId());
+        putString(out, order.getProductName());
+        putDate(out, order.getDeliveryDate());
+        putString(out, order.getStatus() == null ? null : order.getStatus().name());
+        putDecimal(out, order.getTotal());
+        putInstant(out, order.getCreatedAt());
+        putInstant(out, order.getUpdatedAt());
+        out.putLong(user.getId());
+        putString(out, user.getUsername());
+        putString(out, user.getEmail());
+        putInstant(out, user.getCreatedAt());
+        putInstant(out, user.getUpdatedAt());
+        putInstant(out, user.getDeletedAt());
+    }
+
+    @Override
+    public Order read(ByteBuffer in) {
+        Order order = Order.builder()
+                .id(in.getLong())
+                .productName(getString(in))
+                .deliveryDate(getDate(in))
+                .status(status(getString(in)))
+                .total(getDecimal(in))
+                .createdAt(getInstant(in))
+                .updatedAt(getInstant(in))
+                .build();
+        order.setUser(User.builder()
+                .id(in.getLong())
+                .username(getString(in))
+                .email(getString(in))
+                .createdAt(getInstant(in))
+                .updatedAt(getInstant(in))
+                .deletedAt(getInstant(in))
+                .orders(List.of())
+                .build());
+        return order;
+    }
+
+    @Override
+    public Set<Long> current(Map<Long, Order> orders) {
+        Map<String, Object> params = Map.of("ids", orders.keySet());
+        Set<Long> current = new HashSet<>();
+        for (List<Long> ids : shardRouter.scatter(() -> jdbcTemplate.query(VERSIONS, params, (rs, rowNum) -> {
+            Order order = orders.get(rs.getLong("id"));
+            boolean same = Objects.equals(order.getUpdatedAt(), instant(rs, "updated_at"))
+                    && Objects.equals(order.getUser().getUpdatedAt(), instant(rs, "user_updated_at"));
+            return same ? order.getId() : null;
+        }))) {
+            ids.stream().filter(Objects::nonNull).forEach(current::add);
+        }
+        return current;
+    }
+
+    private static OrderStatus status(String name) {
+        return name == null ? null : OrderStatus.valueOf(name);
+    }
+
+    private static Instant instant(ResultSet rs, String column) throws SQLException {
+        OffsetDateTime value = rs.getObject(column, OffsetDateTime.class);
+        return value == null ? null : value.toInstant();
+    }
+
+}
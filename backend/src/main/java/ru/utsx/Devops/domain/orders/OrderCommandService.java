@@ -8,6 +8,9 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import ru.utsx.Devops.api.model.order.CreateOrderDto;
 import ru.utsx.Devops.api.model.order.UpdateOrderDto;
+import ru.utsx.Devops.core.cache.CacheInvalidationPublisher;
+import ru.utsx.Devops.core.cache.CacheNames;
+import ru.utsx.Devops.core.sharding.ShardRouter;
 import ru.utsx.Devops.domain.users.UserQueryService;
 
 @Service
@@ -15,7 +18,11 @@ import ru.utsx.Devops.domain.users.UserQueryService;
 public class OrderCommandService {
 
     private final OrderRepository orderRepository;
+    private final ArchivedOrderRepository archivedOrderRepository;
     private final UserQueryService userQueryService;
+    private final CacheInvalidationPublisher cacheInvalidationPublisher;
+    private final ShardRouter shardRouter;
+    private final OrderAnalyticsService orderAnalyticsService;
 
     public Long createOrder(CreateOrderDto createOrderDto) {
         var user = userQueryService.getUser(createOrderDto.getUserId());
@@ -26,12 +33,18 @@ public class OrderCommandService {
                 .status(createOrderDto.getStatus())
                 .total(createOrderDto.getTotal())
                 .build();
-        return orderRepository.save(order).getId();
+        // Заказ пишется на шард владельца, чтобы пользователь и его заказы оставались вместе
+        int shard = userQueryService.getUserShard(user.getId());
+        Long id = shardRouter.onShard(shard, () -> orderRepository.save(order)).getId();
+        cacheInvalidationPublisher.evict(CacheNames.USERS, user.getId());
+        orderAnalyticsService.record(order);
+        return id;
     }
 
     public void updateOrder(Long id, UpdateOrderDto updateOrderDto) {
-        var order = orderRepository.findById(id)
+        var located = shardRouter.find(id, () -> orderRepository.findByIdAndUserDeletedAtIsNull(id))
                 .orElseThrow(() -> new EntityNotFoundException("Заказ с ID " + id + " не найден"));
+        var order = located.value();
         
         // Валидация: новая дата доставки не может быть раньше текущей
         if (updateOrderDto.getDeliveryDate() != null &&
@@ -47,11 +60,22 @@ public class OrderCommandService {
             order.setTotal(updateOrderDto.getTotal());
         }
         
-        orderRepository.save(order);
+        shardRouter.onShard(located.shard(), () -> orderRepository.save(order));
+        cacheInvalidationPublisher.evict(CacheNames.ORDERS, id);
+        cacheInvalidationPublisher.evict(CacheNames.USERS, order.getUser().getId());
     }
 
+    // Как и getOrder, заказ ищется сначала в горячей таблице, затем в архиве
     public void deleteOrder(Long id) {
-        orderRepository.deleteById(id);
+        var owner = shardRouter.find(id, () -> orderRepository.findUserIdById(id));
+        if (owner.isPresent()) {
+            shardRouter.onShard(owner.get().shard(), () -> orderRepository.deleteById(id));
+        } else {
+            owner = shardRouter.find(id, () -> archivedOrderRepository.findUserIdById(id));
+            owner.ifPresent(located -> shardRouter.onShard(located.shard(), () -> archivedOrderRepository.deleteArchivedById(id)));
+        }
+        cacheInvalidationPublisher.evict(CacheNames.ORDERS, id);
+        owner.ifPresent(located -> cacheInvalidationPublisher.evict(CacheNames.USERS, located.value()));
     }
 
 }
@@ -0,0 +1,46 @@
+package ru.utsx.Devops.domain.orders;
+
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+// Поля заказа для разреженных ответов (fields=): имя поля в API и путь атрибута сущности.
+// Пути одинаковы для Order и ArchivedOrder; userId читается из внешнего ключа, без колонок users
+@Getter
+@RequiredArgsConstructor
+public enum OrderField {
+    ID("id", "id"),
+    USER_ID("userId", "user.id"),
+    PRODUCT_NAME("productName", "productName"),
+    DELIVERY_DATE("deliveryDate", "deliveryDate"),
+    STATUS("status", "status"),
+    TOTAL("total", "total");
+
+    private final String fieldName;
+    private final String path;
+
+    public static Set<OrderField> parse(String fields) {
+        EnumSet<OrderField> selected = EnumSet.noneOf(OrderField.class);
+        for (String name : fields.split(",")) {
+            String trimmed = name.trim();
+            if (!trimmed.isEmpty()) {
+                selected.add(Arrays.stream(values())
+                        .filter(field -> field.fieldName.equals(trimmed))
+                        .findFirst()
+                        .orElseThrow(() -> new IllegalArgumentException("Неизвестное поле заказа " + trimmed
+                                + ", допустимые поля: " + Arrays.stream(values())
+                                .map(OrderField::getFieldName)
+                                .collect(Collectors.joining(", ")))));
+            }
+        }
+        if (selected.isEmpty()) {
+            throw new IllegalArgumentException("Параметр fields не может быть пустым");
+        }
+        return selected;
+    }
+
+}
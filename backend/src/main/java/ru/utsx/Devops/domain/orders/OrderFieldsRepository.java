@@ -0,0 +1,20 @@
+package ru.utsx.Devops.domain.orders;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import jakarta.persistence.Tuple;
+import org.springframework.data.domain.Pageable;
+
+// Выборка только запрошенных колонок заказов без загрузки сущностей; элементы Tuple называются по OrderField.name(),
+// id выбирается всегда (по нему сортируются и сливаются страницы шардов)
+public interface OrderFieldsRepository {
+
+    List<Tuple> findOrderFields(Set<OrderField> fields, Pageable pageable);
+
+    Optional<Tuple> findOrderFieldsById(Long id, Set<OrderField> fields);
+
+    Optional<Tuple> findArchivedOrderFieldsById(Long id, Set<OrderField> fields);
+
+}
@@ -0,0 +1,74 @@
+package ru.utsx.Devops.domain.orders;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Pageable;
+
+@RequiredArgsConstructor
+class OrderFieldsRepositoryImpl implements OrderFieldsRepository {
+
+    private final EntityManager entityManager;
+
+    @Override
+    public List<Tuple> findOrderFields(Set<OrderField> fields, Pageable pageable) {
+        return select(Order.class, fields, null, pageable);
+    }
+
+    @Override
+    public Optional<Tuple> findOrderFieldsById(Long id, Set<OrderField> fields) {
+        return select(Order.class, fields, id, Pageable.unpaged()).stream().findFirst();
+    }
+
+    @Override
+    public Optional<Tuple> findArchivedOrderFieldsById(Long id, Set<OrderField> fields) {
+        return select(ArchivedOrder.class, fields, id, Pageable.unpaged()).stream().findFirst();
+    }
+
+    // join с users нужен только для фильтра по deleted_at: колонки пользователя и его заказы не читаются
+    private List<Tuple> select(Class<?> entity, Set<OrderField> fields, Long id, Pageable pageable) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<?> order = query.from(entity);
+
+        List<Selection<?>> selections = new ArrayList<>();
+        selections.add(order.get("id").alias(OrderField.ID.name()));
+        for (OrderField field : fields) {
+            if (field != OrderField.ID) {
+                selections.add(path(order, field).alias(field.name()));
+            }
+        }
+        Predicate active = cb.isNull(order.join("user").get("deletedAt"));
+        query.multiselect(selections)
+                .where(id == null ? active : cb.and(active, cb.equal(order.get("id"), id)))
+                .orderBy(cb.asc(order.get("id")));
+
+        TypedQuery<Tuple> typed = entityManager.createQuery(query);
+        if (pageable.isPaged()) {
+            typed.setFirstResult((int) pageable.getOffset());
+            typed.setMaxResults(pageable.getPageSize());
+        }
+        return typed.getResultList();
+    }
+
+    private static Path<?> path(Root<?> root, OrderField field) {
+        Path<?> path = root;
+        for (String attribute : field.getPath().split("\\.")) {
+            path = path.get(attribute);
+        }
+        return path;
+    }
+
+}
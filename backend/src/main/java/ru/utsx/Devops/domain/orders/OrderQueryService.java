@@ -1,22 +1,133 @@
 package ru.utsx.Devops.domain.orders;
 
-import lombok.RequiredArgsConstructor;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityNotFoundException;
+import jakarta.persistence.Tuple;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.utsx.Devops.core.cache.CacheNames;
+import ru.utsx.Devops.core.sharding.ShardRouter;
 
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
 
 @Service
-@RequiredArgsConstructor
 public class OrderQueryService {
 
+    static final int MAX_SCHEDULE_DAYS = 366;
+    static final int MAX_SCHEDULE_PAGE_SIZE = ShardRouter.MAX_PAGE_SIZE;
+
+    private static final Comparator<Order> BY_ID = Comparator.comparing(Order::getId);
+    private static final Comparator<Tuple> TUPLE_BY_ID = Comparator.comparing(tuple -> tuple.get(OrderField.ID.name(), Long.class));
+    private static final Comparator<ScheduledOrder> BY_DELIVERY_DATE =
+            Comparator.comparing(ScheduledOrder::deliveryDate).thenComparing(ScheduledOrder::id);
+
     private final OrderRepository orderRepository;
+    private final ArchivedOrderRepository archivedOrderRepository;
+    private final ShardRouter shardRouter;
+    private final TransactionTemplate readOnlyTransaction;
+    private final MeterRegistry meterRegistry;
 
+    public OrderQueryService(OrderRepository orderRepository,
+                             ArchivedOrderRepository archivedOrderRepository,
+                             ShardRouter shardRouter,
+                             PlatformTransactionManager transactionManager,
+                             MeterRegistry meterRegistry) {
+        this.orderRepository = orderRepository;
+        this.archivedOrderRepository = archivedOrderRepository;
+        this.shardRouter = shardRouter;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.meterRegistry = meterRegistry;
+    }
+
+    // Заказ ищется сначала в горячей таблице, затем в архиве; orders.lookup показывает долю обращений к архиву
+    @Cacheable(cacheNames = CacheNames.ORDERS, key = "#id")
     public Order getOrder(Long id) {
-        return orderRepository.findByIdOrThrow(id);
+        Optional<Order> hot = shardRouter.find(id, () -> orderRepository.findByIdAndUserDeletedAtIsNull(id))
+                .map(ShardRouter.Located::value);
+        if (hot.isPresent()) {
+            countLookup("hot");
+            return hot.get();
+        }
+        Optional<Order> archived = shardRouter.find(id, () -> archivedOrderRepository.findByIdAndUserDeletedAtIsNull(id))
+                .map(located -> located.value().toOrder());
+        if (archived.isPresent()) {
+            countLookup("archive");
+            return archived.get();
+        }
+        countLookup("miss");
+        throw new EntityNotFoundException("Order not found with id " + id);
     }
 
     public List<Order> getAllOrders() {
-        return orderRepository.findAll();
+        return shardRouter.gather(orderRepository::findAllByUserDeletedAtIsNull, BY_ID);
+    }
+
+    public List<Order> getOrders(int page, int size) {
+        return shardRouter.gatherPage(orderRepository::findAllByUserDeletedAtIsNullOrderById, BY_ID, page, size);
+    }
+
+    // Разреженные выборки читают только запрошенные колонки и минуют кэш сущностей: кэшируется полный заказ,
+    // а проекция дешевле похода за ним
+    public Tuple getOrderFields(Long id, Set<OrderField> fields) {
+        return shardRouter.find(id, () -> orderRepository.findOrderFieldsById(id, fields))
+                .or(() -> shardRouter.find(id, () -> orderRepository.findArchivedOrderFieldsById(id, fields)))
+                .map(ShardRouter.Located::value)
+                .orElseThrow(() -> new EntityNotFoundException("Order not found with id " + id));
+    }
+
+    public List<Tuple> getAllOrderFields(Set<OrderField> fields) {
+        return shardRouter.gather(() -> orderRepository.findOrderFields(fields, Pageable.unpaged()), TUPLE_BY_ID);
+    }
+
+    public List<Tuple> getOrderFields(int page, int size, Set<OrderField> fields) {
+        return shardRouter.gatherPage(window -> orderRepository.findOrderFields(fields, window), TUPLE_BY_ID, page, size);
+    }
+
+    // Страница заказов и счётчики по дням читаются на каждом шарде в одной транзакции,
+    // чтобы сумма счётчиков совпадала со списком; затем страницы и счётчики шардов сливаются
+    public DeliverySchedule getDeliverySchedule(LocalDate from, LocalDate to, int page, int size) {
+        if (from == null || to == null || from.isAfter(to)) {
+            throw new IllegalArgumentException("Некорректный диапазон дат: from должна быть не позже to");
+        }
+        if (ChronoUnit.DAYS.between(from, to) >= MAX_SCHEDULE_DAYS) {
+            throw new IllegalArgumentException("Диапазон дат не может превышать " + MAX_SCHEDULE_DAYS + " дней");
+        }
+        Pageable window = shardRouter.pageWindow(page, size);
+        List<DeliverySchedule> parts = shardRouter.scatter(() -> readOnlyTransaction.execute(status -> new DeliverySchedule(
+                orderRepository.findScheduledOrders(from, to, window),
+                orderRepository.countScheduledOrders(from, to))));
+        if (parts.size() == 1) {
+            return parts.get(0);
+        }
+        return new DeliverySchedule(
+                shardRouter.mergePage(parts.stream().map(DeliverySchedule::orders).toList(), BY_DELIVERY_DATE, page, size),
+                mergeCounts(parts));
+    }
+
+    private static List<DeliveryDayCount> mergeCounts(List<DeliverySchedule> parts) {
+        Map<LocalDate, Map<String, Long>> byDay = new TreeMap<>();
+        parts.forEach(part -> part.counts().forEach(count -> byDay
+                .computeIfAbsent(count.deliveryDate(), day -> new TreeMap<>())
+                .merge(count.status().name(), count.count(), Long::sum)));
+        return byDay.entrySet().stream()
+                .flatMap(day -> day.getValue().entrySet().stream()
+                        .map(status -> new DeliveryDayCount(day.getKey(), OrderStatus.valueOf(status.getKey()), status.getValue())))
+                .toList();
+    }
+
+    private void countLookup(String source) {
+        meterRegistry.counter("orders.lookup", "source", source).increment();
     }
 
 }
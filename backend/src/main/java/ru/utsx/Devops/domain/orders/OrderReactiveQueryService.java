@@ -0,0 +1,83 @@
+package ru.utsx.Devops.domain.orders;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.Comparator;
+
+import io.r2dbc.spi.Readable;
+import jakarta.persistence.EntityNotFoundException;
+import lombok.RequiredArgsConstructor;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import ru.utsx.Devops.core.sharding.ShardRouter;
+import ru.utsx.Devops.core.sharding.ShardedDatabaseClient;
+import ru.utsx.Devops.domain.users.User;
+
+// Неблокирующий read-путь поверх R2DBC, работает параллельно с OrderQueryService
+@Service
+@RequiredArgsConstructor
+public class OrderReactiveQueryService {
+
+    private static final String SELECT_ORDERS = """
+            SELECT o.id, o.user_id, o.product_name, o.delivery_date, o.status, o.total, o.created_at, o.updated_at
+            FROM orders o
+            JOIN users u ON u.id = o.user_id
+            WHERE u.deleted_at IS NULL""";
+
+    private static final String SELECT_ARCHIVED_ORDER = """
+            SELECT o.id, o.user_id, o.product_name, o.delivery_date, o.status, o.total, o.created_at, o.updated_at
+            FROM orders_archive o
+            JOIN users u ON u.id = o.user_id
+            WHERE u.deleted_at IS NULL AND o.id = :id""";
+
+    private static final Comparator<Order> BY_ID = Comparator.comparing(Order::getId);
+
+    private final ShardedDatabaseClient reactiveDatabaseClient;
+    private final ShardRouter shardRouter;
+
+    // Шарды перебираются в том же порядке, что и в ShardRouter.find
+    public Mono<Order> getOrder(Long id) {
+        return Flux.fromIterable(shardRouter.lookupOrder(id))
+                .concatMap(shard -> findOrder(reactiveDatabaseClient.shard(shard), id))
+                .next()
+                .switchIfEmpty(Mono.error(() -> new EntityNotFoundException("Order not found with id " + id)));
+    }
+
+    // Потоки шардов, упорядоченные по id, сливаются без буферизации
+    @SuppressWarnings("unchecked")
+    public Flux<Order> getAllOrders() {
+        return Flux.mergeComparing(BY_ID, reactiveDatabaseClient.shards().stream()
+                .map(client -> client.sql(SELECT_ORDERS + " ORDER BY o.id")
+                        .map(OrderReactiveQueryService::toOrder)
+                        .all())
+                .toArray(Flux[]::new));
+    }
+
+    private static Mono<Order> findOrder(DatabaseClient client, Long id) {
+        return client.sql(SELECT_ORDERS + " AND o.id = :id")
+                .bind("id", id)
+                .map(OrderReactiveQueryService::toOrder)
+                .one()
+                .switchIfEmpty(Mono.defer(() -> client.sql(SELECT_ARCHIVED_ORDER)
+                        .bind("id", id)
+                        .map(OrderReactiveQueryService::toOrder)
+                        .one()));
+    }
+
+    private static Order toOrder(Readable row) {
+        return Order.builder()
+                .id(row.get("id", Long.class))
+                .user(User.builder().id(row.get("user_id", Long.class)).build())
+                .productName(row.get("product_name", String.class))
+                .deliveryDate(row.get("delivery_date", LocalDate.class))
+                .status(OrderStatus.valueOf(row.get("status", String.class)))
+                .total(row.get("total", BigDecimal.class))
+                .createdAt(row.get("created_at", Instant.class))
+                .updatedAt(row.get("updated_at", Instant.class))
+                .build();
+    }
+
+}
@@ -1,13 +1,57 @@
 package ru.utsx.Devops.domain.orders;
 
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
 import jakarta.persistence.EntityNotFoundException;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
 
-public interface OrderRepository extends JpaRepository<Order, Long> {
+public interface OrderRepository extends JpaRepository<Order, Long>, OrderFieldsRepository {
 
     default Order findByIdOrThrow(Long id) {
-        return findById(id).orElseThrow(() -> new EntityNotFoundException("Order not found with id " + id));
+        return findByIdAndUserDeletedAtIsNull(id).orElseThrow(() -> new EntityNotFoundException("Order not found with id " + id));
     }
 
+    Optional<Order> findByIdAndUserDeletedAtIsNull(Long id);
+
+    List<Order> findAllByUserDeletedAtIsNull();
+
+    List<Order> findAllByUserDeletedAtIsNullOrderById(Pageable pageable);
+
+    @Query("select new ru.utsx.Devops.domain.orders.ScheduledOrder(o.id, o.user.id, o.productName, o.deliveryDate, o.status, o.total) "
+            + "from Order o join o.user u "
+            + "where o.deliveryDate between :from and :to and u.deletedAt is null "
+            + "order by o.deliveryDate, o.id")
+    List<ScheduledOrder> findScheduledOrders(@Param("from") LocalDate from, @Param("to") LocalDate to, Pageable pageable);
+
+    // idx_orders_delivery_date_status отдаёт диапазон дат уже сгруппированным по дню и статусу, но heap всё равно
+    // читается: join с users для фильтра удалённых идёт по user_id, которого в индексе нет
+    @Query("select new ru.utsx.Devops.domain.orders.DeliveryDayCount(o.deliveryDate, o.status, count(o)) "
+            + "from Order o join o.user u "
+            + "where o.deliveryDate between :from and :to and u.deletedAt is null "
+            + "group by o.deliveryDate, o.status "
+            + "order by o.deliveryDate, o.status")
+    List<DeliveryDayCount> countScheduledOrders(@Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    @Query("select o.user.id from Order o where o.id = :id")
+    Optional<Long> findUserIdById(@Param("id") Long id);
+
+    @Query(value = "SELECT count(*) FROM orders o JOIN users u ON u.id = o.user_id WHERE u.deleted_at IS NOT NULL",
+            nativeQuery = true)
+    long countOrdersOfDeletedUsers();
+
+    // SKIP LOCKED позволяет нескольким репликам чистить заказы одного пользователя без ожидания блокировок
+    @Transactional
+    @Modifying
+    @Query(value = "DELETE FROM orders WHERE id IN "
+            + "(SELECT id FROM orders WHERE user_id = :userId LIMIT :limit FOR UPDATE SKIP LOCKED)", nativeQuery = true)
+    int deleteChunkByUserId(@Param("userId") Long userId, @Param("limit") int limit);
+
 }
@@ -0,0 +1,13 @@
+package ru.utsx.Devops.domain.orders;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+// Проекция для графика доставки: без загрузки User и его заказов
+public record ScheduledOrder(Long id,
+                             Long userId,
+                             String productName,
+                             LocalDate deliveryDate,
+                             OrderStatus status,
+                             BigDecimal total) {
+}
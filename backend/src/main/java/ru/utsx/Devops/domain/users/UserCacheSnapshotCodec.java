@@ -0,0 +1,152 @@
+package ru.utsx.Devops.domain.users;
+
+import java.nio.ByteBuffer;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Component;
+import ru.utsx.Devops.core.cache.CacheNames;
+import ru.utsx.Devops.core.cache.CacheSnapshotCodec;
+import ru.utsx.Devops.core.sharding.ShardRouter;
+import ru.utsx.Devops.domain.orders.Order;
+import ru.utsx.Devops.domain.orders.OrderStatus;
+
+import static ru.utsx.Devops.core.cache.CacheSnapshotCodec.getDate;
+import static ru.utsx.Devops.core.cache.CacheSnapshotCodec.getDecimal;
+import static ru.utsx.Devops.core.cache.CacheSnapshotCodec.getInstant;
+import static ru.utsx.Devops.core.cache.CacheSnapshotCodec.getString;
+import static ru.utsx.Devops.core.cache.CacheSnapshotCodec.putDate;
+import static ru.utsx.Devops.core.cache.CacheSnapshotCodec.putDecimal;
+import static ru.utsx.Devops.core.cache.CacheSnapshotCodec.putInstant;
+import static ru.utsx.Devops.core.cache.CacheSnapshotCodec.putString;
+
+// Пользователь в снимке кэша хранится вместе со своими заказами. Он актуален, если не удалён, совпадает его
+// updated_at, а у заказов - число, наибольший updated_at и XOR id: изменение заказа сдвигает updated_at,
+// добавление, удаление и перенос в архив меняют число.
+@Component
+public class UserCacheSnapshotCodec implements CacheSnapshotCodec<User> {
+
+    private static final String VERSIONS = """
+            SELECT u.id, u.updated_at, count(o.id) AS orders, max(o.updated_at) AS orders_updated_at,
+                   coalesce(bit_xor(o.id), 0) AS order_ids
+            FROM users u
+            LEFT JOIN orders o ON o.user_id = u.id
+            WHERE u.id IN (:ids) AND u.deleted_at IS NULL
+            GROUP BY u.id, u.updated_at""";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final ShardRouter shardRouter;
+
+    public UserCacheSnapshotCodec(NamedParameterJdbcTemplate jdbcTemplate, ShardRouter shardRouter) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.shardRouter = shardRouter;
+    }
+
+    @Override
+    public String cacheName() {
+        return CacheNames.USERS;
+    }
+
+    @Override
+    public Class<User> type() {
+        return User.class;
+    }
+
+    @Override
+    public long key(User user) {
+        return user.getId();
+    }
+
+    @Override
+    public void write(User user, ByteBuffer out) {
+        out.putLong(user.getId());
+        putString(out, user.getUsername());
+        putString(out, user.getEmail());
+        putInstant(out, user.getCreatedAt());
+        putInstant(out, user.getUpdatedAt());
+        putInstant(out, user.getDeletedAt());
+        List<Order> orders = user.getOrders() == null ? List.of() : user.getOrders();
+        out.putInt(orders.size());
+        for (Order order : orders) {
+            out.putLong(order.getId());
+            putString(out, order.getProductName());
+            putDate(out, order.getDeliveryDate());
+            putString(out, order.getStatus() == null ? null : order.getStatus().name());
+            putDecimal(out, order.getTotal());
+            putInstant(out, order.getCreatedAt());
+            putInstant(out, order.getUpdatedAt());
+        }
+    }
+
+    @Override
+    public User read(ByteBuffer in) {
+        User user = User.builder()
+                .id(in.getLong())
+                .username(getString(in))
+                .email(getString(in))
+                .createdAt(getInstant(in))
+                .updatedAt(getInstant(in))
+                .deletedAt(getInstant(in))
+                .build();
+        int count = in.getInt();
+        List<Order> orders = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            orders.add(Order.builder()
+                    .id(in.getLong())
+                    .productName(getString(in))
+                    .deliveryDate(getDate(in))
+                    .status(status(getString(in)))
+                    .total(getDecimal(in))
+                    .createdAt(getInstant(in))
+                    .updatedAt(getInstant(in))
+                    .user(user)
+                    .build());
+        }
+        user.setOrders(orders);
+        return user;
+    }
+
+    @Override
+    public Set<Long> current(Map<Long, User> users) {
+        Map<String, Object> params = Map.of("ids", users.keySet());
+        Set<Long> current = new HashSet<>();
+        for (List<Long> ids : shardRouter.scatter(() -> jdbcTemplate.query(VERSIONS, params, (rs, rowNum) -> {
+            User user = users.get(rs.getLong("id"));
+            List<Order> orders = user.getOrders();
+            Instant ordersUpdatedAt = orders.stream()
+                    .map(Order::getUpdatedAt)
+                    .filter(Objects::nonNull)
+                    .max(Comparator.naturalOrder())
+                    .orElse(null);
+            long orderIds = orders.stream().mapToLong(Order::getId).reduce(0, (a, b) -> a ^ b);
+            boolean same = Objects.equals(user.getUpdatedAt(), instant(rs, "updated_at"))
+                    && orders.size() == rs.getLong("orders")
+                    && Objects.equals(ordersUpdatedAt, instant(rs, "orders_updated_at"))
+                    && orderIds == rs.getLong("order_ids");
+            return same ? user.getId() : null;
+        }))) {
+            ids.stream().filter(Objects::nonNull).forEach(current::add);
+        }
+        return current;
+    }
+
+    private static OrderStatus status(String name) {
+        return name == null ? null : OrderStatus.valueOf(name);
+    }
+
+    private static Instant instant(ResultSet rs, String column) throws SQLException {
+        OffsetDateTime value = rs.getObject(column, OffsetDateTime.class);
+        return value == null ? null : value.toInstant();
+    }
+
+}
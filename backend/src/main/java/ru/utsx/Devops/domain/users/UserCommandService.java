@@ -1,18 +1,29 @@
 package ru.utsx.Devops.domain.users;
 
+import java.time.Instant;
 import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
 
 import jakarta.persistence.EntityNotFoundException;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 import ru.utsx.Devops.api.model.user.CreateUserDto;
 import ru.utsx.Devops.api.model.user.UpdateUserDto;
+import ru.utsx.Devops.core.cache.CacheInvalidationPublisher;
+import ru.utsx.Devops.core.cache.CacheNames;
+import ru.utsx.Devops.core.sharding.ShardRouter;
 
 @Service
 @RequiredArgsConstructor
 public class UserCommandService {
 
     private final UserRepository userRepository;
+    private final CacheInvalidationPublisher cacheInvalidationPublisher;
+    private final ShardRouter shardRouter;
+    private final TransactionTemplate transactionTemplate;
+    private final UsernameFilter usernameFilter;
 
     public Long createUser(CreateUserDto createUserDto) {
         User user = User.builder()
@@ -20,18 +31,61 @@ public class UserCommandService {
                 .email(createUserDto.getEmail())
                 .orders(List.of())
                 .build();
-        return userRepository.save(user).getId();
+        checkUsernameAvailable(user.getUsername());
+        Long id = shardRouter.onShard(shardRouter.homeShard(user.getUsername()), () -> userRepository.save(user)).getId();
+        usernameFilter.addAndPublish(List.of(user.getUsername()));
+        return id;
     }
 
+    // Пользователь только помечается удалённым, заказы и сама запись удаляются порциями в UserPurgeWorker
     public void deleteUser(Long id) {
-        userRepository.deleteById(id);
+        Instant deletedAt = Instant.now();
+        shardRouter.find(id, () -> userRepository.markDeleted(id, deletedAt) > 0 ? Optional.of(id) : Optional.empty());
+        cacheInvalidationPublisher.evict(CacheNames.USERS, id);
+        // Заказы удалённого пользователя больше не должны читаться, а их id здесь неизвестны
+        cacheInvalidationPublisher.evictAll(CacheNames.ORDERS);
     }
 
+    // Чтение и изменение в одной транзакции шарда: если пользователя в этот момент переносит ShardRebalancer,
+    // UPDATE дождётся переноса и не найдёт строку вместо того, чтобы вставить её заново
     public void updateUser(Long id, UpdateUserDto updateUserDto) {
-        User user = userRepository.findByIdOrThrow(id);
-        user.setUsername(updateUserDto.getUsername() == null ? user.getUsername() : updateUserDto.getUsername());
-        user.setEmail(updateUserDto.getEmail() == null ? user.getEmail() : updateUserDto.getEmail());
-        userRepository.save(user);
+        shardRouter.find(id, () -> transactionTemplate.execute(status -> userRepository.findByIdAndDeletedAtIsNull(id)
+                        .map(user -> {
+                            if (updateUserDto.getUsername() != null
+                                    && !Objects.equals(updateUserDto.getUsername(), user.getUsername())) {
+                                checkUsernameAvailable(updateUserDto.getUsername());
+                            }
+                            user.setUsername(updateUserDto.getUsername() == null ? user.getUsername() : updateUserDto.getUsername());
+                            user.setEmail(updateUserDto.getEmail() == null ? user.getEmail() : updateUserDto.getEmail());
+                            return user;
+                        })))
+                .orElseThrow(() -> new EntityNotFoundException("User not found with id " + id));
+        if (updateUserDto.getUsername() != null) {
+            usernameFilter.addAndPublish(List.of(updateUserDto.getUsername()));
+        }
+        cacheInvalidationPublisher.evict(CacheNames.USERS, id);
+    }
+
+    // Имя, которого нет в фильтре, свободно: с одним шардом оно сразу вставляется. Имя, которое другой под занял
+    // только что и уведомление о котором ещё не дошло, отсечёт уникальный индекс - UserController отвечает на это
+    // тем же 400, что и на проверку здесь. Попадание в фильтр проверяется запросом, чтобы
+    // отклонить занятое имя до INSERT. Уникальный индекс действует в пределах шарда, а пользователь, перенесённый
+    // ребалансировкой, живёт не на шарде своего имени, поэтому с несколькими шардами имя проверяется на всех.
+    private void checkUsernameAvailable(String username) {
+        if (username == null) {
+            return;
+        }
+        boolean mightExist = usernameFilter.mightContain(username);
+        if (!mightExist && shardRouter.shardCount() == 1) {
+            return;
+        }
+        boolean taken = shardRouter.scatter(() -> userRepository.existsByUsername(username)).contains(true);
+        if (mightExist && !taken) {
+            usernameFilter.recordFalsePositive();
+        }
+        if (taken) {
+            throw new IllegalArgumentException("Имя пользователя " + username + " уже занято");
+        }
     }
 
 }
@@ -0,0 +1,44 @@
+package ru.utsx.Devops.domain.users;
+
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+// Поля пользователя для разреженных ответов (fields=). Заказы пользователя - коллекция, а не колонка,
+// поэтому в разреженном ответе недоступны
+@Getter
+@RequiredArgsConstructor
+public enum UserField {
+    ID("id"),
+    USERNAME("username"),
+    EMAIL("email"),
+    CREATED_AT("createdAt"),
+    UPDATED_AT("updatedAt");
+
+    private final String fieldName;
+
+    public static Set<UserField> parse(String fields) {
+        EnumSet<UserField> selected = EnumSet.noneOf(UserField.class);
+        for (String name : fields.split(",")) {
+            String trimmed = name.trim();
+            if (!trimmed.isEmpty()) {
+                selected.add(Arrays.stream(values())
+                        .filter(field -> field.fieldName.equals(trimmed))
+                        .findFirst()
+                        .orElseThrow(() -> new IllegalArgumentException("Неизвестное поле пользователя " + trimmed
+                                + ", допустимые поля: " + Arrays.stream(values())
+                                .map(UserField::getFieldName)
+                                .collect(Collectors.joining(", ")))));
+            }
+        }
+        if (selected.isEmpty()) {
+            throw new IllegalArgumentException("Параметр fields не может быть пустым");
+        }
+        return selected;
+    }
+
+}
@@ -0,0 +1,18 @@
+package ru.utsx.Devops.domain.users;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import jakarta.persistence.Tuple;
+import org.springframework.data.domain.Pageable;
+
+// Выборка только запрошенных колонок пользователей без загрузки сущностей и их заказов;
+// элементы Tuple называются по UserField.name(), id выбирается всегда
+public interface UserFieldsRepository {
+
+    List<Tuple> findUserFields(Set<UserField> fields, Pageable pageable);
+
+    Optional<Tuple> findUserFieldsById(Long id, Set<UserField> fields);
+
+}
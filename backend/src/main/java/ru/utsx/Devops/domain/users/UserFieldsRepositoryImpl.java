@@ -0,0 +1,59 @@
+package ru.utsx.Devops.domain.users;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Pageable;
+
+@RequiredArgsConstructor
+class UserFieldsRepositoryImpl implements UserFieldsRepository {
+
+    private final EntityManager entityManager;
+
+    @Override
+    public List<Tuple> findUserFields(Set<UserField> fields, Pageable pageable) {
+        return select(fields, null, pageable);
+    }
+
+    @Override
+    public Optional<Tuple> findUserFieldsById(Long id, Set<UserField> fields) {
+        return select(fields, id, Pageable.unpaged()).stream().findFirst();
+    }
+
+    private List<Tuple> select(Set<UserField> fields, Long id, Pageable pageable) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<User> user = query.from(User.class);
+
+        List<Selection<?>> selections = new ArrayList<>();
+        selections.add(user.get("id").alias(UserField.ID.name()));
+        for (UserField field : fields) {
+            if (field != UserField.ID) {
+                selections.add(user.get(field.getFieldName()).alias(field.name()));
+            }
+        }
+        Predicate active = cb.isNull(user.get("deletedAt"));
+        query.multiselect(selections)
+                .where(id == null ? active : cb.and(active, cb.equal(user.get("id"), id)))
+                .orderBy(cb.asc(user.get("id")));
+
+        TypedQuery<Tuple> typed = entityManager.createQuery(query);
+        if (pageable.isPaged()) {
+            typed.setFirstResult((int) pageable.getOffset());
+            typed.setMaxResults(pageable.getPageSize());
+        }
+        return typed.getResultList();
+    }
+
+}
@@ -0,0 +1,348 @@
+package ru.utsx.Devops.domain.users;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import javax.sql.DataSource;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvParser;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+import org.postgresql.copy.CopyManager;
+import org.postgresql.copy.PGCopyOutputStream;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.utsx.Devops.api.model.user.CreateUserDto;
+import ru.utsx.Devops.api.model.user.UserImportConflictDto;
+import ru.utsx.Devops.api.model.user.UserImportResultDto;
+import ru.utsx.Devops.core.sharding.ShardAwareIdGenerator;
+import ru.utsx.Devops.core.sharding.ShardRouter;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+// Массовый импорт пользователей: COPY во временную staging-таблицу, затем один INSERT ... SELECT в users
+@Service
+@RequiredArgsConstructor
+public class UserImportService {
+
+    // Совпадает с блоком ShardAwareIdGenerator: каждый nextval резервирует ids (value - 999 .. value]
+    static final int USERS_SEQ_BLOCK = ShardAwareIdGenerator.BLOCK_SIZE;
+    private static final int MAX_REPORTED_CONFLICTS = 1000;
+    private static final int TAKEN_CHECK_CHUNK = 1000;
+    private static final int FILTER_PUBLISH_CHUNK = 1000;
+
+    private static final String CREATE_STAGING = """
+            CREATE TEMP TABLE users_import_staging (
+                row_no BIGSERIAL,
+                username VARCHAR(255),
+                email VARCHAR(255),
+                taken BOOLEAN NOT NULL DEFAULT false
+            ) ON COMMIT DROP""";
+
+    private static final String COPY_STAGING = "COPY users_import_staging (username, email) FROM STDIN WITH (FORMAT csv%s)";
+
+    private static final String REJECT_CONFLICTS = """
+            DELETE FROM users_import_staging s
+            WHERE s.username IS NULL OR s.email IS NULL OR s.taken
+               OR EXISTS (SELECT 1 FROM users u WHERE u.username = s.username)
+               OR EXISTS (SELECT 1 FROM users_import_staging d WHERE d.username = s.username AND d.row_no < s.row_no)
+            RETURNING s.row_no, s.username,
+                CASE WHEN s.username IS NULL OR s.email IS NULL THEN 'MISSING_FIELD'
+                     WHEN s.taken OR EXISTS (SELECT 1 FROM users u WHERE u.username = s.username) THEN 'USERNAME_TAKEN'
+                     ELSE 'DUPLICATE_IN_FILE' END AS reason""";
+
+    private static final String MERGE = """
+            INSERT INTO users (id, username, email, created_at, updated_at)
+            SELECT ids.id, s.username, s.email, now(), now()
+            FROM (SELECT username, email, row_number() OVER (ORDER BY row_no) AS rn FROM users_import_staging) s
+            JOIN (SELECT b.hi - %1$d + 1 + g.n AS id, row_number() OVER (ORDER BY b.hi, g.n) AS rn
+                  FROM (SELECT nextval('users_seq') AS hi FROM generate_series(1, ?)) b
+                  CROSS JOIN generate_series(0, %1$d - 1) AS g(n)) ids ON ids.rn = s.rn
+            ON CONFLICT (username) DO NOTHING
+            RETURNING username""".formatted(USERS_SEQ_BLOCK);
+
+    private static final String COPY_NUMBERED_STAGING = "COPY users_import_staging (row_no, username, email, taken) FROM STDIN WITH (FORMAT csv)";
+
+    private static final String TAKEN_USERNAMES = "SELECT username FROM users WHERE username = ANY(?)";
+
+    private static final CsvMapper CSV_MAPPER = CsvMapper.builder()
+            .enable(CsvParser.Feature.EMPTY_STRING_AS_NULL)
+            .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+            .build();
+
+    private final DataSource dataSource;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ShardRouter shardRouter;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+    private final UsernameFilter usernameFilter;
+
+    // CSV с заголовком username,email
+    public UserImportResultDto importCsv(InputStream csv) {
+        if (shardRouter.shardCount() == 1) {
+            return importOnShard(0, "Некорректный CSV для импорта: ",
+                    () -> copyManager().copyIn(COPY_STAGING.formatted(", HEADER true"), csv));
+        }
+        try (MappingIterator<Map<String, String>> rows = CSV_MAPPER.readerForMapOf(String.class)
+                .with(CsvSchema.emptySchema().withHeader())
+                .readValues(csv)) {
+            return importSharded(StreamSupport.stream(Spliterators.spliteratorUnknownSize(rows, Spliterator.ORDERED), false)
+                    .map(row -> CreateUserDto.builder()
+                            .username(row.get("username"))
+                            .email(row.get("email"))
+                            .build()));
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Некорректный CSV для импорта: " + e.getOriginalMessage(), e);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // NDJSON: по одному CreateUserDto в строке, перекодируется в CSV на лету
+    public UserImportResultDto importNdjson(InputStream ndjson) {
+        if (shardRouter.shardCount() > 1) {
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(ndjson, UTF_8))) {
+                return importSharded(reader.lines()
+                        .filter(line -> !line.isBlank())
+                        .map(this::readNdjsonLine));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        return importOnShard(0, "Некорректные данные для импорта: ", () -> {
+            CopyIn copyIn = copyManager().copyIn(COPY_STAGING.formatted(""));
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(ndjson, UTF_8));
+                 Writer writer = new BufferedWriter(new OutputStreamWriter(new PGCopyOutputStream(copyIn), UTF_8))) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    if (line.isBlank()) {
+                        continue;
+                    }
+                    CreateUserDto user = readNdjsonLine(line);
+                    writer.write(csvField(user.getUsername()));
+                    writer.write(',');
+                    writer.write(csvField(user.getEmail()));
+                    writer.write('\n');
+                }
+            } finally {
+                if (copyIn.isActive()) {
+                    copyIn.cancelCopy();
+                }
+            }
+            return copyIn.getHandledRowCount();
+        });
+    }
+
+    // С несколькими шардами строки раскладываются по временным файлам шардов (по хэшу username, как в
+    // UserCommandService) с исходными номерами строк, затем каждый файл импортируется на своём шарде
+    // в отдельной транзакции. Импорт не атомарен между шардами: при ошибке на шарде предыдущие уже закоммичены.
+    // Уникальный индекс действует в пределах шарда, а пользователь, перенесённый ребалансировкой, живёт не на шарде
+    // своего имени, поэтому имена заранее проверяются порциями на всех шардах и занятые помечаются в файле.
+    private UserImportResultDto importSharded(Stream<CreateUserDto> users) throws IOException {
+        int shards = shardRouter.shardCount();
+        List<Path> files = new ArrayList<>(shards);
+        List<Writer> writers = new ArrayList<>(shards);
+        try {
+            for (int shard = 0; shard < shards; shard++) {
+                Path file = Files.createTempFile("users-import-shard-" + shard + "-", ".csv");
+                files.add(file);
+                writers.add(Files.newBufferedWriter(file, UTF_8));
+            }
+            long rowNo = 0;
+            List<CreateUserDto> chunk = new ArrayList<>(TAKEN_CHECK_CHUNK);
+            for (Iterator<CreateUserDto> it = users.iterator(); it.hasNext(); ) {
+                chunk.add(it.next());
+                if (chunk.size() == TAKEN_CHECK_CHUNK) {
+                    rowNo = writeChunk(chunk, rowNo, writers);
+                    chunk.clear();
+                }
+            }
+            writeChunk(chunk, rowNo, writers);
+            for (Writer writer : writers) {
+                writer.close();
+            }
+
+            List<UserImportResultDto> results = new ArrayList<>(shards);
+            for (int shard = 0; shard < shards; shard++) {
+                Path file = files.get(shard);
+                results.add(importOnShard(shard, "Некорректные данные для импорта: ", () -> {
+                    try (InputStream in = Files.newInputStream(file)) {
+                        return copyManager().copyIn(COPY_NUMBERED_STAGING, in);
+                    }
+                }));
+            }
+            return UserImportResultDto.builder()
+                    .received(results.stream().mapToLong(UserImportResultDto::getReceived).sum())
+                    .imported(results.stream().mapToLong(UserImportResultDto::getImported).sum())
+                    .conflictCount(results.stream().mapToLong(UserImportResultDto::getConflictCount).sum())
+                    .conflicts(results.stream()
+                            .flatMap(result -> result.getConflicts().stream())
+                            .sorted(Comparator.comparingLong(UserImportConflictDto::getRow))
+                            .limit(MAX_REPORTED_CONFLICTS)
+                            .toList())
+                    .build();
+        } finally {
+            for (Writer writer : writers) {
+                writer.close();
+            }
+            for (Path file : files) {
+                Files.deleteIfExists(file);
+            }
+        }
+    }
+
+    private long writeChunk(List<CreateUserDto> chunk, long rowNo, List<Writer> writers) throws IOException {
+        String[] usernames = chunk.stream()
+                .map(CreateUserDto::getUsername)
+                .filter(Objects::nonNull)
+                .distinct()
+                .toArray(String[]::new);
+        Set<String> taken = new HashSet<>();
+        if (usernames.length > 0) {
+            shardRouter.scatter(() -> jdbcTemplate.queryForList(TAKEN_USERNAMES, String.class, (Object) usernames))
+                    .forEach(taken::addAll);
+        }
+        for (CreateUserDto user : chunk) {
+            Writer writer = writers.get(shardRouter.homeShard(user.getUsername()));
+            writer.write(Long.toString(++rowNo));
+            writer.write(',');
+            writer.write(csvField(user.getUsername()));
+            writer.write(',');
+            writer.write(csvField(user.getEmail()));
+            writer.write(',');
+            writer.write(Boolean.toString(taken.contains(user.getUsername())));
+            writer.write('\n');
+        }
+        return rowNo;
+    }
+
+    private CreateUserDto readNdjsonLine(String line) {
+        CreateUserDto user;
+        try {
+            user = objectMapper.readValue(line, CreateUserDto.class);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Некорректная строка NDJSON: " + e.getOriginalMessage(), e);
+        }
+        // Литерал null разбирается без ошибки, но пользователя в нём нет
+        if (user == null) {
+            throw new IllegalArgumentException("Некорректная строка NDJSON: ожидался объект, получено " + line.strip());
+        }
+        return user;
+    }
+
+    private UserImportResultDto importOnShard(int shard, String invalidDataMessage, StagingCopy copy) {
+        return shardRouter.onShard(shard, () -> transactionTemplate.execute(status -> {
+            createStagingTable();
+            try {
+                return merge(copy.copy());
+            } catch (SQLException e) {
+                throw new IllegalArgumentException(invalidDataMessage + e.getMessage(), e);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }));
+    }
+
+    private void createStagingTable() {
+        jdbcTemplate.execute(CREATE_STAGING);
+    }
+
+    private CopyManager copyManager() throws SQLException {
+        Connection connection = DataSourceUtils.getConnection(dataSource);
+        return connection.unwrap(PGConnection.class).getCopyAPI();
+    }
+
+    private UserImportResultDto merge(long received) {
+        jdbcTemplate.execute("CREATE INDEX ON users_import_staging (username, row_no)");
+        jdbcTemplate.execute("ANALYZE users_import_staging");
+
+        List<UserImportConflictDto> conflicts = new ArrayList<>();
+        AtomicLong conflictCount = new AtomicLong();
+        jdbcTemplate.query(REJECT_CONFLICTS, rs -> {
+            if (conflictCount.incrementAndGet() <= MAX_REPORTED_CONFLICTS) {
+                conflicts.add(UserImportConflictDto.builder()
+                        .row(rs.getLong("row_no"))
+                        .username(rs.getString("username"))
+                        .reason(UserImportConflictDto.Reason.valueOf(rs.getString("reason")))
+                        .build());
+            }
+        });
+
+        long candidates = received - conflictCount.get();
+        long blocks = (candidates + USERS_SEQ_BLOCK - 1) / USERS_SEQ_BLOCK;
+        AtomicLong imported = new AtomicLong();
+        if (blocks > 0) {
+            // Имена попадают в локальный фильтр до коммита: при откате импорта они только дадут лишние попадания
+            // до перестройки. Остальным подам они рассылаются порциями после коммита
+            List<String> added = new ArrayList<>(FILTER_PUBLISH_CHUNK);
+            jdbcTemplate.query(MERGE, rs -> {
+                added.add(rs.getString("username"));
+                if (added.size() == FILTER_PUBLISH_CHUNK) {
+                    usernameFilter.addAndPublish(added);
+                    added.clear();
+                }
+                imported.incrementAndGet();
+            }, blocks);
+            usernameFilter.addAndPublish(added);
+        }
+        // Имена, занятые параллельными вставками между проверкой и INSERT, пропускаются ON CONFLICT
+        conflictCount.addAndGet(candidates - imported.get());
+
+        meterRegistry.counter("users.import.rows", "result", "imported").increment(imported.get());
+        meterRegistry.counter("users.import.rows", "result", "conflict").increment(conflictCount.get());
+
+        return UserImportResultDto.builder()
+                .received(received)
+                .imported(imported.get())
+                .conflictCount(conflictCount.get())
+                .conflicts(conflicts)
+                .build();
+    }
+
+    @FunctionalInterface
+    private interface StagingCopy {
+        long copy() throws SQLException, IOException;
+    }
+
+    private static String csvField(String value) {
+        if (value == null) {
+            return "";
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+}
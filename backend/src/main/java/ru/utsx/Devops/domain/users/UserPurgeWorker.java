@@ -0,0 +1,109 @@
+package ru.utsx.Devops.domain.users;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.utsx.Devops.core.sharding.ShardRouter;
+import ru.utsx.Devops.domain.orders.ArchivedOrderRepository;
+import ru.utsx.Devops.domain.orders.OrderRepository;
+
+// Фоновая очистка пользователей, помеченных удалёнными: заказы удаляются порциями, каждая в своей транзакции.
+// Состояние хранится в users.deleted_at, поэтому после рестарта очистка продолжается с того же места.
+@Slf4j
+@Component
+public class UserPurgeWorker {
+
+    private final UserRepository userRepository;
+    private final OrderRepository orderRepository;
+    private final ArchivedOrderRepository archivedOrderRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ShardRouter shardRouter;
+    private final int chunkSize;
+    private final int maxChunksPerRun;
+
+    private final AtomicLong backlogUsers = new AtomicLong();
+    private final AtomicLong backlogOrders = new AtomicLong();
+    private final Counter purgedOrders;
+    private final Counter purgedUsers;
+    private final Timer chunkTimer;
+
+    public UserPurgeWorker(UserRepository userRepository,
+                           OrderRepository orderRepository,
+                           ArchivedOrderRepository archivedOrderRepository,
+                           TransactionTemplate transactionTemplate,
+                           ShardRouter shardRouter,
+                           MeterRegistry meterRegistry,
+                           @Value("${users.purge.chunk-size:1000}") int chunkSize,
+                           @Value("${users.purge.max-chunks-per-run:50}") int maxChunksPerRun) {
+        this.userRepository = userRepository;
+        this.orderRepository = orderRepository;
+        this.archivedOrderRepository = archivedOrderRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.shardRouter = shardRouter;
+        this.chunkSize = chunkSize;
+        this.maxChunksPerRun = maxChunksPerRun;
+
+        Gauge.builder("users.purge.backlog.users", backlogUsers, AtomicLong::get)
+                .description("Users marked as deleted and not purged yet")
+                .register(meterRegistry);
+        Gauge.builder("users.purge.backlog.orders", backlogOrders, AtomicLong::get)
+                .description("Orders of deleted users waiting to be purged")
+                .register(meterRegistry);
+        this.purgedOrders = Counter.builder("users.purge.orders.deleted").register(meterRegistry);
+        this.purgedUsers = Counter.builder("users.purge.users.deleted").register(meterRegistry);
+        this.chunkTimer = Timer.builder("users.purge.chunk").register(meterRegistry);
+    }
+
+    // Шарды очищаются по очереди, лимит порций действует на каждый шард; backlog - сумма по всем шардам
+    @Scheduled(fixedDelayString = "${users.purge.interval:PT5S}")
+    public void purge() {
+        long[] backlog = new long[2];
+        shardRouter.forEachShard(shard -> {
+            int chunksLeft = maxChunksPerRun;
+            List<Long> userIds = userRepository.findDeletedUserIds(PageRequest.of(0, maxChunksPerRun));
+            for (Long userId : userIds) {
+                if (chunksLeft <= 0) {
+                    break;
+                }
+                chunksLeft = purgeUser(userId, chunksLeft);
+            }
+            backlog[0] += userRepository.countByDeletedAtIsNotNull();
+            backlog[1] += orderRepository.countOrdersOfDeletedUsers();
+        });
+        backlogUsers.set(backlog[0]);
+        backlogOrders.set(backlog[1]);
+    }
+
+    // Порция удаляет до chunkSize строк и из orders, и из orders_archive
+    private int purgeUser(Long userId, int chunksLeft) {
+        int[] deleted;
+        boolean hasMore;
+        do {
+            deleted = chunkTimer.record(() -> transactionTemplate.execute(status -> new int[]{
+                    orderRepository.deleteChunkByUserId(userId, chunkSize),
+                    archivedOrderRepository.deleteChunkByUserId(userId, chunkSize)}));
+            purgedOrders.increment(deleted[0] + deleted[1]);
+            hasMore = deleted[0] == chunkSize || deleted[1] == chunkSize;
+            chunksLeft--;
+        } while (hasMore && chunksLeft > 0);
+
+        if (!hasMore && userRepository.purgeIfEmpty(userId) > 0) {
+            purgedUsers.increment();
+            log.info("User {} purged", userId);
+        } else {
+            log.debug("User {} purge in progress, {} orders deleted in the last chunk", userId, deleted[0] + deleted[1]);
+        }
+        return chunksLeft;
+    }
+
+}
@@ -1,21 +1,81 @@
 package ru.utsx.Devops.domain.users;
 
+import jakarta.persistence.EntityNotFoundException;
+import jakarta.persistence.Tuple;
 import lombok.RequiredArgsConstructor;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import ru.utsx.Devops.core.cache.CacheNames;
+import ru.utsx.Devops.core.sharding.ShardRouter;
+
+import java.util.Comparator;
 import java.util.List;
+import java.util.Set;
 
 @Service
 @RequiredArgsConstructor
 public class UserQueryService {
 
+    private static final Comparator<User> BY_ID = Comparator.comparing(User::getId);
+    private static final Comparator<Tuple> TUPLE_BY_ID = Comparator.comparing(tuple -> tuple.get(UserField.ID.name(), Long.class));
+
     private final UserRepository userRepository;
+    private final ShardRouter shardRouter;
+    private final UsernameFilter usernameFilter;
 
+    @Cacheable(cacheNames = CacheNames.USERS, key = "#id")
     public User getUser(Long id) {
-        return userRepository.findByIdOrThrow(id);
+        return findUser(id).value();
+    }
+
+    // Шард, на котором живёт пользователь и куда пишутся его заказы
+    public int getUserShard(Long id) {
+        if (shardRouter.shardCount() == 1) {
+            return 0;
+        }
+        return findUser(id).shard();
+    }
+
+    // Отрицательный ответ фильтра не требует запроса в БД; имя, занятое на другом поде, может быть показано
+    // свободным, пока до этого пода не дошло уведомление о нём, окончательно имя проверяется при создании
+    public boolean isUsernameAvailable(String username) {
+        if (!usernameFilter.mightContain(username)) {
+            return true;
+        }
+        boolean taken = shardRouter.scatter(() -> userRepository.existsByUsername(username)).contains(true);
+        if (!taken) {
+            usernameFilter.recordFalsePositive();
+        }
+        return !taken;
     }
 
     public List<User> getAllUsers() {
-        return userRepository.findAll();
+        return shardRouter.gather(userRepository::findAllByDeletedAtIsNull, BY_ID);
+    }
+
+    public List<User> getUsers(int page, int size) {
+        return shardRouter.gatherPage(userRepository::findAllByDeletedAtIsNullOrderById, BY_ID, page, size);
+    }
+
+    // Разреженные выборки читают только колонки users, без заказов пользователя, и минуют кэш сущностей
+    public Tuple getUserFields(Long id, Set<UserField> fields) {
+        return shardRouter.find(id, () -> userRepository.findUserFieldsById(id, fields))
+                .map(ShardRouter.Located::value)
+                .orElseThrow(() -> new EntityNotFoundException("User not found with id " + id));
+    }
+
+    public List<Tuple> getAllUserFields(Set<UserField> fields) {
+        return shardRouter.gather(() -> userRepository.findUserFields(fields, Pageable.unpaged()), TUPLE_BY_ID);
+    }
+
+    public List<Tuple> getUserFields(int page, int size, Set<UserField> fields) {
+        return shardRouter.gatherPage(window -> userRepository.findUserFields(fields, window), TUPLE_BY_ID, page, size);
+    }
+
+    private ShardRouter.Located<User> findUser(Long id) {
+        return shardRouter.find(id, () -> userRepository.findByIdAndDeletedAtIsNull(id))
+                .orElseThrow(() -> new EntityNotFoundException("User not found with id " + id));
     }
 
 }
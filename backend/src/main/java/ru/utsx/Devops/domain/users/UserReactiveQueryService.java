@@ -0,0 +1,104 @@
+package ru.utsx.Devops.domain.users;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+
+import io.r2dbc.spi.Readable;
+import jakarta.persistence.EntityNotFoundException;
+import lombok.RequiredArgsConstructor;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import ru.utsx.Devops.core.sharding.ShardRouter;
+import ru.utsx.Devops.core.sharding.ShardedDatabaseClient;
+import ru.utsx.Devops.domain.orders.Order;
+import ru.utsx.Devops.domain.orders.OrderStatus;
+
+// Неблокирующий read-путь поверх R2DBC, работает параллельно с UserQueryService.
+// Пользователи читаются одним запросом вместе с заказами и собираются по мере поступления строк.
+@Service
+@RequiredArgsConstructor
+public class UserReactiveQueryService {
+
+    private static final String SELECT_USERS_WITH_ORDERS = """
+            SELECT u.id AS user_id, u.username, u.email, u.created_at AS user_created_at, u.updated_at AS user_updated_at,
+                   o.id AS order_id, o.product_name, o.delivery_date, o.status, o.total,
+                   o.created_at AS order_created_at, o.updated_at AS order_updated_at
+            FROM users u
+            LEFT JOIN orders o ON o.user_id = u.id
+            WHERE u.deleted_at IS NULL""";
+
+    private static final Comparator<User> BY_ID = Comparator.comparing(User::getId);
+
+    private final ShardedDatabaseClient reactiveDatabaseClient;
+    private final ShardRouter shardRouter;
+
+    public Mono<User> getUser(Long id) {
+        return Flux.fromIterable(shardRouter.lookupOrder(id))
+                .concatMap(shard -> readUsers(reactiveDatabaseClient.shard(shard)
+                        .sql(SELECT_USERS_WITH_ORDERS + " AND u.id = :id ORDER BY o.id")
+                        .bind("id", id)))
+                .next()
+                .switchIfEmpty(Mono.error(() -> new EntityNotFoundException("User not found with id " + id)));
+    }
+
+    // Пользователи собираются на каждом шарде отдельно, затем потоки сливаются по id
+    @SuppressWarnings("unchecked")
+    public Flux<User> getAllUsers() {
+        return Flux.mergeComparing(BY_ID, reactiveDatabaseClient.shards().stream()
+                .map(client -> readUsers(client.sql(SELECT_USERS_WITH_ORDERS + " ORDER BY u.id, o.id")))
+                .toArray(Flux[]::new));
+    }
+
+    private static Flux<User> readUsers(DatabaseClient.GenericExecuteSpec spec) {
+        return spec.map(row -> new UserOrderRow(toUser(row), toOrder(row)))
+                .all()
+                .bufferUntilChanged(row -> row.user().getId())
+                .map(UserReactiveQueryService::assemble);
+    }
+
+    private static User assemble(List<UserOrderRow> rows) {
+        User user = rows.get(0).user();
+        user.setOrders(rows.stream()
+                .map(UserOrderRow::order)
+                .filter(Objects::nonNull)
+                .toList());
+        return user;
+    }
+
+    private static User toUser(Readable row) {
+        return User.builder()
+                .id(row.get("user_id", Long.class))
+                .username(row.get("username", String.class))
+                .email(row.get("email", String.class))
+                .createdAt(row.get("user_created_at", Instant.class))
+                .updatedAt(row.get("user_updated_at", Instant.class))
+                .build();
+    }
+
+    private static Order toOrder(Readable row) {
+        Long orderId = row.get("order_id", Long.class);
+        if (orderId == null) {
+            return null;
+        }
+        return Order.builder()
+                .id(orderId)
+                .user(User.builder().id(row.get("user_id", Long.class)).build())
+                .productName(row.get("product_name", String.class))
+                .deliveryDate(row.get("delivery_date", LocalDate.class))
+                .status(OrderStatus.valueOf(row.get("status", String.class)))
+                .total(row.get("total", BigDecimal.class))
+                .createdAt(row.get("order_created_at", Instant.class))
+                .updatedAt(row.get("order_updated_at", Instant.class))
+                .build();
+    }
+
+    private record UserOrderRow(User user, Order order) {
+    }
+
+}
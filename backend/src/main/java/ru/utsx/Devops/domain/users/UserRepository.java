@@ -1,12 +1,46 @@
 package ru.utsx.Devops.domain.users;
 
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
 import jakarta.persistence.EntityNotFoundException;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
-public interface UserRepository extends JpaRepository<User, Long> {
+public interface UserRepository extends JpaRepository<User, Long>, UserFieldsRepository {
 
     default User findByIdOrThrow(Long id) {
-        return findById(id).orElseThrow(() -> new EntityNotFoundException("User not found with id " + id));
+        return findByIdAndDeletedAtIsNull(id).orElseThrow(() -> new EntityNotFoundException("User not found with id " + id));
     }
 
+    Optional<User> findByIdAndDeletedAtIsNull(Long id);
+
+    List<User> findAllByDeletedAtIsNull();
+
+    List<User> findAllByDeletedAtIsNullOrderById(Pageable pageable);
+
+    boolean existsByUsername(String username);
+
+    @Transactional
+    @Modifying
+    @Query("update User u set u.deletedAt = :deletedAt where u.id = :id and u.deletedAt is null")
+    int markDeleted(@Param("id") Long id, @Param("deletedAt") Instant deletedAt);
+
+    @Query("select u.id from User u where u.deletedAt is not null order by u.deletedAt")
+    List<Long> findDeletedUserIds(Pageable pageable);
+
+    long countByDeletedAtIsNotNull();
+
+    @Transactional
+    @Modifying
+    @Query(value = "DELETE FROM users WHERE id = :id AND deleted_at IS NOT NULL "
+            + "AND NOT EXISTS (SELECT 1 FROM orders WHERE user_id = :id) "
+            + "AND NOT EXISTS (SELECT 1 FROM orders_archive WHERE user_id = :id)", nativeQuery = true)
+    int purgeIfEmpty(@Param("id") Long id);
+
 }
@@ -0,0 +1,212 @@
+package ru.utsx.Devops.domain.users;
+
+import java.sql.PreparedStatement;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.time.Duration;
+import java.util.Collection;
+
+import javax.sql.DataSource;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import ru.utsx.Devops.core.cache.CacheInvalidationPublisher;
+import ru.utsx.Devops.core.cache.NotificationSubscriber;
+import ru.utsx.Devops.core.membership.BloomFilter;
+import ru.utsx.Devops.core.sharding.ShardRouter;
+
+// Фильтр Блума по всем username (включая помеченных удалёнными - имя занято до их очистки).
+// Строится потоковым чтением users со всех шардов при старте и перестраивается раз в rebuild-interval;
+// между перестройками пополняется при создании, переименовании и импорте. Новые имена рассылаются остальным
+// подам через pg_notify и попадают в их фильтры после коммита с задержкой доставки; имена, чьи уведомления
+// потерялись при переподключении слушателя, и удалённые учитываются при следующей перестройке. Пока фильтр
+// не построен, mightContain отвечает true, и проверки идут в БД как без фильтра.
+@Slf4j
+@Component
+public class UsernameFilter implements NotificationSubscriber {
+
+    static final String CHANNEL = "username_filter";
+    // Лимит PostgreSQL на payload - 8000 байт; имена в сообщении разделены переводом строки
+    private static final int MAX_PAYLOAD_BYTES = 7000;
+
+    private final ShardRouter shardRouter;
+    private final CacheInvalidationPublisher publisher;
+    private final MeterRegistry meterRegistry;
+    private final long expectedInsertions;
+    private final double fpp;
+    private final int fetchSize;
+
+    private volatile BloomFilter filter;
+    // Фильтр, который сейчас перестраивается: новые имена пишутся и в него, чтобы не потеряться при замене
+    private volatile BloomFilter building;
+
+    private final Counter absent;
+    private final Counter present;
+    private final Counter falsePositives;
+
+    public UsernameFilter(ShardRouter shardRouter,
+                          CacheInvalidationPublisher publisher,
+                          MeterRegistry meterRegistry,
+                          @Value("${app.users.username-filter.expected-insertions:1000000}") long expectedInsertions,
+                          @Value("${app.users.username-filter.fpp:0.01}") double fpp,
+                          @Value("${app.users.username-filter.fetch-size:10000}") int fetchSize) {
+        this.shardRouter = shardRouter;
+        this.publisher = publisher;
+        this.meterRegistry = meterRegistry;
+        this.expectedInsertions = expectedInsertions;
+        this.fpp = fpp;
+        this.fetchSize = fetchSize;
+
+        this.absent = lookups(meterRegistry, "absent");
+        this.present = lookups(meterRegistry, "present");
+        this.falsePositives = Counter.builder("users.username_filter.false_positives")
+                .description("Filter hits for usernames that turned out to be free")
+                .register(meterRegistry);
+        Gauge.builder("users.username_filter.expected_fpp", this, f -> f.filter == null ? 1 : f.filter.expectedFpp())
+                .description("False-positive rate expected from the current filter fill")
+                .register(meterRegistry);
+        Gauge.builder("users.username_filter.elements", this, f -> f.filter == null ? 0 : f.filter.approximateElementCount())
+                .description("Approximate number of usernames in the filter")
+                .register(meterRegistry);
+    }
+
+    public boolean mightContain(String username) {
+        BloomFilter current = filter;
+        boolean result = current == null || current.mightContain(username);
+        (result ? present : absent).increment();
+        return result;
+    }
+
+    // Имена, занятые на этом поде: в локальный фильтр сразу, остальным подам - после коммита транзакции
+    public void addAndPublish(Collection<String> usernames) {
+        StringBuilder payload = new StringBuilder();
+        int payloadBytes = 0;
+        for (String username : usernames) {
+            add(username);
+            int bytes = username.getBytes(StandardCharsets.UTF_8).length;
+            if (!payload.isEmpty() && payloadBytes + 1 + bytes > MAX_PAYLOAD_BYTES) {
+                publisher.broadcast(CHANNEL, payload.toString());
+                payload.setLength(0);
+                payloadBytes = 0;
+            }
+            if (!payload.isEmpty()) {
+                payload.append('\n');
+                payloadBytes++;
+            }
+            payload.append(username);
+            payloadBytes += bytes;
+        }
+        if (!payload.isEmpty()) {
+            publisher.broadcast(CHANNEL, payload.toString());
+        }
+    }
+
+    @Override
+    public String channel() {
+        return CHANNEL;
+    }
+
+    // Сообщение приходит и на под-отправитель: повторное добавление имени ничего не меняет
+    @Override
+    public void onMessage(String payload) {
+        payload.lines().forEach(this::add);
+    }
+
+    // Вызывается после коммита. building читается раньше filter: если перестройки ещё не было видно, она начнёт
+    // читать таблицу уже после коммита, а если уже закончилась - filter к этому моменту заменён
+    public void add(String username) {
+        BloomFilter next = building;
+        if (next != null) {
+            next.put(username);
+        }
+        BloomFilter current = filter;
+        if (current != null) {
+            current.put(username);
+        }
+    }
+
+    // Фильтр ответил "возможно занято", а точная проверка нашла имя свободным
+    public void recordFalsePositive() {
+        falsePositives.increment();
+    }
+
+    // Размер берётся с запасом вдвое от текущего числа строк, чтобы доля ложных срабатываний держалась у fpp
+    // до следующей перестройки
+    @Scheduled(fixedDelayString = "${app.users.username-filter.rebuild-interval:PT10M}")
+    public void rebuild() {
+        long start = System.nanoTime();
+        String outcome = "success";
+        try {
+            BloomFilter next = new BloomFilter(Math.max(expectedInsertions, estimateRows() * 2), fpp);
+            building = next;
+            long loaded = 0;
+            for (int shard = 0; shard < shardRouter.shardCount(); shard++) {
+                loaded += load(next, shardRouter.shard(shard));
+            }
+            filter = next;
+            log.info("Username filter rebuilt: {} usernames, {} bits, expected fpp {}",
+                    loaded, next.bitSize(), next.expectedFpp());
+        } catch (DataAccessException e) {
+            outcome = "failure";
+            log.warn("Username filter rebuild failed, keeping the previous filter: {}", e.getMessage());
+        } finally {
+            building = null;
+            Timer.builder("users.username_filter.rebuild")
+                    .description("Time to rebuild the username filter from the users table")
+                    .tag("outcome", outcome)
+                    .register(meterRegistry)
+                    .record(Duration.ofNanos(System.nanoTime() - start));
+        }
+    }
+
+    // absent - ответ без запроса в БД, present - нужна точная проверка
+    private static Counter lookups(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("users.username_filter.lookups")
+                .description("Username filter lookups by answer")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    private long estimateRows() {
+        long rows = 0;
+        for (int shard = 0; shard < shardRouter.shardCount(); shard++) {
+            Long estimate = new JdbcTemplate(shardRouter.shard(shard)).queryForObject(
+                    "SELECT greatest(reltuples, 0)::bigint FROM pg_class WHERE oid = 'users'::regclass", Long.class);
+            rows += estimate == null ? 0 : estimate;
+        }
+        return rows;
+    }
+
+    private long load(BloomFilter target, DataSource shard) {
+        Long loaded = new JdbcTemplate(shard).execute((ConnectionCallback<Long>) connection -> {
+            boolean autoCommit = connection.getAutoCommit();
+            // PostgreSQL читает порциями fetch size только внутри транзакции, иначе весь результат грузится в память
+            connection.setAutoCommit(false);
+            try (PreparedStatement statement = connection.prepareStatement("SELECT username FROM users")) {
+                statement.setFetchSize(fetchSize);
+                long rows = 0;
+                try (ResultSet rs = statement.executeQuery()) {
+                    while (rs.next()) {
+                        target.put(rs.getString(1));
+                        rows++;
+                    }
+                }
+                connection.commit();
+                return rows;
+            } finally {
+                connection.setAutoCommit(autoCommit);
+            }
+        });
+        return loaded == null ? 0 : loaded;
+    }
+
+}
@@ -0,0 +1,20 @@
+--liquibase formatted sql
+
+--changeset utsx:orders_archive
+-- Холодное хранилище завершённых заказов: без FK и лишних индексов, строки только вставляются и удаляются
+CREATE TABLE IF NOT EXISTS orders_archive (
+    id BIGINT PRIMARY KEY,
+    product_name VARCHAR(255) NOT NULL,
+    user_id BIGINT NOT NULL,
+    delivery_date DATE NOT NULL,
+    status VARCHAR(50) NOT NULL,
+    total NUMERIC(10,2) NOT NULL,
+    created_at TIMESTAMPTZ,
+    updated_at TIMESTAMPTZ,
+    archived_at TIMESTAMPTZ NOT NULL
+) WITH (fillfactor = 100);
+
+CREATE INDEX IF NOT EXISTS idx_orders_archive_user_id ON orders_archive (user_id);
+
+CREATE INDEX IF NOT EXISTS idx_orders_terminal_updated_at ON orders (updated_at)
+    WHERE status IN ('DELIVERED', 'CANCELLED');
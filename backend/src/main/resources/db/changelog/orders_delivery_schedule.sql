@@ -0,0 +1,6 @@
+--liquibase formatted sql
+
+--changeset utsx:orders_delivery_schedule
+-- B-tree, а не BRIN: delivery_date не коррелирует с физическим порядком строк (заказы создаются на любые даты),
+-- поэтому BRIN-диапазоны перекрываются и не отсекают страницы. status в ключе даёт группировку по дню без heap.
+CREATE INDEX IF NOT EXISTS idx_orders_delivery_date_status ON orders (delivery_date, status);
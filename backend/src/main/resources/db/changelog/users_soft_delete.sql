@@ -0,0 +1,8 @@
+--liquibase formatted sql
+
+--changeset utsx:users_soft_delete
+ALTER TABLE users ADD COLUMN IF NOT EXISTS deleted_at TIMESTAMPTZ;
+
+CREATE INDEX IF NOT EXISTS idx_users_deleted_at ON users (deleted_at) WHERE deleted_at IS NOT NULL;
+
+CREATE INDEX IF NOT EXISTS idx_orders_user_id ON orders (user_id);
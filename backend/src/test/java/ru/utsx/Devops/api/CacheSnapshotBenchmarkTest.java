@@ -0,0 +1,139 @@
+package ru.utsx.Devops.api;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.CacheManager;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import ru.utsx.Devops.api.facade.OrderFacade;
+import ru.utsx.Devops.api.facade.UserFacade;
+import ru.utsx.Devops.core.AbstractTest;
+import ru.utsx.Devops.core.cache.CacheSnapshotStore;
+import ru.utsx.Devops.core.cache.CacheSnapshotWriter;
+import ru.utsx.Devops.core.sql.SlowQueryRecorder;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Запуск: ./mvnw test -Pbenchmark
+@Tag("benchmark")
+@TestPropertySource(properties = {
+        "app.cache.snapshot.enabled=true",
+        "app.cache.snapshot.dir=target/cache-snapshot-benchmark",
+        "app.sql.max-statements=1000"
+})
+public class CacheSnapshotBenchmarkTest extends AbstractTest {
+
+    private static final Path SNAPSHOT_DIR = Path.of("target/cache-snapshot-benchmark");
+    private static final int USERS = 1000;
+    private static final int ORDERS_PER_USER = 10;
+    private static final int HOT_ORDERS = 2000;
+
+    @Autowired
+    private OrderFacade orderFacade;
+    @Autowired
+    private UserFacade userFacade;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private CacheManager cacheManager;
+    @Autowired
+    private CacheSnapshotStore cacheSnapshotStore;
+    @Autowired
+    private CacheSnapshotWriter cacheSnapshotWriter;
+    @Autowired
+    private SlowQueryRecorder slowQueryRecorder;
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private List<Long> userIds;
+    private List<Long> orderIds;
+
+    @BeforeEach
+    public void setUp() {
+        if (jdbcTemplate.queryForObject("SELECT count(*) FROM users WHERE username LIKE 'snapshot-%'", Long.class) < USERS) {
+            jdbcTemplate.update("""
+                    INSERT INTO users (username, email, created_at, updated_at)
+                    SELECT 'snapshot-' || g, 'snapshot-' || g || '@test.com', now(), now()
+                    FROM generate_series(1, ?) g""", USERS);
+            jdbcTemplate.update("""
+                    INSERT INTO orders (product_name, user_id, delivery_date, status, total, created_at, updated_at)
+                    SELECT 'Product ' || g, u.id, current_date + g % 30, 'CREATED', g % 1000, now(), now()
+                    FROM users u CROSS JOIN generate_series(1, ?) g
+                    WHERE u.username LIKE 'snapshot-%'""", ORDERS_PER_USER);
+            jdbcTemplate.execute("ANALYZE users");
+            jdbcTemplate.execute("ANALYZE orders");
+        }
+        userIds = jdbcTemplate.queryForList(
+                "SELECT id FROM users WHERE username LIKE 'snapshot-%' ORDER BY id LIMIT ?", Long.class, USERS);
+        orderIds = jdbcTemplate.queryForList("""
+                SELECT o.id FROM orders o JOIN users u ON u.id = o.user_id
+                WHERE u.username LIKE 'snapshot-%' ORDER BY o.id LIMIT ?""", Long.class, HOT_ORDERS);
+    }
+
+    @Test
+    public void compareCacheFillAfterRestartWithAndWithoutSnapshot() throws Exception {
+        System.out.printf("%-18s %10s %10s %12s %10s%n", "restart", "fill ms", "statements", "statements/s", "restored");
+        // Прогрев JIT и пулов соединений, затем снимок с заполненного кэша
+        fill();
+        cacheSnapshotWriter.snapshot();
+
+        moveSnapshots(".snapshot", ".snapshot.bak");
+        Result cold = restart("without snapshot");
+        moveSnapshots(".snapshot.bak", ".snapshot");
+        Result warm = restart("with snapshot");
+
+        assertTrue(warm.statements() * 10 < cold.statements(), "Snapshot should replace per-key loads with batched checks");
+        assertTrue(warm.fillNanos() < cold.fillNanos(), "Cache should fill faster from the snapshot");
+    }
+
+    // Рестарт пода: пустой кэш и заново отображённые снимки, затем по одному запросу на каждый горячий ключ
+    private Result restart(String name) {
+        cacheManager.getCacheNames().forEach(cache -> cacheManager.getCache(cache).clear());
+        cacheSnapshotStore.load();
+        long statementsBefore = statements();
+        double restoredBefore = restored();
+        long start = System.nanoTime();
+        fill();
+        long fillNanos = System.nanoTime() - start;
+        long statements = statements() - statementsBefore;
+        System.out.printf("%-18s %10d %10d %12.0f %10.0f%n", name, TimeUnit.NANOSECONDS.toMillis(fillNanos), statements,
+                statements / (fillNanos / 1e9), restored() - restoredBefore);
+        return new Result(fillNanos, statements);
+    }
+
+    private void fill() {
+        userIds.forEach(userFacade::getUserById);
+        orderIds.forEach(orderFacade::getOrder);
+    }
+
+    private long statements() {
+        return slowQueryRecorder.snapshot().stream().mapToLong(SlowQueryRecorder.StatementSnapshot::count).sum();
+    }
+
+    private double restored() {
+        return meterRegistry.find("cache.snapshot.entries").tag("result", "restored").counters().stream()
+                .mapToDouble(Counter::count)
+                .sum();
+    }
+
+    private static void moveSnapshots(String from, String to) throws Exception {
+        for (String cache : List.of("orders", "users")) {
+            Files.move(SNAPSHOT_DIR.resolve(cache + from), SNAPSHOT_DIR.resolve(cache + to),
+                    StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private record Result(long fillNanos, long statements) {
+    }
+
+}
@@ -0,0 +1,101 @@
+package ru.utsx.Devops.api;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.utsx.Devops.api.facade.OrderFacade;
+import ru.utsx.Devops.api.model.order.DeliveryScheduleDto;
+import ru.utsx.Devops.api.model.user.CreateUserDto;
+import ru.utsx.Devops.core.AbstractTest;
+import ru.utsx.Devops.helpers.TestUserHelper;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Запуск: ./mvnw test -Pbenchmark
+@Tag("benchmark")
+public class DeliveryScheduleBenchmarkTest extends AbstractTest {
+
+    private static final int ORDERS = 1_000_000;
+    private static final int DAYS = 730;
+    private static final int REQUESTS = 200;
+    private static final LocalDate START = LocalDate.of(2030, 1, 1);
+
+    @Autowired
+    private OrderFacade orderFacade;
+    @Autowired
+    private TestUserHelper testUserHelper;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    public void setUp() {
+        if (jdbcTemplate.queryForObject("SELECT count(*) FROM orders WHERE delivery_date >= ?", Long.class, START) >= ORDERS) {
+            return;
+        }
+        Long userId = testUserHelper.createUser(CreateUserDto.builder()
+                .username("schedule-benchmark")
+                .email("schedule@test.com")
+                .build());
+        // Даты доставки случайны относительно порядка вставки, как и в реальной таблице заказов
+        jdbcTemplate.update("""
+                INSERT INTO orders (product_name, user_id, delivery_date, status, total, created_at, updated_at)
+                SELECT 'Product ' || g % 1000, ?, ?::date + (random() * ?)::int,
+                       (ARRAY['CREATED', 'CANCELLED', 'DELIVERED'])[1 + g % 3], g % 1000, now(), now()
+                FROM generate_series(1, ?) g""", userId, START, DAYS - 1, ORDERS);
+        jdbcTemplate.execute("ANALYZE orders");
+    }
+
+    @Test
+    public void compareIndexesForWeeklySchedule() {
+        try {
+            long btree = run("btree");
+
+            jdbcTemplate.execute("DROP INDEX idx_orders_delivery_date_status");
+            jdbcTemplate.execute("CREATE INDEX idx_orders_delivery_date_brin ON orders USING brin (delivery_date)");
+            jdbcTemplate.execute("ANALYZE orders");
+            long brin = run("brin");
+
+            jdbcTemplate.execute("DROP INDEX idx_orders_delivery_date_brin");
+            jdbcTemplate.execute("ANALYZE orders");
+            long none = run("none");
+
+            assertTrue(btree < none, "B-tree schedule query should beat a sequential scan");
+            assertTrue(btree <= brin, "B-tree should not be slower than BRIN on uncorrelated delivery dates");
+        } finally {
+            jdbcTemplate.execute("DROP INDEX IF EXISTS idx_orders_delivery_date_brin");
+            jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS idx_orders_delivery_date_status ON orders (delivery_date, status)");
+        }
+    }
+
+    // Возвращает p50 в микросекундах
+    private long run(String index) {
+        List<Long> latencies = new ArrayList<>();
+        for (int i = 0; i < REQUESTS * 2; i++) {
+            LocalDate from = START.plusDays(ThreadLocalRandom.current().nextInt(DAYS - 7));
+            long start = System.nanoTime();
+            DeliveryScheduleDto schedule = orderFacade.getDeliverySchedule(from, from.plusDays(6), 0, 100);
+            long elapsed = System.nanoTime() - start;
+            // Первая половина запросов прогревает JIT и shared buffers
+            if (i >= REQUESTS) {
+                latencies.add(elapsed);
+            }
+            assertEquals(7, schedule.getDays().size());
+            assertEquals(100, schedule.getOrders().size());
+        }
+        List<Long> sorted = latencies.stream().sorted().toList();
+        long p50 = TimeUnit.NANOSECONDS.toMicros(sorted.get(sorted.size() / 2));
+        System.out.printf("%-6s p50=%d us p99=%d us%n", index, p50,
+                TimeUnit.NANOSECONDS.toMicros(sorted.get((int) (sorted.size() * 0.99))));
+        return p50;
+    }
+
+}
@@ -0,0 +1,88 @@
+package ru.utsx.Devops.api;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.stream.LongStream;
+import java.util.zip.GZIPOutputStream;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import ru.utsx.Devops.api.model.order.OrderDto;
+import ru.utsx.Devops.domain.orders.OrderStatus;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Запуск: ./mvnw test -Pbenchmark
+@Tag("benchmark")
+class PayloadFormatBenchmarkTest {
+
+    private static final int ORDERS = 50_000;
+    private static final int ROUNDS = 20;
+
+    @Test
+    void compareBytesOnWireAndDecodeTime() throws IOException {
+        List<OrderDto> orders = LongStream.range(0, ORDERS)
+                .mapToObj(i -> OrderDto.builder()
+                        .id(10_000 + i)
+                        .userId(10_000 + i % 500)
+                        .productName("Product " + i % 1_000)
+                        .deliveryDate(LocalDate.of(2025, 1, 1).plusDays(i % 365))
+                        .status(OrderStatus.values()[(int) (i % 3)])
+                        .total(BigDecimal.valueOf(i % 100_000, 2))
+                        .build())
+                .toList();
+
+        ObjectMapper json = Jackson2ObjectMapperBuilder.json().build();
+        ObjectMapper cbor = Jackson2ObjectMapperBuilder.json().factory(new CBORFactory()).build();
+        ObjectMapper smile = Jackson2ObjectMapperBuilder.json().factory(new SmileFactory()).build();
+
+        byte[] jsonBytes = json.writeValueAsBytes(orders);
+        byte[] cborBytes = cbor.writeValueAsBytes(orders);
+        byte[] smileBytes = smile.writeValueAsBytes(orders);
+
+        System.out.printf("%-6s %12s %12s %14s%n", "format", "raw bytes", "gzip bytes", "decode ms/op");
+        report("json", json, jsonBytes);
+        report("cbor", cbor, cborBytes);
+        report("smile", smile, smileBytes);
+
+        assertTrue(cborBytes.length < jsonBytes.length);
+        assertTrue(smileBytes.length < jsonBytes.length);
+        assertEquals(orders, decode(cbor, cborBytes));
+        assertEquals(orders, decode(smile, smileBytes));
+    }
+
+    private static void report(String format, ObjectMapper mapper, byte[] payload) throws IOException {
+        for (int i = 0; i < ROUNDS; i++) {
+            decode(mapper, payload);
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < ROUNDS; i++) {
+            decode(mapper, payload);
+        }
+        double decodeMillis = (System.nanoTime() - start) / 1_000_000.0 / ROUNDS;
+        System.out.printf("%-6s %12d %12d %14.2f%n", format, payload.length, gzip(payload).length, decodeMillis);
+    }
+
+    private static List<OrderDto> decode(ObjectMapper mapper, byte[] payload) throws IOException {
+        return mapper.readValue(payload, new TypeReference<>() {
+        });
+    }
+
+    private static byte[] gzip(byte[] payload) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(payload);
+        }
+        return out.toByteArray();
+    }
+
+}
@@ -0,0 +1,98 @@
+package ru.utsx.Devops.api;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntSupplier;
+import java.util.function.Supplier;
+
+import javax.sql.DataSource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.utsx.Devops.api.facade.OrderFacade;
+import ru.utsx.Devops.core.AbstractTest;
+import ru.utsx.Devops.helpers.TestUserHelper;
+
+// Запуск: ./mvnw test -Pbenchmark
+@Tag("benchmark")
+public class ReactiveReadBenchmarkTest extends AbstractTest {
+
+    private static final int ORDERS = 20_000;
+    private static final int CONCURRENCY = 200;
+    private static final int REQUESTS = 1_000;
+
+    @Autowired
+    private OrderFacade orderFacade;
+    @Autowired
+    private TestUserHelper testUserHelper;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private DataSource dataSource;
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @BeforeEach
+    public void setUp() {
+        if (jdbcTemplate.queryForObject("SELECT count(*) FROM orders", Long.class) >= ORDERS) {
+            return;
+        }
+        Long userId = testUserHelper.createUser();
+        jdbcTemplate.update("""
+                INSERT INTO orders (product_name, user_id, delivery_date, status, total, created_at, updated_at)
+                SELECT 'Product ' || g % 1000, ?, current_date + g % 30, 'CREATED', g % 1000, now(), now()
+                FROM generate_series(1, ?) g""", userId, ORDERS);
+    }
+
+    @Test
+    public void compareJpaAndReactiveListEndpoints() throws Exception {
+        HikariDataSource hikari = dataSource.unwrap(HikariDataSource.class);
+        run("jpa", () -> orderFacade.getAllOrders().size(),
+                () -> hikari.getHikariPoolMXBean().getActiveConnections());
+        run("r2dbc", () -> orderFacade.getAllOrdersReactive().count().block().intValue(),
+                () -> (int) meterRegistry.get("r2dbc.pool.acquired").gauge().value());
+    }
+
+    private void run(String name, Supplier<Integer> request, IntSupplier connectionsInUse) throws Exception {
+        List<Long> latencies = Collections.synchronizedList(new ArrayList<>());
+        AtomicInteger peakConnections = new AtomicInteger();
+        ScheduledExecutorService sampler = Executors.newSingleThreadScheduledExecutor();
+        sampler.scheduleAtFixedRate(() -> peakConnections.accumulateAndGet(connectionsInUse.getAsInt(), Math::max),
+                0, 5, TimeUnit.MILLISECONDS);
+
+        try (ExecutorService clients = Executors.newFixedThreadPool(CONCURRENCY)) {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < REQUESTS; i++) {
+                futures.add(clients.submit(() -> {
+                    long start = System.nanoTime();
+                    request.get();
+                    latencies.add(System.nanoTime() - start);
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            sampler.shutdownNow();
+        }
+
+        List<Long> sorted = latencies.stream().sorted().toList();
+        System.out.printf("%-6s p50=%d ms p99=%d ms peak connections=%d%n", name,
+                TimeUnit.NANOSECONDS.toMillis(sorted.get(sorted.size() / 2)),
+                TimeUnit.NANOSECONDS.toMillis(sorted.get((int) (sorted.size() * 0.99))),
+                peakConnections.get());
+    }
+
+}
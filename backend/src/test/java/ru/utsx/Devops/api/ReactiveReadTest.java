@@ -0,0 +1,165 @@
+package ru.utsx.Devops.api;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.RequestBuilder;
+import ru.utsx.Devops.api.facade.OrderFacade;
+import ru.utsx.Devops.api.facade.UserFacade;
+import ru.utsx.Devops.api.model.order.CreateOrderDto;
+import ru.utsx.Devops.api.model.user.CreateUserDto;
+import ru.utsx.Devops.core.AbstractTest;
+import ru.utsx.Devops.domain.orders.OrderArchiver;
+import ru.utsx.Devops.domain.orders.OrderStatus;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+// Реактивные (R2DBC) и JPA-эндпоинты должны отдавать одно и то же для одних и тех же id
+@AutoConfigureMockMvc
+@TestPropertySource(properties = {
+        "app.warmup.enabled=false",
+        "orders.archive.initial-delay=PT1H"
+})
+public class ReactiveReadTest extends AbstractTest {
+
+    private static final long MISSING_ID = Long.MAX_VALUE;
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private UserFacade userFacade;
+    @Autowired
+    private OrderFacade orderFacade;
+    @Autowired
+    private OrderArchiver orderArchiver;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Long userId;
+    private List<Long> orderIds;
+
+    @BeforeEach
+    public void setUp() {
+        userId = createUser("reactive-" + System.nanoTime());
+        Long archivedId = createOrder(userId, OrderStatus.DELIVERED);
+        orderIds = List.of(createOrder(userId, OrderStatus.CREATED), createOrder(userId, OrderStatus.CANCELLED), archivedId);
+        jdbcTemplate.update("UPDATE orders SET updated_at = now() - interval '90 days' WHERE id = ?", archivedId);
+        orderArchiver.archive();
+    }
+
+    @Test
+    public void testSameOrdersAndUsersById() throws Exception {
+        for (Long id : orderIds) {
+            assertEquals(orderFacade.getOrder(id), orderFacade.getOrderReactive(id).block());
+            assertEquals(readJson(get("/api/v1/orders/" + id)), readJson(reactive("/api/v1/reactive/orders/" + id)));
+        }
+        assertEquals(userFacade.getUserById(userId), userFacade.getUserByIdReactive(userId).block());
+        assertEquals(readJson(get("/api/v1/users/" + userId)), readJson(reactive("/api/v1/reactive/users/" + userId)));
+    }
+
+    @Test
+    public void testSameLists() throws Exception {
+        assertEquals(orderFacade.getAllOrders(), orderFacade.getAllOrdersReactive().collectList().block());
+        assertEquals(userFacade.getAllUsers(), userFacade.getAllUsersReactive().collectList().block());
+
+        MvcResult started = mockMvc.perform(get("/api/v1/reactive/orders").accept(MediaType.APPLICATION_NDJSON)).andReturn();
+        String ndjson = mockMvc.perform(asyncDispatch(started)).andReturn().getResponse().getContentAsString();
+        List<JsonNode> streamed = Arrays.stream(ndjson.split("\n"))
+                .filter(line -> !line.isBlank())
+                .map(this::parse)
+                .toList();
+        List<JsonNode> listed = new ArrayList<>();
+        readJson(get("/api/v1/orders")).forEach(listed::add);
+        assertFalse(listed.isEmpty());
+        assertEquals(listed, streamed);
+        // Без явного Accept или с */* список отдаётся обычным JSON-массивом
+        assertEquals(readJson(get("/api/v1/orders")), readJson(reactive("/api/v1/reactive/orders")));
+        MvcResult any = mockMvc.perform(get("/api/v1/reactive/users").accept(MediaType.ALL)).andReturn();
+        MockHttpServletResponse users = perform(asyncDispatch(any));
+        assertEquals(MediaType.APPLICATION_JSON_VALUE, users.getContentType());
+        assertEquals(readJson(get("/api/v1/users")), objectMapper.readTree(users.getContentAsString()));
+    }
+
+    @Test
+    public void testMissingIdIsNotFoundOnBothPaths() throws Exception {
+        assertEquals(404, perform(get("/api/v1/orders/" + MISSING_ID)).getStatus());
+        assertEquals(404, perform(reactive("/api/v1/reactive/orders/" + MISSING_ID)).getStatus());
+        assertEquals(404, perform(get("/api/v1/users/" + MISSING_ID)).getStatus());
+        assertEquals(404, perform(reactive("/api/v1/reactive/users/" + MISSING_ID)).getStatus());
+    }
+
+    @Test
+    public void testDeletedUserIsNotFoundOnBothPaths() throws Exception {
+        userFacade.deleteUser(userId);
+
+        assertEquals(404, perform(get("/api/v1/users/" + userId)).getStatus());
+        assertEquals(404, perform(reactive("/api/v1/reactive/users/" + userId)).getStatus());
+        for (Long id : orderIds) {
+            assertEquals(404, perform(get("/api/v1/orders/" + id)).getStatus());
+            assertEquals(404, perform(reactive("/api/v1/reactive/orders/" + id)).getStatus());
+        }
+    }
+
+    // Mono/Flux из контроллера обрабатываются асинхронно: ответ готов только после asyncDispatch
+    private RequestBuilder reactive(String path) throws Exception {
+        MvcResult started = mockMvc.perform(get(path)).andReturn();
+        return asyncDispatch(started);
+    }
+
+    private MockHttpServletResponse perform(RequestBuilder request) throws Exception {
+        return mockMvc.perform(request).andReturn().getResponse();
+    }
+
+    private JsonNode readJson(RequestBuilder request) throws Exception {
+        MockHttpServletResponse response = perform(request);
+        String body = response.getContentAsString();
+        assertEquals(200, response.getStatus(), body);
+        return objectMapper.readTree(body);
+    }
+
+    private JsonNode parse(String json) {
+        try {
+            return objectMapper.readTree(json);
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private Long createUser(String username) {
+        return userFacade.createUser(CreateUserDto.builder()
+                .username(username)
+                .email(username + "@test.com")
+                .build());
+    }
+
+    private Long createOrder(Long userId, OrderStatus status) {
+        return orderFacade.createOrder(CreateOrderDto.builder()
+                .userId(userId)
+                .deliveryDate(LocalDate.now())
+                .productName("Reactive product")
+                .total(new BigDecimal("12.50"))
+                .status(status)
+                .build());
+    }
+
+}
@@ -0,0 +1,126 @@
+package ru.utsx.Devops.api;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.utsx.Devops.api.facade.OrderFacade;
+import ru.utsx.Devops.api.facade.UserFacade;
+import ru.utsx.Devops.core.AbstractTest;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Запуск: ./mvnw test -Pbenchmark
+@Tag("benchmark")
+public class SparseFieldsBenchmarkTest extends AbstractTest {
+
+    private static final int USERS = 200;
+    private static final int ORDERS_PER_USER = 50;
+    private static final int PAGE_SIZE = 100;
+    private static final int REQUESTS = 200;
+
+    @Autowired
+    private OrderFacade orderFacade;
+    @Autowired
+    private UserFacade userFacade;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @BeforeEach
+    public void setUp() {
+        if (jdbcTemplate.queryForObject("SELECT count(*) FROM users WHERE username LIKE 'sparse-%'", Long.class) >= USERS) {
+            return;
+        }
+        jdbcTemplate.update("""
+                INSERT INTO users (username, email, created_at, updated_at)
+                SELECT 'sparse-' || g, 'sparse-' || g || '@test.com', now(), now()
+                FROM generate_series(1, ?) g""", USERS);
+        jdbcTemplate.update("""
+                INSERT INTO orders (product_name, user_id, delivery_date, status, total, created_at, updated_at)
+                SELECT 'Product ' || g, u.id, current_date + g % 30,
+                       (ARRAY['CREATED', 'CANCELLED', 'DELIVERED'])[1 + g % 3], g % 1000, now(), now()
+                FROM users u CROSS JOIN generate_series(1, ?) g
+                WHERE u.username LIKE 'sparse-%'""", ORDERS_PER_USER);
+        jdbcTemplate.execute("ANALYZE users");
+        jdbcTemplate.execute("ANALYZE orders");
+    }
+
+    @Test
+    public void compareFullAndSparseOrderPages() {
+        System.out.printf("%-14s %10s %10s %14s %10s%n", "request", "statements", "entities", "response bytes", "p50 us");
+        Result full = run("orders full", () -> orderFacade.getOrders(0, PAGE_SIZE));
+        Result sparse = run("orders sparse", () -> orderFacade.getOrders(0, PAGE_SIZE, "id,status,total"));
+
+        // Полная сущность заказа тянет пользователя и все его заказы, проекция читает только три колонки
+        assertEquals(1, sparse.statements());
+        assertEquals(0, sparse.entities());
+        assertTrue(sparse.entities() < full.entities());
+        assertTrue(sparse.bytes() < full.bytes());
+    }
+
+    @Test
+    public void compareFullAndSparseUserPages() {
+        System.out.printf("%-14s %10s %10s %14s %10s%n", "request", "statements", "entities", "response bytes", "p50 us");
+        Result full = run("users full", () -> userFacade.getUsers(0, PAGE_SIZE));
+        Result sparse = run("users sparse", () -> userFacade.getUsers(0, PAGE_SIZE, "id,username"));
+
+        assertEquals(1, sparse.statements());
+        assertEquals(0, sparse.entities());
+        assertTrue(sparse.bytes() * 10 < full.bytes(), "Sparse users page should skip the nested orders");
+    }
+
+    private Result run(String name, Supplier<List<?>> request) {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+        List<?> page = request.get();
+        long statements = statistics.getPrepareStatementCount();
+        long entities = statistics.getEntityLoadCount();
+        statistics.setStatisticsEnabled(false);
+        assertEquals(PAGE_SIZE, page.size());
+        int bytes = serialize(page).length;
+
+        List<Long> latencies = new ArrayList<>();
+        for (int i = 0; i < REQUESTS * 2; i++) {
+            long start = System.nanoTime();
+            serialize(request.get());
+            long elapsed = System.nanoTime() - start;
+            // Первая половина запросов прогревает JIT и shared buffers
+            if (i >= REQUESTS) {
+                latencies.add(elapsed);
+            }
+        }
+        List<Long> sorted = latencies.stream().sorted().toList();
+        long p50 = TimeUnit.NANOSECONDS.toMicros(sorted.get(sorted.size() / 2));
+        System.out.printf("%-14s %10d %10d %14d %10d%n", name, statements, entities, bytes, p50);
+        return new Result(statements, entities, bytes);
+    }
+
+    private byte[] serialize(Object response) {
+        try {
+            return objectMapper.writeValueAsBytes(response);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private record Result(long statements, long entities, int bytes) {
+    }
+
+}
@@ -0,0 +1,202 @@
+package ru.utsx.Devops.api;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import ru.utsx.Devops.api.model.order.CreateOrderDto;
+import ru.utsx.Devops.api.model.user.CreateUserDto;
+import ru.utsx.Devops.core.AbstractTest;
+import ru.utsx.Devops.core.sql.SlowQueryRecorder;
+import ru.utsx.Devops.domain.orders.OrderArchiver;
+import ru.utsx.Devops.domain.orders.OrderCommandService;
+import ru.utsx.Devops.domain.orders.OrderStatus;
+import ru.utsx.Devops.domain.users.UserCommandService;
+import ru.utsx.Devops.helpers.TestUserHelper;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+@AutoConfigureMockMvc
+@TestPropertySource(properties = {
+        "app.warmup.enabled=false",
+        "orders.archive.initial-delay=PT1H",
+        "app.sql.max-statements=1000"
+})
+public class SparseFieldsTest extends AbstractTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private TestUserHelper testUserHelper;
+    @Autowired
+    private UserCommandService userCommandService;
+    @Autowired
+    private OrderCommandService orderCommandService;
+    @Autowired
+    private OrderArchiver orderArchiver;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @Autowired
+    private SlowQueryRecorder slowQueryRecorder;
+
+    private Long userId;
+    private Long orderId;
+
+    @BeforeEach
+    public void setUp() {
+        userId = createUser("sparse-" + System.nanoTime());
+        orderId = createOrder(userId, OrderStatus.CREATED);
+    }
+
+    @Test
+    public void testReturnsOnlyRequestedFields() throws Exception {
+        Map<String, Object> order = readMap(get("/api/v1/orders/" + orderId).param("fields", "status, total"));
+        assertEquals(Set.of("status", "total"), order.keySet());
+        assertEquals("CREATED", order.get("status"));
+        assertEquals(0, new BigDecimal(order.get("total").toString()).compareTo(BigDecimal.valueOf(100)));
+
+        List<Map<String, Object>> orders = readList(get("/api/v1/orders").param("fields", "id,productName"));
+        assertTrue(orders.stream().allMatch(item -> item.keySet().equals(Set.of("id", "productName"))));
+        assertTrue(orders.stream().anyMatch(item -> orderId.equals(id(item))));
+
+        List<Map<String, Object>> page = readList(get("/api/v1/orders")
+                .param("page", "0").param("size", "2").param("fields", "deliveryDate"));
+        assertTrue(page.size() <= 2);
+        assertTrue(page.stream().allMatch(item -> item.keySet().equals(Set.of("deliveryDate"))));
+
+        Map<String, Object> user = readMap(get("/api/v1/users/" + userId).param("fields", "id,email"));
+        assertEquals(Set.of("id", "email"), user.keySet());
+    }
+
+    @Test
+    public void testUserIdIsReadFromForeignKey() throws Exception {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+        Map<String, Long> before = statementCounts();
+
+        Map<String, Object> order = readMap(get("/api/v1/orders/" + orderId).param("fields", "userId"));
+
+        long entities = statistics.getEntityLoadCount();
+        statistics.setStatisticsEnabled(false);
+        assertEquals(Set.of("userId"), order.keySet());
+        assertEquals(userId, ((Number) order.get("userId")).longValue());
+        assertEquals(0, entities, "Sparse reads should not load entities");
+        List<String> executed = statementCounts().entrySet().stream()
+                .filter(statement -> statement.getValue() > before.getOrDefault(statement.getKey(), 0L))
+                .map(Map.Entry::getKey)
+                .filter(sql -> sql.contains("orders"))
+                .toList();
+        assertEquals(1, executed.size(), executed::toString);
+        String sql = executed.get(0).toLowerCase();
+        assertTrue(sql.contains("user_id"), sql);
+        assertFalse(sql.contains("username") || sql.contains("email"), sql);
+    }
+
+    @Test
+    public void testFallsBackToArchive() throws Exception {
+        Long archivedId = createOrder(userId, OrderStatus.DELIVERED);
+        jdbcTemplate.update("UPDATE orders SET updated_at = now() - interval '90 days' WHERE id = ?", archivedId);
+        orderArchiver.archive();
+        assertEquals(1, jdbcTemplate.queryForObject("SELECT count(*) FROM orders_archive WHERE id = ?", Long.class, archivedId));
+
+        Map<String, Object> order = readMap(get("/api/v1/orders/" + archivedId).param("fields", "id,userId,status"));
+
+        assertEquals(Set.of("id", "userId", "status"), order.keySet());
+        assertEquals(archivedId, id(order));
+        assertEquals(userId, ((Number) order.get("userId")).longValue());
+        assertEquals("DELIVERED", order.get("status"));
+    }
+
+    @Test
+    public void testHidesDeletedUsersAndTheirOrders() throws Exception {
+        userCommandService.deleteUser(userId);
+
+        assertEquals(404, perform(get("/api/v1/orders/" + orderId).param("fields", "id")).getStatus());
+        assertEquals(404, perform(get("/api/v1/users/" + userId).param("fields", "id")).getStatus());
+        assertTrue(readList(get("/api/v1/orders").param("fields", "id")).stream()
+                .noneMatch(item -> orderId.equals(id(item))));
+        assertTrue(readList(get("/api/v1/users").param("fields", "id")).stream()
+                .noneMatch(item -> userId.equals(id(item))));
+    }
+
+    @Test
+    public void testRejectsUnknownOrEmptyFields() throws Exception {
+        assertEquals(400, perform(get("/api/v1/orders").param("fields", "id,user")).getStatus());
+        assertEquals(400, perform(get("/api/v1/orders/" + orderId).param("fields", " , ")).getStatus());
+        assertEquals(400, perform(get("/api/v1/orders").param("page", "0").param("fields", "")).getStatus());
+        assertEquals(400, perform(get("/api/v1/users").param("fields", "orders")).getStatus());
+        assertEquals(400, perform(get("/api/v1/users/" + userId).param("fields", "")).getStatus());
+    }
+
+    private MockHttpServletResponse perform(MockHttpServletRequestBuilder request) throws Exception {
+        return mockMvc.perform(request).andReturn().getResponse();
+    }
+
+    private Map<String, Object> readMap(MockHttpServletRequestBuilder request) throws Exception {
+        MockHttpServletResponse response = perform(request);
+        String body = response.getContentAsString();
+        assertEquals(200, response.getStatus(), body);
+        return objectMapper.readValue(body, new TypeReference<>() {
+        });
+    }
+
+    private List<Map<String, Object>> readList(MockHttpServletRequestBuilder request) throws Exception {
+        MockHttpServletResponse response = perform(request);
+        String body = response.getContentAsString();
+        assertEquals(200, response.getStatus(), body);
+        return objectMapper.readValue(body, new TypeReference<>() {
+        });
+    }
+
+    private Map<String, Long> statementCounts() {
+        return slowQueryRecorder.snapshot().stream()
+                .collect(Collectors.toMap(SlowQueryRecorder.StatementSnapshot::sql, SlowQueryRecorder.StatementSnapshot::count));
+    }
+
+    private static Long id(Map<String, Object> item) {
+        return ((Number) item.get("id")).longValue();
+    }
+
+    private Long createUser(String username) {
+        return testUserHelper.createUser(CreateUserDto.builder()
+                .username(username)
+                .email(username + "@test.com")
+                .build());
+    }
+
+    private Long createOrder(Long userId, OrderStatus status) {
+        return orderCommandService.createOrder(CreateOrderDto.builder()
+                .userId(userId)
+                .deliveryDate(LocalDate.now())
+                .productName("Sparse product")
+                .total(BigDecimal.valueOf(100))
+                .status(status)
+                .build());
+    }
+
+}
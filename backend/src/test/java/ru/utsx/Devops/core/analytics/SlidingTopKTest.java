@@ -0,0 +1,100 @@
+package ru.utsx.Devops.core.analytics;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class SlidingTopKTest {
+
+    private static final Instant NOW = Instant.parse("2030-01-01T10:00:00Z");
+
+    @Test
+    void top_RanksKeysByCountAndByWeight() {
+        SlidingTopK<String> topK = new SlidingTopK<>(Duration.ofHours(1), Duration.ofMinutes(5), 5, 1024, 10,
+                Clock.fixed(NOW, ZoneOffset.UTC));
+        for (int i = 0; i < 5; i++) {
+            topK.add("cheap", 1);
+        }
+        topK.add("expensive", 100);
+        topK.add("other", 2);
+
+        List<SlidingTopK.Entry<String>> byCount = topK.top(Duration.ofMinutes(60), 2, SlidingTopK.Metric.COUNT).entries();
+        List<SlidingTopK.Entry<String>> byWeight = topK.top(Duration.ofMinutes(60), 2, SlidingTopK.Metric.WEIGHT).entries();
+
+        assertEquals(List.of(new SlidingTopK.Entry<>("cheap", 5, 5.0), new SlidingTopK.Entry<>("other", 1, 2.0)), byCount);
+        assertEquals(List.of("expensive", "cheap"), byWeight.stream().map(SlidingTopK.Entry::key).toList());
+    }
+
+    @Test
+    void top_ForgetsBucketsOutsideRequestedSpanAndWindow() {
+        Clock clock = mock(Clock.class);
+        when(clock.millis()).thenReturn(NOW.toEpochMilli());
+        SlidingTopK<String> topK = new SlidingTopK<>(Duration.ofMinutes(15), Duration.ofMinutes(5), 5, 1024, 10, clock);
+        topK.add("old", 1);
+        when(clock.millis()).thenReturn(NOW.plus(Duration.ofMinutes(10)).toEpochMilli());
+        topK.add("new", 1);
+
+        assertEquals(List.of("new"), keys(topK.top(Duration.ofMinutes(5), 10, SlidingTopK.Metric.COUNT)));
+        assertEquals(2, topK.top(Duration.ofMinutes(15), 10, SlidingTopK.Metric.COUNT).events());
+
+        when(clock.millis()).thenReturn(NOW.plus(Duration.ofMinutes(20)).toEpochMilli());
+        assertEquals(List.of("new"), keys(topK.top(Duration.ofMinutes(15), 10, SlidingTopK.Metric.COUNT)));
+        when(clock.millis()).thenReturn(NOW.plus(Duration.ofMinutes(30)).toEpochMilli());
+        assertEquals(List.of(), keys(topK.top(Duration.ofMinutes(15), 10, SlidingTopK.Metric.COUNT)));
+    }
+
+    @Test
+    void top_EstimatesStayWithinErrorBoundForSkewedStream() {
+        SlidingTopK<Integer> topK = new SlidingTopK<>(Duration.ofHours(1), Duration.ofMinutes(5), 5, 256, 50,
+                Clock.fixed(NOW, ZoneOffset.UTC));
+        Map<Integer, Long> exact = new HashMap<>();
+        Random random = new Random(42);
+        for (int i = 0; i < 200_000; i++) {
+            // Половина событий приходится на 20 горячих ключей, остальное - длинный хвост из 100 тысяч ключей
+            int key = random.nextBoolean() ? random.nextInt(20) : 20 + random.nextInt(100_000);
+            topK.add(key, 1);
+            exact.merge(key, 1L, Long::sum);
+        }
+
+        SlidingTopK.Summary<Integer> summary = topK.top(Duration.ofHours(1), 20, SlidingTopK.Metric.COUNT);
+
+        assertEquals(200_000, summary.events());
+        assertTrue(summary.entries().stream().allMatch(entry -> entry.key() < 20), "Hot keys should fill the top");
+        for (SlidingTopK.Entry<Integer> entry : summary.entries()) {
+            long truth = exact.get(entry.key());
+            assertTrue(entry.count() >= truth && entry.count() <= truth + summary.countError(),
+                    "Estimate " + entry.count() + " for true count " + truth);
+        }
+    }
+
+    @Test
+    void top_KeepsKeysWithEqualHashCodeApart() {
+        SlidingTopK<String> topK = new SlidingTopK<>(Duration.ofHours(1), Duration.ofMinutes(5), 5, 1024, 10,
+                Clock.fixed(NOW, ZoneOffset.UTC));
+        assertEquals("Aa".hashCode(), "BB".hashCode());
+        for (int i = 0; i < 3; i++) {
+            topK.add("Aa", 1);
+        }
+        topK.add("BB", 1);
+
+        assertEquals(List.of(new SlidingTopK.Entry<>("Aa", 3, 3.0), new SlidingTopK.Entry<>("BB", 1, 1.0)),
+                topK.top(Duration.ofMinutes(60), 2, SlidingTopK.Metric.COUNT).entries());
+    }
+
+    private static List<String> keys(SlidingTopK.Summary<String> summary) {
+        return summary.entries().stream().map(SlidingTopK.Entry::key).toList();
+    }
+
+}
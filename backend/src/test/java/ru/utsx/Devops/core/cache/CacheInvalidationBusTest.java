@@ -0,0 +1,123 @@
+package ru.utsx.Devops.core.cache;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.function.BooleanSupplier;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.utsx.Devops.DevopsApplication;
+import ru.utsx.Devops.api.model.order.CreateOrderDto;
+import ru.utsx.Devops.api.model.order.UpdateOrderDto;
+import ru.utsx.Devops.api.model.user.CreateUserDto;
+import ru.utsx.Devops.core.AbstractTest;
+import ru.utsx.Devops.domain.orders.OrderCommandService;
+import ru.utsx.Devops.domain.orders.OrderQueryService;
+import ru.utsx.Devops.domain.orders.OrderStatus;
+import ru.utsx.Devops.helpers.TestUserHelper;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Две реплики приложения против одного контейнера PostgreSQL
+public class CacheInvalidationBusTest extends AbstractTest {
+
+    @Autowired
+    private TestUserHelper testUserHelper;
+    @Autowired
+    private OrderCommandService orderCommandService;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private ConfigurableApplicationContext secondReplica;
+
+    @BeforeEach
+    public void startSecondReplica() {
+        secondReplica = new SpringApplicationBuilder(DevopsApplication.class)
+                .profiles("test")
+                .web(WebApplicationType.NONE)
+                .properties(
+                        "spring.datasource.url=" + POSTGRES_CONTAINER.getJdbcUrl(),
+                        "spring.datasource.username=" + POSTGRES_CONTAINER.getUsername(),
+                        "spring.datasource.password=" + POSTGRES_CONTAINER.getPassword(),
+                        "spring.liquibase.enabled=false",
+                        "app.cache.invalidation.reconnect-delay=PT0.2S")
+                .run();
+    }
+
+    @AfterEach
+    public void stopSecondReplica() {
+        secondReplica.close();
+    }
+
+    @Test
+    public void testUpdateOnOneReplicaEvictsOther() {
+        Long orderId = createOrder();
+        OrderQueryService remoteQueries = secondReplica.getBean(OrderQueryService.class);
+        CacheManager remoteCache = secondReplica.getBean(CacheManager.class);
+        remoteQueries.getOrder(orderId);
+        assertNotNull(remoteCache.getCache(CacheNames.ORDERS).get(orderId));
+
+        orderCommandService.updateOrder(orderId, UpdateOrderDto.builder().total(new BigDecimal("250.00")).build());
+
+        awaitTrue(() -> remoteCache.getCache(CacheNames.ORDERS).get(orderId) == null);
+        assertEquals(new BigDecimal("250.00"), remoteQueries.getOrder(orderId).getTotal());
+        assertTrue(secondReplica.getBean(MeterRegistry.class).timer("cache.invalidation.lag").count() > 0);
+    }
+
+    @Test
+    public void testReconnectFlushesCache() {
+        Long orderId = createOrder();
+        OrderQueryService remoteQueries = secondReplica.getBean(OrderQueryService.class);
+        CacheManager remoteCache = secondReplica.getBean(CacheManager.class);
+        MeterRegistry remoteMetrics = secondReplica.getBean(MeterRegistry.class);
+        remoteQueries.getOrder(orderId);
+        double flushesBefore = remoteMetrics.counter("cache.invalidation.flushes").count();
+
+        jdbcTemplate.queryForList("SELECT pg_terminate_backend(pid) FROM pg_stat_activity "
+                + "WHERE application_name = 'cache-invalidation-listener'");
+
+        awaitTrue(() -> remoteMetrics.counter("cache.invalidation.flushes").count() > flushesBefore);
+        assertNull(remoteCache.getCache(CacheNames.ORDERS).get(orderId));
+    }
+
+    private Long createOrder() {
+        Long userId = testUserHelper.createUser(CreateUserDto.builder()
+                .username("cache-" + System.nanoTime())
+                .email("cache@test.com")
+                .build());
+        return orderCommandService.createOrder(CreateOrderDto.builder()
+                .userId(userId)
+                .deliveryDate(LocalDate.now())
+                .productName("Cached product")
+                .total(BigDecimal.valueOf(100))
+                .status(OrderStatus.CREATED)
+                .build());
+    }
+
+    private static void awaitTrue(BooleanSupplier condition) {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (!condition.getAsBoolean()) {
+            if (System.currentTimeMillis() > deadline) {
+                throw new AssertionError("Condition not met within 10s");
+            }
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new AssertionError(e);
+            }
+        }
+    }
+
+}
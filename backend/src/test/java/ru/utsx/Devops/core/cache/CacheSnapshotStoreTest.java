@@ -0,0 +1,129 @@
+package ru.utsx.Devops.core.cache;
+
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class CacheSnapshotStoreTest {
+
+    @TempDir
+    private Path dir;
+
+    private final FakeCodec codec = new FakeCodec();
+    private CacheSnapshotStore store;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        store = new CacheSnapshotStore(List.of(codec), new SimpleMeterRegistry(), true, dir.toString(), 2);
+        store.write("items", List.of(new Item(1, "one", 1), new Item(2, "two", 1), new Item(3, "three", 1),
+                "not an item"));
+        store.load();
+    }
+
+    @Test
+    void restore_ReturnsCurrentValuesAndValidatesHottestKeysInBatches() {
+        codec.versions.put(2L, 2);
+
+        assertEquals(new Item(1, "one", 1), store.restore("items", 1L));
+        assertNull(store.restore("items", 2L), "Changed in the database after the snapshot");
+        assertEquals(new Item(3, "three", 1), store.restore("items", 3L));
+        assertNull(store.restore("items", 1L), "Restored values are handed to the cache only once");
+        assertEquals(List.of(Set.of(1L, 2L), Set.of(3L)), codec.batches);
+    }
+
+    @Test
+    void evictAndClear_DropSnapshotValuesUntilRechecked() {
+        assertEquals(new Item(3, "three", 1), store.restore("items", 3L));
+        codec.versions.put(1L, 2);
+        store.clear("items");
+        store.evict("items", 2L);
+
+        assertNull(store.restore("items", 1L), "Validated before the clear, stale when rechecked");
+        assertNull(store.restore("items", 2L), "Evicted keys are not restored");
+        assertEquals(List.of(Set.of(3L, 1L), Set.of(1L)), codec.batches);
+    }
+
+    @Test
+    void clear_RequeuesValidatedKeysForBatchedRecheck() throws Exception {
+        store = new CacheSnapshotStore(List.of(codec), new SimpleMeterRegistry(), true, dir.toString(), 3);
+        store.write("items", List.of(new Item(1, "one", 1), new Item(2, "two", 1), new Item(3, "three", 1),
+                new Item(4, "four", 1)));
+        store.load();
+        assertEquals(new Item(1, "one", 1), store.restore("items", 1L));
+        store.clear("items");
+
+        assertEquals(new Item(2, "two", 1), store.restore("items", 2L));
+        assertEquals(new Item(3, "three", 1), store.restore("items", 3L));
+        assertEquals(List.of(Set.of(1L, 2L, 3L), Set.of(2L, 3L, 4L)), codec.batches);
+    }
+
+    @Test
+    void load_IgnoresCorruptedFile() throws Exception {
+        Files.write(dir.resolve("items.snapshot"), new byte[]{1, 2, 3});
+        store.load();
+
+        assertNull(store.restore("items", 1L));
+        assertEquals(List.of(), codec.batches);
+    }
+
+    private record Item(long id, String name, int version) {
+    }
+
+    private static class FakeCodec implements CacheSnapshotCodec<Item> {
+
+        private final Map<Long, Integer> versions = new HashMap<>();
+        private final List<Set<Long>> batches = new ArrayList<>();
+
+        @Override
+        public String cacheName() {
+            return "items";
+        }
+
+        @Override
+        public Class<Item> type() {
+            return Item.class;
+        }
+
+        @Override
+        public long key(Item item) {
+            return item.id();
+        }
+
+        @Override
+        public void write(Item item, ByteBuffer out) {
+            out.putLong(item.id());
+            CacheSnapshotCodec.putString(out, item.name());
+            out.putInt(item.version());
+        }
+
+        @Override
+        public Item read(ByteBuffer in) {
+            return new Item(in.getLong(), CacheSnapshotCodec.getString(in), in.getInt());
+        }
+
+        @Override
+        public Set<Long> current(Map<Long, Item> items) {
+            batches.add(Set.copyOf(items.keySet()));
+            return items.values().stream()
+                    .filter(item -> versions.getOrDefault(item.id(), 1) == item.version())
+                    .map(Item::id)
+                    .collect(Collectors.toSet());
+        }
+
+    }
+
+}
@@ -0,0 +1,93 @@
+package ru.utsx.Devops.core.health;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.Status;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class CachedDatabaseHealthIndicatorTest {
+
+    private static final Instant NOW = Instant.parse("2025-01-01T00:00:00Z");
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private Clock clock;
+
+    private CachedDatabaseHealthIndicator indicator;
+
+    @BeforeEach
+    void setUp() {
+        indicator = new CachedDatabaseHealthIndicator(jdbcTemplate, Duration.ofSeconds(30), clock);
+    }
+
+    @Test
+    void health_BeforeFirstRefresh_IsDown() {
+        assertEquals(Status.DOWN, indicator.health().getStatus());
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    @Test
+    void health_ServesCachedResultWithoutQuery() {
+        when(clock.instant()).thenReturn(NOW, NOW, NOW.plusSeconds(5));
+        indicator.refresh();
+
+        assertEquals(Status.UP, indicator.health().getStatus());
+        verify(jdbcTemplate).queryForObject("SELECT 1", Integer.class);
+    }
+
+    @Test
+    void health_FailedRefresh_IsDown() {
+        when(clock.instant()).thenReturn(NOW);
+        when(jdbcTemplate.queryForObject("SELECT 1", Integer.class)).thenThrow(new QueryTimeoutException("timeout"));
+        indicator.refresh();
+
+        assertEquals(Status.DOWN, indicator.health().getStatus());
+    }
+
+    @Test
+    void health_AnyShardDown_IsDownWithPerShardDetails() {
+        JdbcTemplate secondShard = mock(JdbcTemplate.class);
+        JdbcTemplate thirdShard = mock(JdbcTemplate.class);
+        indicator = new CachedDatabaseHealthIndicator(List.of(jdbcTemplate, secondShard, thirdShard), Duration.ofSeconds(30), clock);
+        when(clock.instant()).thenReturn(NOW);
+        when(secondShard.queryForObject("SELECT 1", Integer.class)).thenThrow(new QueryTimeoutException("timeout"));
+        indicator.refresh();
+
+        Health health = indicator.health();
+        assertEquals(Status.DOWN, health.getStatus());
+        Map<?, ?> shards = (Map<?, ?>) health.getDetails().get("shards");
+        assertEquals(List.of(Status.UP, Status.DOWN, Status.UP),
+                shards.values().stream().map(shard -> ((Health) shard).getStatus()).toList());
+        verify(thirdShard).queryForObject("SELECT 1", Integer.class);
+    }
+
+    @Test
+    void health_StaleResult_IsDown() {
+        when(clock.instant()).thenReturn(NOW, NOW, NOW.plusSeconds(31));
+        indicator.refresh();
+
+        assertEquals(Status.DOWN, indicator.health().getStatus());
+        assertEquals("health check result is stale", indicator.health().getDetails().get("reason"));
+    }
+
+}
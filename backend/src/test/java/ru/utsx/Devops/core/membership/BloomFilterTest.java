@@ -0,0 +1,44 @@
+package ru.utsx.Devops.core.membership;
+
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BloomFilterTest {
+
+    private static final int USERS = 100_000;
+
+    @Test
+    void mightContain_HasNoFalseNegativesAndKeepsFalsePositiveRateNearTarget() {
+        BloomFilter filter = new BloomFilter(USERS, 0.01);
+        IntStream.range(0, USERS).forEach(i -> filter.put("user" + i));
+
+        assertTrue(IntStream.range(0, USERS).allMatch(i -> filter.mightContain("user" + i)));
+        long falsePositives = IntStream.range(0, USERS).filter(i -> filter.mightContain("other" + i)).count();
+        double observed = (double) falsePositives / USERS;
+        assertTrue(observed < 0.015, "Observed false-positive rate " + observed);
+        assertEquals(0.01, filter.expectedFpp(), 0.003);
+        assertEquals(USERS, filter.approximateElementCount(), USERS * 0.02);
+    }
+
+    @Test
+    void expectedFpp_StartsAtZeroAndGrowsWithFill() {
+        BloomFilter filter = new BloomFilter(1_000, 0.01);
+        assertEquals(0, filter.expectedFpp());
+
+        filter.put("alice");
+        assertTrue(filter.mightContain("alice"));
+        assertTrue(filter.expectedFpp() > 0);
+    }
+
+    @Test
+    void constructor_RejectsInvalidParameters() {
+        assertThrows(IllegalArgumentException.class, () -> new BloomFilter(0, 0.01));
+        assertThrows(IllegalArgumentException.class, () -> new BloomFilter(1_000, 1));
+    }
+
+}
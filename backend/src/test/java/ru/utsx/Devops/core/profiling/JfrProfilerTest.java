@@ -0,0 +1,82 @@
+package ru.utsx.Devops.core.profiling;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class JfrProfilerTest {
+
+    @TempDir
+    private Path directory;
+
+    @Test
+    void record_SummarizesApplicationFramesAndKeepsLastRecordings() throws Exception {
+        JfrProfiler profiler = new JfrProfiler(directory, Duration.ofSeconds(10), 1, 10);
+        AtomicBoolean running = new AtomicBoolean(true);
+        CompletableFuture<Long> load = CompletableFuture.supplyAsync(() -> burn(running));
+        try {
+            JfrSummary first = profiler.record("profile", Duration.ofSeconds(1)).orElseThrow();
+            JfrSummary second = profiler.record("profile", Duration.ofSeconds(1)).orElseThrow();
+
+            assertTrue(second.executionSamples() > 0);
+            assertTrue(second.hotMethods().stream().anyMatch(e -> e.frame().contains("JfrProfilerTest.burn")));
+            assertEquals(1, profiler.recordings().size());
+            assertTrue(profiler.file(first.id()).isEmpty());
+            assertTrue(Files.size(profiler.file(second.id()).orElseThrow()) > 0);
+        } finally {
+            running.set(false);
+            load.join();
+        }
+    }
+
+    @Test
+    void record_RejectsConcurrentRecording() throws Exception {
+        JfrProfiler profiler = new JfrProfiler(directory, Duration.ofSeconds(10), 5, 10);
+        CompletableFuture<Optional<JfrSummary>> first = CompletableFuture.supplyAsync(() -> {
+            try {
+                return profiler.record("default", Duration.ofSeconds(2));
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        // Второй запрос - только когда первая запись точно заняла слот, без расчёта на время запуска потока
+        long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+        while (!profiler.isRecording() && !first.isDone() && System.nanoTime() < deadline) {
+            Thread.onSpinWait();
+        }
+        assertTrue(profiler.isRecording(), "First recording should be in progress");
+
+        assertTrue(profiler.record("default", Duration.ofSeconds(1)).isEmpty());
+        assertTrue(first.join().isPresent());
+    }
+
+    @Test
+    void record_ValidatesProfileAndDuration() {
+        JfrProfiler profiler = new JfrProfiler(directory, Duration.ofSeconds(10), 5, 10);
+
+        assertThrows(IllegalArgumentException.class, () -> profiler.record("custom", Duration.ofSeconds(1)));
+        assertThrows(IllegalArgumentException.class, () -> profiler.record("default", Duration.ofSeconds(11)));
+        assertThrows(IllegalArgumentException.class, () -> profiler.record("default", Duration.ZERO));
+    }
+
+    private static long burn(AtomicBoolean running) {
+        long acc = 0;
+        while (running.get()) {
+            for (int i = 0; i < 100_000; i++) {
+                acc += Long.hashCode(acc * 31 + i);
+            }
+        }
+        return acc;
+    }
+
+}
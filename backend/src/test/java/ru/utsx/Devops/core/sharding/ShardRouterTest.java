@@ -0,0 +1,87 @@
+package ru.utsx.Devops.core.sharding;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+class ShardRouterTest {
+
+    private final ShardRouter router = new ShardRouter(List.of(mock(DataSource.class), mock(DataSource.class)));
+
+    @AfterEach
+    void tearDown() {
+        router.close();
+    }
+
+    @Test
+    void shardOfId_FollowsSequenceBlocks() {
+        // Блоки по 1000 id чередуются между шардами начиная с hi = 10000
+        assertEquals(0, router.shardOfId(9_001));
+        assertEquals(0, router.shardOfId(10_000));
+        assertEquals(1, router.shardOfId(10_001));
+        assertEquals(1, router.shardOfId(11_000));
+        assertEquals(0, router.shardOfId(11_001));
+        assertEquals(List.of(1, 0), router.lookupOrder(10_500));
+    }
+
+    @Test
+    void find_StartsWithShardFromIdAndFallsBackToOthers() {
+        List<Integer> visited = new CopyOnWriteArrayList<>();
+
+        Optional<ShardRouter.Located<String>> found = router.find(10_500, () -> {
+            visited.add(ShardContext.current());
+            return ShardContext.current() == 0 ? Optional.of("moved") : Optional.empty();
+        });
+
+        assertEquals(List.of(1, 0), visited);
+        assertEquals(new ShardRouter.Located<>(0, "moved"), found.orElseThrow());
+        assertEquals(0, ShardContext.current());
+    }
+
+    @Test
+    void gatherPage_ReadsWindowFromEveryShardAndMergesPage() {
+        List<Pageable> windows = new CopyOnWriteArrayList<>();
+
+        List<Long> page = router.gatherPage(window -> {
+            windows.add(window);
+            return ShardContext.current() == 0 ? List.of(1L, 3L, 5L, 7L) : List.of(2L, 4L, 6L, 8L);
+        }, Comparator.naturalOrder(), 1, 2);
+
+        assertEquals(List.of(3L, 4L), page);
+        assertEquals(List.of(PageRequest.of(0, 4), PageRequest.of(0, 4)), windows);
+    }
+
+    @Test
+    void pageWindow_RejectsInvalidAndDeepPages() {
+        assertThrows(IllegalArgumentException.class, () -> router.pageWindow(-1, 10));
+        assertThrows(IllegalArgumentException.class, () -> router.pageWindow(0, ShardRouter.MAX_PAGE_SIZE + 1));
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> router.pageWindow(ShardRouter.MAX_PAGE_WINDOW / 100, 100));
+        assertTrue(e.getMessage().contains("слишком глубокая"));
+    }
+
+    @Test
+    void scatter_PropagatesShardFailure() {
+        IllegalStateException e = assertThrows(IllegalStateException.class, () -> router.scatter(() -> {
+            if (ShardContext.current() == 1) {
+                throw new IllegalStateException("shard 1 is down");
+            }
+            return 0;
+        }));
+        assertEquals("shard 1 is down", e.getMessage());
+    }
+
+}
@@ -0,0 +1,320 @@
+package ru.utsx.Devops.core.sharding;
+
+import java.io.ByteArrayInputStream;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.TestPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import ru.utsx.Devops.api.model.order.CreateOrderDto;
+import ru.utsx.Devops.api.model.user.CreateUserDto;
+import ru.utsx.Devops.api.model.user.UpdateUserDto;
+import ru.utsx.Devops.api.model.user.UserImportConflictDto;
+import ru.utsx.Devops.api.model.user.UserImportResultDto;
+import ru.utsx.Devops.core.AbstractTest;
+import ru.utsx.Devops.domain.orders.Order;
+import ru.utsx.Devops.domain.orders.OrderArchiver;
+import ru.utsx.Devops.domain.orders.OrderCommandService;
+import ru.utsx.Devops.domain.orders.OrderQueryService;
+import ru.utsx.Devops.domain.orders.OrderStatus;
+import ru.utsx.Devops.domain.users.UserCommandService;
+import ru.utsx.Devops.domain.users.UserImportService;
+import ru.utsx.Devops.domain.users.UserQueryService;
+import ru.utsx.Devops.helpers.TestUserHelper;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Два шарда: контейнер AbstractTest и второй контейнер, подключённый через app.sharding.urls
+@TestPropertySource(properties = {
+        "app.warmup.enabled=false",
+        "orders.archive.initial-delay=PT1H"
+})
+public class ShardingIntegrationTest extends AbstractTest {
+
+    @Container
+    protected static final PostgreSQLContainer<?> SECOND_SHARD_CONTAINER =
+            new PostgreSQLContainer<>("postgres:latest")
+                    .withDatabaseName("testdb")
+                    .withUsername("test")
+                    .withPassword("test");
+
+    @DynamicPropertySource
+    static void configureShards(DynamicPropertyRegistry registry) {
+        registry.add("app.sharding.urls", SECOND_SHARD_CONTAINER::getJdbcUrl);
+    }
+
+    @Autowired
+    private ShardRouter shardRouter;
+    @Autowired
+    private ShardRebalancer shardRebalancer;
+    @Autowired
+    private TestUserHelper testUserHelper;
+    @Autowired
+    private UserCommandService userCommandService;
+    @Autowired
+    private UserQueryService userQueryService;
+    @Autowired
+    private OrderCommandService orderCommandService;
+    @Autowired
+    private OrderQueryService orderQueryService;
+    @Autowired
+    private OrderArchiver orderArchiver;
+    @Autowired
+    private UserImportService userImportService;
+
+    @Test
+    public void testUsersAndOrdersArePlacedOnHomeShard() {
+        List<Integer> usedShards = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            String username = "placement-" + i;
+            Long userId = createUser(username);
+            Long orderId = createOrder(userId, OrderStatus.CREATED);
+
+            int shard = shardRouter.homeShard(username);
+            usedShards.add(shard);
+            assertEquals(shard, shardRouter.shardOfId(userId));
+            assertEquals(shard, shardRouter.shardOfId(orderId));
+            assertEquals(1, count(shard, "SELECT count(*) FROM users WHERE id = ?", userId));
+            assertEquals(1, count(shard, "SELECT count(*) FROM orders WHERE id = ? AND user_id = ?", orderId, userId));
+            assertEquals(shard, userQueryService.getUserShard(userId));
+        }
+        assertTrue(usedShards.contains(0) && usedShards.contains(1), "Users should be spread over both shards");
+    }
+
+    @Test
+    public void testPagesAreMergedAcrossShardsInIdOrder() {
+        for (int i = 0; i < 6; i++) {
+            Long userId = createUser("page-" + i);
+            createOrder(userId, OrderStatus.CREATED);
+            createOrder(userId, OrderStatus.CANCELLED);
+        }
+        List<Long> expected = new ArrayList<>();
+        shardRouter.forEachShard(shard -> expected.addAll(shard(shard).queryForList(
+                "SELECT o.id FROM orders o JOIN users u ON u.id = o.user_id WHERE u.deleted_at IS NULL", Long.class)));
+        expected.sort(Comparator.naturalOrder());
+
+        List<Long> paged = new ArrayList<>();
+        for (int page = 0; ; page++) {
+            List<Order> orders = orderQueryService.getOrders(page, 5);
+            if (orders.isEmpty()) {
+                break;
+            }
+            orders.forEach(order -> paged.add(order.getId()));
+        }
+        assertEquals(expected, paged);
+    }
+
+    @Test
+    public void testMoveCarriesOrdersAndArchiveAndKeepsIdsUnique() {
+        Long userId = createUser("move-all");
+        Long orderId = createOrder(userId, OrderStatus.CREATED);
+        Long archivedId = createOrder(userId, OrderStatus.DELIVERED);
+        int from = shardRouter.shardOfId(userId);
+        int to = 1 - from;
+        shard(from).update("UPDATE orders SET updated_at = now() - interval '90 days' WHERE id = ?", archivedId);
+        orderArchiver.archive();
+        assertEquals(1, count(from, "SELECT count(*) FROM orders_archive WHERE id = ?", archivedId));
+
+        var moved = shardRebalancer.move(userId, to).orElseThrow();
+
+        assertEquals(1, moved.orders());
+        assertEquals(1, moved.archivedOrders());
+        assertEquals(0, count(from, "SELECT count(*) FROM users WHERE id = ?", userId));
+        assertEquals(0, count(from, "SELECT count(*) FROM orders WHERE user_id = ?", userId));
+        assertEquals(0, count(from, "SELECT count(*) FROM orders_archive WHERE user_id = ?", userId));
+        assertEquals(1, count(to, "SELECT count(*) FROM users WHERE id = ?", userId));
+        assertEquals(1, count(to, "SELECT count(*) FROM orders WHERE id = ?", orderId));
+        assertEquals(1, count(to, "SELECT count(*) FROM orders_archive WHERE id = ?", archivedId));
+        assertEquals(to, userQueryService.getUserShard(userId));
+        assertEquals(orderId, orderQueryService.getOrder(orderId).getId());
+        assertEquals(archivedId, orderQueryService.getOrder(archivedId).getId());
+
+        // После переноса новые заказы пользователя пишутся на целевой шард
+        Long newOrderId = createOrder(userId, OrderStatus.CREATED);
+        Long newUserId = createUser("move-after");
+        assertEquals(1, count(to, "SELECT count(*) FROM orders WHERE id = ?", newOrderId));
+        List<Long> ids = new ArrayList<>();
+        shardRouter.forEachShard(shard -> ids.addAll(shard(shard).queryForList(
+                "SELECT id FROM orders UNION ALL SELECT id FROM orders_archive", Long.class)));
+        assertEquals(ids.size(), new HashSet<>(ids).size(), "Order ids must stay unique across shards");
+        List<Long> userIds = new ArrayList<>();
+        shardRouter.forEachShard(shard -> userIds.addAll(shard(shard).queryForList("SELECT id FROM users", Long.class)));
+        assertEquals(userIds.size(), new HashSet<>(userIds).size(), "User ids must stay unique across shards");
+        assertTrue(userIds.contains(newUserId));
+    }
+
+    @Test
+    public void testUsernameStaysUniqueAfterMove() {
+        Long userId = createUser("move-unique");
+        Long otherId = createUser("move-unique-other");
+        shardRebalancer.move(userId, 1 - shardRouter.shardOfId(userId)).orElseThrow();
+
+        assertThrows(IllegalArgumentException.class, () -> createUser("move-unique"));
+        assertThrows(IllegalArgumentException.class, () -> userCommandService.updateUser(otherId,
+                UpdateUserDto.builder().username("move-unique").build()));
+        assertEquals(1, countEverywhere("SELECT count(*) FROM users WHERE username = ?", "move-unique"));
+    }
+
+    @Test
+    public void testImportRejectsUsernameOfMovedUser() {
+        Long userId = createUser("import-moved");
+        shardRebalancer.move(userId, 1 - shardRouter.shardOfId(userId)).orElseThrow();
+        String csv = """
+                username,email
+                import-new,new@test.com
+                import-moved,moved@test.com
+                """;
+
+        UserImportResultDto result = userImportService.importCsv(new ByteArrayInputStream(csv.getBytes(UTF_8)));
+
+        assertEquals(1, result.getImported());
+        assertEquals(List.of(UserImportConflictDto.builder()
+                        .row(2)
+                        .username("import-moved")
+                        .reason(UserImportConflictDto.Reason.USERNAME_TAKEN)
+                        .build()),
+                result.getConflicts());
+        assertEquals(1, countEverywhere("SELECT count(*) FROM users WHERE username = ?", "import-moved"));
+        assertEquals(1, countEverywhere("SELECT count(*) FROM users WHERE username = ?", "import-new"));
+    }
+
+    @Test
+    public void testFailedSourceCommitRemovesCopy() {
+        Long userId = createUser("move-commit-fails");
+        createOrder(userId, OrderStatus.CREATED);
+        int from = shardRouter.shardOfId(userId);
+        int to = 1 - from;
+        // Удаление на исходном шарде срывается только при коммите, когда копия уже закоммичена
+        rejectUserDeletes(from, true);
+        try {
+            assertThrows(IllegalStateException.class, () -> shardRebalancer.move(userId, to));
+        } finally {
+            allowUserDeletes(from);
+        }
+
+        assertEquals(1, count(from, "SELECT count(*) FROM users WHERE id = ?", userId));
+        assertEquals(1, count(from, "SELECT count(*) FROM orders WHERE user_id = ?", userId));
+        assertEquals(0, count(to, "SELECT count(*) FROM users WHERE id = ?", userId));
+        assertEquals(0, count(to, "SELECT count(*) FROM orders WHERE user_id = ?", userId));
+        assertEquals(from, userQueryService.getUserShard(userId));
+    }
+
+    @Test
+    public void testFailedCopyRemovalIsReportedAsDuplicateOwner() {
+        Long userId = createUser("move-copy-stays");
+        int from = shardRouter.shardOfId(userId);
+        int to = 1 - from;
+        rejectUserDeletes(from, true);
+        rejectUserDeletes(to, false);
+        try {
+            IllegalStateException e = assertThrows(IllegalStateException.class, () -> shardRebalancer.move(userId, to));
+            assertTrue(e.getMessage().contains("may exist on both shard " + from + " and shard " + to), e.getMessage());
+        } finally {
+            allowUserDeletes(from);
+            allowUserDeletes(to);
+        }
+
+        assertEquals(1, count(from, "SELECT count(*) FROM users WHERE id = ?", userId));
+        assertEquals(1, count(to, "SELECT count(*) FROM users WHERE id = ?", userId));
+        shard(to).update("DELETE FROM users WHERE id = ?", userId);
+    }
+
+    @Test
+    public void testAlignmentRereadsSequenceUnderLock() throws Exception {
+        int shard = 1;
+        JdbcTemplate jdbcTemplate = shard(shard);
+        long ahead = jdbcTemplate.queryForObject("SELECT last_value FROM users_seq", Long.class) + 20L * ShardAwareIdGenerator.BLOCK_SIZE;
+        long hi = Math.ceilDiv(ahead, ShardAwareIdGenerator.BLOCK_SIZE) * ShardAwareIdGenerator.BLOCK_SIZE;
+        while (Math.floorMod(ShardAwareIdGenerator.blockIndex(hi), 2) != shard) {
+            hi += ShardAwareIdGenerator.BLOCK_SIZE;
+        }
+        jdbcTemplate.execute("ALTER SEQUENCE users_seq INCREMENT BY 1");
+        CompletableFuture<Void> aligned;
+        // Другой под держит блокировку выравнивания и выравнивает sequence далеко вперёд уже после того,
+        // как выравнивание этого пода встало в ожидание: состояние, прочитанное до блокировки, устарело бы
+        try (Connection otherPod = shardRouter.shard(shard).getConnection()) {
+            otherPod.setAutoCommit(false);
+            try (Statement statement = otherPod.createStatement()) {
+                statement.execute("SELECT pg_advisory_xact_lock(" + ShardSequenceAligner.LOCK_KEY + ")");
+                aligned = CompletableFuture.runAsync(() -> ShardSequenceAligner.align(shardRouter.shard(shard), shard, 2));
+                for (int i = 0; i < 500
+                        && jdbcTemplate.queryForObject("SELECT count(*) FROM pg_locks WHERE NOT granted", Long.class) == 0; i++) {
+                    Thread.sleep(10);
+                }
+                assertFalse(aligned.isDone(), "Alignment should wait for the lock");
+                statement.execute("ALTER SEQUENCE users_seq INCREMENT BY 2000 RESTART WITH " + hi);
+            }
+            otherPod.commit();
+        }
+        aligned.get(10, TimeUnit.SECONDS);
+
+        assertEquals(hi, jdbcTemplate.queryForObject("SELECT last_value FROM users_seq", Long.class));
+        assertEquals(false, jdbcTemplate.queryForObject("SELECT is_called FROM users_seq", Boolean.class));
+    }
+
+    // Отложенный триггер срывает коммит транзакции с удалением пользователя, обычный - сам DELETE
+    private void rejectUserDeletes(int shard, boolean atCommit) {
+        shard(shard).execute("CREATE OR REPLACE FUNCTION reject_user_delete() RETURNS trigger LANGUAGE plpgsql AS "
+                + "$$ BEGIN RAISE EXCEPTION 'user delete rejected'; END $$");
+        shard(shard).execute(atCommit
+                ? "CREATE CONSTRAINT TRIGGER reject_user_delete AFTER DELETE ON users "
+                + "DEFERRABLE INITIALLY DEFERRED FOR EACH ROW EXECUTE FUNCTION reject_user_delete()"
+                : "CREATE TRIGGER reject_user_delete BEFORE DELETE ON users FOR EACH ROW EXECUTE FUNCTION reject_user_delete()");
+    }
+
+    private void allowUserDeletes(int shard) {
+        shard(shard).execute("DROP TRIGGER IF EXISTS reject_user_delete ON users");
+    }
+
+    private Long createUser(String username) {
+        return testUserHelper.createUser(CreateUserDto.builder()
+                .username(username)
+                .email(username + "@test.com")
+                .build());
+    }
+
+    private Long createOrder(Long userId, OrderStatus status) {
+        return orderCommandService.createOrder(CreateOrderDto.builder()
+                .userId(userId)
+                .deliveryDate(LocalDate.now())
+                .productName("Sharded product")
+                .total(BigDecimal.TEN)
+                .status(status)
+                .build());
+    }
+
+    private JdbcTemplate shard(int shard) {
+        return new JdbcTemplate(shardRouter.shard(shard));
+    }
+
+    private long count(int shard, String sql, Object... args) {
+        return shard(shard).queryForObject(sql, Long.class, args);
+    }
+
+    private long countEverywhere(String sql, Object... args) {
+        long total = 0;
+        for (int shard = 0; shard < shardRouter.shardCount(); shard++) {
+            total += count(shard, sql, args);
+        }
+        return total;
+    }
+
+}
@@ -0,0 +1,116 @@
+package ru.utsx.Devops.core.sql;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.Duration;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class SlowQueryRecorderTest {
+
+    @Test
+    void normalize_ReplacesLiteralsAndCollapsesInLists() {
+        assertEquals("select * from orders where id in (?) and status = ? and total > ?",
+                SqlNormalizer.normalize("select *\n  from orders where id in (?, ?, ?) and status = 'NEW' and total > 10.5"));
+        assertEquals("select o1_0.id from orders o1_0 where o1_0.id = ?",
+                SqlNormalizer.normalize("select o1_0.id from orders o1_0 where o1_0.id = $1"));
+    }
+
+    @Test
+    void isReadOnly_DetectsModifyingCte() {
+        assertTrue(SqlNormalizer.isReadOnly("  SELECT 1"));
+        assertTrue(SqlNormalizer.isReadOnly("with t as (select 1) select * from t"));
+        assertFalse(SqlNormalizer.isReadOnly("with t as (delete from orders returning id) select count(*) from t"));
+        assertFalse(SqlNormalizer.isReadOnly("update orders set status = ?"));
+    }
+
+    @Test
+    void isReadOnly_RejectsSelectsWithSideEffects() {
+        assertFalse(SqlNormalizer.isReadOnly("select nextval('orders_seq')"));
+        assertFalse(SqlNormalizer.isReadOnly("SELECT setval('users_seq', ?)"));
+        assertFalse(SqlNormalizer.isReadOnly("SELECT pg_notify(?, ?)"));
+        assertFalse(SqlNormalizer.isReadOnly("select pg_try_advisory_lock(?)"));
+        assertFalse(SqlNormalizer.isReadOnly("select pg_advisory_xact_lock (42)"));
+        assertFalse(SqlNormalizer.isReadOnly("SELECT id FROM orders WHERE id > ? ORDER BY id LIMIT ? FOR UPDATE SKIP LOCKED"));
+        assertFalse(SqlNormalizer.isReadOnly("select id from users where id = ? for no key update"));
+        assertFalse(SqlNormalizer.isReadOnly("select id from users where id = ? for share"));
+        assertTrue(SqlNormalizer.isReadOnly("select id from orders where product_name = 'for update'"));
+        assertTrue(SqlNormalizer.isReadOnly("select nextval_count from stats"));
+    }
+
+    @Test
+    void isExplainable_SkipsDdlAndUtilityStatements() {
+        assertTrue(SqlNormalizer.isExplainable("\n select 1"));
+        assertTrue(SqlNormalizer.isExplainable("DELETE FROM orders WHERE id = ?"));
+        assertFalse(SqlNormalizer.isExplainable("CREATE INDEX idx ON orders (delivery_date)"));
+        assertFalse(SqlNormalizer.isExplainable("SHOW search_path"));
+    }
+
+    @Test
+    void record_GroupsByNormalizedSqlAndCapsCardinality() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        SlowQueryRecorder recorder = new SlowQueryRecorder(registry, Duration.ofMillis(100), false,
+                Duration.ofMinutes(1), Duration.ofSeconds(1), 2);
+
+        recorder.record(null, 0, "select * from users where id = 1", List.of(), 1_000_000);
+        recorder.record(null, 1, "select * from users where id = 2", List.of(), 300_000_000);
+        recorder.record(null, 0, "select * from orders", List.of(), 1_000_000);
+        recorder.record(null, 0, "select * from orders where status = 'NEW'", List.of(), 1_000_000);
+
+        List<SlowQueryRecorder.StatementSnapshot> snapshot = recorder.snapshot();
+        assertEquals(3, snapshot.size());
+        SlowQueryRecorder.StatementSnapshot users = snapshot.get(0);
+        assertEquals("select * from users where id = ?", users.sql());
+        assertEquals(2, users.count());
+        assertEquals(1, users.slowCount());
+        assertEquals(List.of(1), users.slowShards());
+        assertTrue(snapshot.stream().anyMatch(s -> s.sql().equals(SlowQueryRecorder.OTHER)));
+        assertEquals(3, registry.find("jdbc.statement").timers().size());
+    }
+
+    @Test
+    void record_ExplainsOnPoolOfExecutingShard() throws Exception {
+        DataSource shardPool = mock(DataSource.class);
+        Connection connection = mock(Connection.class);
+        PreparedStatement statement = mock(PreparedStatement.class);
+        ResultSet plan = mock(ResultSet.class);
+        when(shardPool.getConnection()).thenReturn(connection);
+        when(connection.prepareStatement(anyString())).thenReturn(statement);
+        when(statement.executeQuery()).thenReturn(plan);
+        when(plan.next()).thenReturn(true, false);
+        when(plan.getString(1)).thenReturn("Seq Scan on orders");
+        SlowQueryRecorder recorder = new SlowQueryRecorder(new SimpleMeterRegistry(), Duration.ofMillis(100), true,
+                Duration.ofMinutes(1), Duration.ofSeconds(1), 10);
+
+        try {
+            recorder.record(shardPool, 2, "select * from orders where id = ?", List.of(7L), 300_000_000);
+
+            List<SlowQueryRecorder.PlanSample> samples = List.of();
+            for (int i = 0; i < 100 && samples.isEmpty(); i++) {
+                Thread.sleep(20);
+                samples = recorder.snapshot().get(0).samples();
+            }
+            assertEquals(1, samples.size());
+            assertEquals(2, samples.get(0).shard());
+            assertEquals("Seq Scan on orders\n", samples.get(0).plan());
+            verify(connection).prepareStatement("EXPLAIN (ANALYZE, BUFFERS) select * from orders where id = ?");
+            verify(statement).setObject(1, 7L);
+        } finally {
+            recorder.destroy();
+        }
+    }
+
+}
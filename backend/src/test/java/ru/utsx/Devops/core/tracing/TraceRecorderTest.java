@@ -0,0 +1,119 @@
+package ru.utsx.Devops.core.tracing;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.StatusCode;
+import io.opentelemetry.api.trace.Tracer;
+import io.opentelemetry.context.Context;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class TraceRecorderTest {
+
+    private static final long START = TimeUnit.SECONDS.toNanos(1_700_000_000L);
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final TraceRecorder recorder = new TraceRecorder(meterRegistry, Duration.ofMillis(500), 0.0, 100, 2,
+            Duration.ofMinutes(1), 2, Clock.fixed(Instant.parse("2025-01-01T00:00:00Z"), ZoneOffset.UTC));
+    private final SdkTracerProvider tracerProvider = SdkTracerProvider.builder().addSpanProcessor(recorder).build();
+    private final Tracer tracer = tracerProvider.get("test");
+
+    @AfterEach
+    void tearDown() {
+        tracerProvider.close();
+    }
+
+    @Test
+    void onEnd_KeepsSlowTraceWithChildSpans() {
+        Span root = start("http get /api/v1/orders", null, 0);
+        end(start("order-repository.find-all", root, 10), 400);
+        end(root, 700);
+
+        TraceRecorder.RecordedTrace trace = recorder.trace(root.getSpanContext().getTraceId()).orElseThrow();
+
+        assertEquals(TraceRecorder.Reason.SLOW, trace.summary().reason());
+        assertEquals(700.0, trace.summary().durationMs());
+        assertEquals(List.of("http get /api/v1/orders", "order-repository.find-all"),
+                trace.spans().stream().map(TraceRecorder.SpanSnapshot::name).toList());
+        assertNull(trace.spans().get(0).parentSpanId());
+        assertEquals(root.getSpanContext().getSpanId(), trace.spans().get(1).parentSpanId());
+        assertEquals(10.0, trace.spans().get(1).startOffsetMs());
+    }
+
+    @Test
+    void onEnd_DropsFastTraceAndKeepsFailedOne() {
+        Span fast = start("fast", null, 0);
+        end(start("child", fast, 1), 5);
+        end(fast, 10);
+
+        Span failed = start("failed", null, 0);
+        failed.setStatus(StatusCode.ERROR);
+        end(failed, 10);
+
+        assertEquals(List.of("failed"), recorder.traces().stream().map(TraceRecorder.TraceSummary::name).toList());
+        assertEquals(TraceRecorder.Reason.ERROR, recorder.traces().get(0).reason());
+        assertEquals(1.0, meterRegistry.counter("tracing.traces.dropped").count());
+    }
+
+    @Test
+    void onEnd_BoundsSpansPerTraceAndRetainedTraces() {
+        Span root = start("root", null, 0);
+        for (int i = 0; i < 5; i++) {
+            end(start("child-" + i, root, i), i + 1);
+        }
+        end(root, 600);
+        for (int i = 0; i < 2; i++) {
+            end(start("later-" + i, null, 0), 600);
+        }
+
+        assertEquals(List.of("later-1", "later-0"),
+                recorder.traces().stream().map(TraceRecorder.TraceSummary::name).toList());
+        assertTrue(recorder.trace(root.getSpanContext().getTraceId()).isEmpty());
+        assertEquals(3.0, meterRegistry.counter("tracing.spans.dropped").count());
+    }
+
+    @Test
+    void evictStale_DropsTracesWithoutRoot() {
+        Instant now = Instant.parse("2025-01-01T00:00:00Z");
+        Clock clock = mock(Clock.class);
+        when(clock.instant()).thenReturn(now, now.plus(Duration.ofMinutes(2)));
+        TraceRecorder stale = new TraceRecorder(meterRegistry, Duration.ofMillis(500), 1.0, 100, 10,
+                Duration.ofMinutes(1), 10, clock);
+        try (SdkTracerProvider provider = SdkTracerProvider.builder().addSpanProcessor(stale).build()) {
+            Tracer staleTracer = provider.get("test");
+            Span root = staleTracer.spanBuilder("root").startSpan();
+            staleTracer.spanBuilder("orphan").setParent(Context.root().with(root)).startSpan().end();
+
+            stale.evictStale();
+            root.end();
+
+            assertEquals(1, stale.trace(root.getSpanContext().getTraceId()).orElseThrow().summary().spans());
+        }
+    }
+
+    private Span start(String name, Span parent, long offsetMillis) {
+        return tracer.spanBuilder(name)
+                .setParent(parent == null ? Context.root() : Context.root().with(parent))
+                .setStartTimestamp(START + TimeUnit.MILLISECONDS.toNanos(offsetMillis), TimeUnit.NANOSECONDS)
+                .startSpan();
+    }
+
+    private static void end(Span span, long offsetMillis) {
+        span.end(START + TimeUnit.MILLISECONDS.toNanos(offsetMillis), TimeUnit.NANOSECONDS);
+    }
+
+}
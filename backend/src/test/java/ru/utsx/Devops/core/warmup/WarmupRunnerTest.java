@@ -0,0 +1,92 @@
+package ru.utsx.Devops.core.warmup;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.sql.DataSource;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.actuate.health.Status;
+import ru.utsx.Devops.core.health.WarmupHealthIndicator;
+import ru.utsx.Devops.core.sharding.ShardRouter;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+
+class WarmupRunnerTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ShardRouter shardRouter = new ShardRouter(List.of(mock(DataSource.class)));
+
+    @AfterEach
+    void tearDown() {
+        shardRouter.close();
+    }
+
+    @Test
+    void run_ExecutesTasksForAllIterationsAndReportsReady() {
+        AtomicInteger calls = new AtomicInteger();
+        WarmupRunner runner = runner(List.of(calls::incrementAndGet), Duration.ofMinutes(1), 5);
+        WarmupHealthIndicator indicator = new WarmupHealthIndicator(runner);
+
+        assertEquals(Status.OUT_OF_SERVICE, indicator.health().getStatus());
+        runner.run();
+
+        assertEquals(5, calls.get());
+        assertEquals(Status.UP, indicator.health().getStatus());
+        assertEquals(WarmupRunner.Outcome.COMPLETED, runner.progress().outcome());
+        assertEquals(1, meterRegistry.get("warmup.duration").tag("outcome", "completed").timer().count());
+    }
+
+    @Test
+    void run_StopsWhenBudgetIsExhausted() {
+        WarmupRunner runner = runner(List.of(() -> sleep(20)), Duration.ofMillis(50), 1_000);
+
+        runner.run();
+
+        assertEquals(WarmupRunner.Outcome.BUDGET_EXHAUSTED, runner.progress().outcome());
+        assertEquals(Status.UP, new WarmupHealthIndicator(runner).health().getStatus());
+    }
+
+    @Test
+    void run_BecomesReadyWhenTaskFails() {
+        AtomicInteger calls = new AtomicInteger();
+        WarmupRunner runner = runner(List.of(() -> {
+            if (calls.incrementAndGet() == 2) {
+                throw new IllegalStateException("database is down");
+            }
+        }), Duration.ofMinutes(1), 5);
+
+        runner.run();
+
+        assertEquals(new WarmupRunner.Progress(WarmupRunner.Outcome.FAILED, 1, runner.progress().elapsedMs()),
+                runner.progress());
+        assertEquals(Status.UP, new WarmupHealthIndicator(runner).health().getStatus());
+    }
+
+    @Test
+    void health_WhenDisabled_IsUp() {
+        WarmupRunner runner = new WarmupRunner(List.of(), shardRouter, meterRegistry, false, Duration.ofMinutes(1), 5);
+
+        runner.start();
+
+        assertEquals(Status.UP, new WarmupHealthIndicator(runner).health().getStatus());
+        assertEquals(WarmupRunner.Outcome.DISABLED, runner.progress().outcome());
+    }
+
+    private WarmupRunner runner(List<WarmupTask> tasks, Duration budget, int iterations) {
+        return new WarmupRunner(tasks, shardRouter, meterRegistry, true, budget, iterations);
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+}
@@ -0,0 +1,112 @@
+package ru.utsx.Devops.domain;
+
+import java.lang.management.ManagementFactory;
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import ru.utsx.Devops.core.analytics.SlidingTopK;
+import ru.utsx.Devops.domain.orders.Order;
+import ru.utsx.Devops.domain.orders.OrderAnalyticsService;
+import ru.utsx.Devops.domain.users.User;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Запуск: ./mvnw test -Pbenchmark
+@Tag("benchmark")
+class HeavyHittersBenchmarkTest {
+
+    private static final int ORDERS = 2_000_000;
+    private static final int HOT_PRODUCTS = 20;
+    private static final int[] CARDINALITIES = {1_000, 100_000, 1_000_000};
+
+    @Test
+    void memoryStaysConstantAsCardinalityGrows() {
+        System.out.printf("%-12s %14s %14s %14s %10s %10s%n",
+                "cardinality", "allocated", "after orders", "exact bytes", "ns/order", "recall@10");
+        for (int cardinality : CARDINALITIES) {
+            Result result = run(cardinality);
+            System.out.printf("%-12d %14d %14d %14d %10d %10.2f%n", cardinality, result.allocatedBytes(),
+                    result.sketchBytes(), result.exactBytes(), result.nanosPerOrder(), result.recall());
+            // Скетчи выделяются целиком при создании, после потока заказов остаются только кандидаты (допуск на шум)
+            assertTrue(result.sketchBytes() - result.allocatedBytes() < 1_000_000,
+                    "Sketch memory should not grow with cardinality");
+            assertTrue(result.recall() >= 0.9, "Top-10 should match exact counts");
+        }
+    }
+
+    private Result run(int cardinality) {
+        long before = usedHeap();
+        OrderAnalyticsService analytics = new OrderAnalyticsService(Duration.ofHours(1), Duration.ofMinutes(5), 5, 1024,
+                100, Clock.systemUTC());
+        long allocatedBytes = usedHeap() - before;
+        Random random = new Random(cardinality);
+        long start = System.nanoTime();
+        for (int i = 0; i < ORDERS; i++) {
+            analytics.record(order(product(random, cardinality), i));
+        }
+        long nanosPerOrder = (System.nanoTime() - start) / ORDERS;
+        long sketchBytes = usedHeap() - before;
+        List<String> top = analytics.topProducts(SlidingTopK.Metric.COUNT, Duration.ofHours(1), 10).entries().stream()
+                .map(SlidingTopK.Entry::key)
+                .toList();
+
+        before = usedHeap();
+        Map<String, Long> exact = new HashMap<>();
+        random = new Random(cardinality);
+        for (int i = 0; i < ORDERS; i++) {
+            exact.merge(product(random, cardinality), 1L, Long::sum);
+        }
+        long exactBytes = usedHeap() - before;
+        List<String> exactTop = exact.entrySet().stream()
+                .sorted(Map.Entry.<String, Long>comparingByValue(Comparator.reverseOrder()))
+                .limit(10)
+                .map(Map.Entry::getKey)
+                .toList();
+        double recall = top.stream().filter(exactTop::contains).count() / 10.0;
+
+        // Ссылки удерживаются до замера памяти
+        assertTrue(analytics.topUsers(SlidingTopK.Metric.COUNT, Duration.ofHours(1), 1).events() == ORDERS);
+        assertTrue(exact.size() <= cardinality + HOT_PRODUCTS);
+        return new Result(allocatedBytes, sketchBytes, exactBytes, nanosPerOrder, recall);
+    }
+
+    // Треть заказов приходится на горячие товары с убывающей популярностью, остальные равномерно по каталогу
+    private static String product(Random random, int cardinality) {
+        if (random.nextInt(3) == 0) {
+            return "Hot " + (int) Math.sqrt(random.nextInt(HOT_PRODUCTS * HOT_PRODUCTS));
+        }
+        return "Product " + random.nextInt(cardinality);
+    }
+
+    private static Order order(String productName, int i) {
+        User user = new User();
+        user.setId(10_000L + i % 5_000);
+        return Order.builder()
+                .user(user)
+                .productName(productName)
+                .total(BigDecimal.valueOf(i % 10_000, 2))
+                .build();
+    }
+
+    // Минимум из нескольких замеров после GC: отдельный замер иногда учитывает ещё не освобождённый регион
+    private static long usedHeap() {
+        long used = Long.MAX_VALUE;
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+            used = Math.min(used, ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed());
+        }
+        return used;
+    }
+
+    private record Result(long allocatedBytes, long sketchBytes, long exactBytes, long nanosPerOrder, double recall) {
+    }
+
+}
@@ -0,0 +1,76 @@
+package ru.utsx.Devops.domain;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.utsx.Devops.api.model.order.BulkUpdateOrdersDto;
+import ru.utsx.Devops.api.model.order.OrderFilterDto;
+import ru.utsx.Devops.core.cache.CacheInvalidationPublisher;
+import ru.utsx.Devops.core.sharding.ShardRouter;
+import ru.utsx.Devops.domain.orders.OrderBulkCommandService;
+import ru.utsx.Devops.domain.orders.OrderStatus;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+@ExtendWith(MockitoExtension.class)
+class OrderBulkCommandServiceTest {
+
+    @Mock
+    private NamedParameterJdbcTemplate jdbcTemplate;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Mock
+    private CacheInvalidationPublisher cacheInvalidationPublisher;
+
+    private OrderBulkCommandService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new OrderBulkCommandService(jdbcTemplate, transactionTemplate, cacheInvalidationPublisher,
+                new ShardRouter(List.of(mock(DataSource.class))), new SimpleMeterRegistry(), 100);
+    }
+
+    @Test
+    void deleteOrders_EmptyFilter_Rejected() {
+        assertThrows(IllegalArgumentException.class,
+                () -> service.deleteOrders(OrderFilterDto.builder().build(), false));
+        assertThrows(IllegalArgumentException.class, () -> service.deleteOrders(null, true));
+        verifyNoInteractions(jdbcTemplate, transactionTemplate, cacheInvalidationPublisher);
+    }
+
+    @Test
+    void updateOrders_NothingToChange_Rejected() {
+        BulkUpdateOrdersDto request = BulkUpdateOrdersDto.builder()
+                .filter(OrderFilterDto.builder().status(OrderStatus.CREATED).build())
+                .build();
+
+        assertThrows(IllegalArgumentException.class, () -> service.updateOrders(request, false));
+        verifyNoInteractions(jdbcTemplate, transactionTemplate, cacheInvalidationPublisher);
+    }
+
+    @Test
+    void updateOrders_EmptyFilter_Rejected() {
+        BulkUpdateOrdersDto request = BulkUpdateOrdersDto.builder()
+                .filter(OrderFilterDto.builder().build())
+                .deliveryDate(LocalDate.of(2025, 1, 1))
+                .build();
+
+        assertThrows(IllegalArgumentException.class, () -> service.updateOrders(request, true));
+        verifyNoInteractions(jdbcTemplate, transactionTemplate, cacheInvalidationPublisher);
+    }
+
+}
@@ -2,15 +2,25 @@ package ru.utsx.Devops.domain;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+import javax.sql.DataSource;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import ru.utsx.Devops.api.model.order.CreateOrderDto;
+import ru.utsx.Devops.core.cache.CacheInvalidationPublisher;
+import ru.utsx.Devops.core.cache.CacheNames;
+import ru.utsx.Devops.core.sharding.ShardRouter;
+import ru.utsx.Devops.domain.orders.ArchivedOrderRepository;
 import ru.utsx.Devops.domain.orders.Order;
+import ru.utsx.Devops.domain.orders.OrderAnalyticsService;
 import ru.utsx.Devops.domain.orders.OrderCommandService;
 import ru.utsx.Devops.domain.orders.OrderRepository;
 import ru.utsx.Devops.domain.orders.OrderStatus;
@@ -19,6 +29,8 @@ import ru.utsx.Devops.domain.users.UserRepository;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -28,9 +40,21 @@ public class OrderCommandServiceUnitTest {
     @Mock
     private OrderRepository orderRepository;
     
+    @Mock
+    private ArchivedOrderRepository archivedOrderRepository;
+
     @Mock
     private ru.utsx.Devops.domain.users.UserQueryService userQueryService;
 
+    @Mock
+    private CacheInvalidationPublisher cacheInvalidationPublisher;
+
+    @Mock
+    private OrderAnalyticsService orderAnalyticsService;
+
+    @Spy
+    private ShardRouter shardRouter = new ShardRouter(List.of(mock(DataSource.class)));
+
     @InjectMocks
     private OrderCommandService orderCommandService;
 
@@ -69,5 +93,31 @@ public class OrderCommandServiceUnitTest {
         // Then
         verify(userQueryService).getUser(1L);
         verify(orderRepository).save(any(Order.class));
+        verify(orderAnalyticsService).record(any(Order.class));
+    }
+
+    @Test
+    public void testDeleteOrder() {
+        when(orderRepository.findUserIdById(1L)).thenReturn(Optional.of(2L));
+
+        orderCommandService.deleteOrder(1L);
+
+        verify(orderRepository).deleteById(1L);
+        verify(archivedOrderRepository, never()).deleteArchivedById(anyLong());
+        verify(cacheInvalidationPublisher).evict(CacheNames.ORDERS, 1L);
+        verify(cacheInvalidationPublisher).evict(CacheNames.USERS, 2L);
+    }
+
+    @Test
+    public void testDeleteArchivedOrder() {
+        when(orderRepository.findUserIdById(1L)).thenReturn(Optional.empty());
+        when(archivedOrderRepository.findUserIdById(1L)).thenReturn(Optional.of(2L));
+
+        orderCommandService.deleteOrder(1L);
+
+        verify(archivedOrderRepository).deleteArchivedById(1L);
+        verify(orderRepository, never()).deleteById(anyLong());
+        verify(cacheInvalidationPublisher).evict(CacheNames.ORDERS, 1L);
+        verify(cacheInvalidationPublisher).evict(CacheNames.USERS, 2L);
     }
 }
\ No newline at end of file
@@ -0,0 +1,80 @@
+package ru.utsx.Devops.domain;
+
+import java.util.List;
+import java.util.Optional;
+
+import javax.sql.DataSource;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityNotFoundException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import ru.utsx.Devops.core.sharding.ShardRouter;
+import ru.utsx.Devops.domain.orders.ArchivedOrder;
+import ru.utsx.Devops.domain.orders.ArchivedOrderRepository;
+import ru.utsx.Devops.domain.orders.Order;
+import ru.utsx.Devops.domain.orders.OrderQueryService;
+import ru.utsx.Devops.domain.orders.OrderRepository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class OrderQueryServiceTest {
+
+    @Mock
+    private OrderRepository orderRepository;
+
+    @Mock
+    private ArchivedOrderRepository archivedOrderRepository;
+
+    private SimpleMeterRegistry meterRegistry;
+    private OrderQueryService orderQueryService;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        orderQueryService = new OrderQueryService(orderRepository, archivedOrderRepository,
+                new ShardRouter(List.of(mock(DataSource.class))), mock(PlatformTransactionManager.class), meterRegistry);
+    }
+
+    @Test
+    void getOrder_HotOrder_DoesNotTouchArchive() {
+        Order order = Order.builder().id(1L).build();
+        when(orderRepository.findByIdAndUserDeletedAtIsNull(1L)).thenReturn(Optional.of(order));
+
+        assertSame(order, orderQueryService.getOrder(1L));
+        verifyNoInteractions(archivedOrderRepository);
+        assertEquals(1.0, meterRegistry.counter("orders.lookup", "source", "hot").count());
+    }
+
+    @Test
+    void getOrder_ArchivedOrder_FallsBackToArchive() {
+        Order order = Order.builder().id(2L).build();
+        ArchivedOrder archived = mock(ArchivedOrder.class);
+        when(archived.toOrder()).thenReturn(order);
+        when(orderRepository.findByIdAndUserDeletedAtIsNull(2L)).thenReturn(Optional.empty());
+        when(archivedOrderRepository.findByIdAndUserDeletedAtIsNull(2L)).thenReturn(Optional.of(archived));
+
+        assertSame(order, orderQueryService.getOrder(2L));
+        assertEquals(1.0, meterRegistry.counter("orders.lookup", "source", "archive").count());
+    }
+
+    @Test
+    void getOrder_Missing_Throws() {
+        when(orderRepository.findByIdAndUserDeletedAtIsNull(3L)).thenReturn(Optional.empty());
+        when(archivedOrderRepository.findByIdAndUserDeletedAtIsNull(3L)).thenReturn(Optional.empty());
+
+        assertThrows(EntityNotFoundException.class, () -> orderQueryService.getOrder(3L));
+        assertEquals(1.0, meterRegistry.counter("orders.lookup", "source", "miss").count());
+    }
+
+}
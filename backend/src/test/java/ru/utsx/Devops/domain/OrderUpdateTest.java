@@ -6,16 +6,22 @@ import static org.mockito.Mockito.*;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.List;
 import java.util.Optional;
 
+import javax.sql.DataSource;
+
 import jakarta.persistence.EntityNotFoundException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import ru.utsx.Devops.api.model.order.UpdateOrderDto;
+import ru.utsx.Devops.core.cache.CacheInvalidationPublisher;
+import ru.utsx.Devops.core.sharding.ShardRouter;
 import ru.utsx.Devops.domain.orders.Order;
 import ru.utsx.Devops.domain.orders.OrderCommandService;
 import ru.utsx.Devops.domain.orders.OrderRepository;
@@ -32,6 +38,12 @@ class OrderUpdateTest {
     @Mock
     private UserQueryService userQueryService;
 
+    @Mock
+    private CacheInvalidationPublisher cacheInvalidationPublisher;
+
+    @Spy
+    private ShardRouter shardRouter = new ShardRouter(List.of(mock(DataSource.class)));
+
     @InjectMocks
     private OrderCommandService orderCommandService;
 
@@ -67,14 +79,14 @@ class OrderUpdateTest {
                 .total(newTotal)
                 .build();
 
-        when(orderRepository.findById(1L)).thenReturn(Optional.of(existingOrder));
+        when(orderRepository.findByIdAndUserDeletedAtIsNull(1L)).thenReturn(Optional.of(existingOrder));
         when(orderRepository.save(any(Order.class))).thenReturn(existingOrder);
 
         // When
         orderCommandService.updateOrder(1L, updateDto);
 
         // Then
-        verify(orderRepository).findById(1L);
+        verify(orderRepository).findByIdAndUserDeletedAtIsNull(1L);
         verify(orderRepository).save(existingOrder);
         assertEquals(newDeliveryDate, existingOrder.getDeliveryDate());
         assertEquals(newTotal, existingOrder.getTotal());
@@ -90,7 +102,7 @@ class OrderUpdateTest {
                 .total(new BigDecimal("150.00"))
                 .build();
 
-        when(orderRepository.findById(1L)).thenReturn(Optional.of(existingOrder));
+        when(orderRepository.findByIdAndUserDeletedAtIsNull(1L)).thenReturn(Optional.of(existingOrder));
 
         // When & Then
         IllegalArgumentException exception = assertThrows(
@@ -99,7 +111,7 @@ class OrderUpdateTest {
         );
 
         assertEquals("Дата доставки не может быть перенесена на более раннюю дату", exception.getMessage());
-        verify(orderRepository).findById(1L);
+        verify(orderRepository).findByIdAndUserDeletedAtIsNull(1L);
         verify(orderRepository, never()).save(any(Order.class));
     }
 
@@ -114,14 +126,14 @@ class OrderUpdateTest {
                 .total(newTotal)
                 .build();
 
-        when(orderRepository.findById(1L)).thenReturn(Optional.of(existingOrder));
+        when(orderRepository.findByIdAndUserDeletedAtIsNull(1L)).thenReturn(Optional.of(existingOrder));
         when(orderRepository.save(any(Order.class))).thenReturn(existingOrder);
 
         // When
         orderCommandService.updateOrder(1L, updateDto);
 
         // Then
-        verify(orderRepository).findById(1L);
+        verify(orderRepository).findByIdAndUserDeletedAtIsNull(1L);
         verify(orderRepository).save(existingOrder);
         assertEquals(sameDate, existingOrder.getDeliveryDate());
         assertEquals(newTotal, existingOrder.getTotal());
@@ -136,14 +148,14 @@ class OrderUpdateTest {
                 .total(newTotal)
                 .build();
 
-        when(orderRepository.findById(1L)).thenReturn(Optional.of(existingOrder));
+        when(orderRepository.findByIdAndUserDeletedAtIsNull(1L)).thenReturn(Optional.of(existingOrder));
         when(orderRepository.save(any(Order.class))).thenReturn(existingOrder);
 
         // When
         orderCommandService.updateOrder(1L, updateDto);
 
         // Then
-        verify(orderRepository).findById(1L);
+        verify(orderRepository).findByIdAndUserDeletedAtIsNull(1L);
         verify(orderRepository).save(existingOrder);
         assertEquals(LocalDate.of(2024, 12, 15), existingOrder.getDeliveryDate()); // Дата не изменилась
         assertEquals(newTotal, existingOrder.getTotal());
@@ -158,14 +170,14 @@ class OrderUpdateTest {
                 .deliveryDate(newDeliveryDate)
                 .build();
 
-        when(orderRepository.findById(1L)).thenReturn(Optional.of(existingOrder));
+        when(orderRepository.findByIdAndUserDeletedAtIsNull(1L)).thenReturn(Optional.of(existingOrder));
         when(orderRepository.save(any(Order.class))).thenReturn(existingOrder);
 
         // When
         orderCommandService.updateOrder(1L, updateDto);
 
         // Then
-        verify(orderRepository).findById(1L);
+        verify(orderRepository).findByIdAndUserDeletedAtIsNull(1L);
         verify(orderRepository).save(existingOrder);
         assertEquals(newDeliveryDate, existingOrder.getDeliveryDate());
         assertEquals(new BigDecimal("100.00"), existingOrder.getTotal()); // Сумма не изменилась
@@ -179,7 +191,7 @@ class OrderUpdateTest {
                 .total(new BigDecimal("150.00"))
                 .build();
 
-        when(orderRepository.findById(1L)).thenReturn(Optional.empty());
+        when(orderRepository.findByIdAndUserDeletedAtIsNull(1L)).thenReturn(Optional.empty());
 
         // When & Then
         EntityNotFoundException exception = assertThrows(
@@ -188,7 +200,7 @@ class OrderUpdateTest {
         );
 
         assertEquals("Заказ с ID 1 не найден", exception.getMessage());
-        verify(orderRepository).findById(1L);
+        verify(orderRepository).findByIdAndUserDeletedAtIsNull(1L);
         verify(orderRepository, never()).save(any(Order.class));
     }
 
@@ -197,14 +209,14 @@ class OrderUpdateTest {
         // Given
         UpdateOrderDto updateDto = UpdateOrderDto.builder().build(); // Все поля null
 
-        when(orderRepository.findById(1L)).thenReturn(Optional.of(existingOrder));
+        when(orderRepository.findByIdAndUserDeletedAtIsNull(1L)).thenReturn(Optional.of(existingOrder));
         when(orderRepository.save(any(Order.class))).thenReturn(existingOrder);
 
         // When
         orderCommandService.updateOrder(1L, updateDto);
 
         // Then
-        verify(orderRepository).findById(1L);
+        verify(orderRepository).findByIdAndUserDeletedAtIsNull(1L);
         verify(orderRepository).save(existingOrder);
         assertEquals(LocalDate.of(2024, 12, 15), existingOrder.getDeliveryDate()); // Дата не изменилась
         assertEquals(new BigDecimal("100.00"), existingOrder.getTotal()); // Сумма не изменилась
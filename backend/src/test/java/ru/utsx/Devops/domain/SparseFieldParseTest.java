@@ -0,0 +1,48 @@
+package ru.utsx.Devops.domain;
+
+import java.util.EnumSet;
+
+import org.junit.jupiter.api.Test;
+import ru.utsx.Devops.domain.orders.OrderField;
+import ru.utsx.Devops.domain.users.UserField;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SparseFieldParseTest {
+
+    @Test
+    void orderField_ParsesApiNamesIgnoringBlanksAndDuplicates() {
+        assertEquals(EnumSet.of(OrderField.ID, OrderField.USER_ID, OrderField.TOTAL),
+                OrderField.parse(" total, userId,,id ,total"));
+        assertEquals(EnumSet.allOf(OrderField.class),
+                OrderField.parse("id,userId,productName,deliveryDate,status,total"));
+    }
+
+    @Test
+    void orderField_RejectsUnknownAndEmptyFields() {
+        IllegalArgumentException unknown = assertThrows(IllegalArgumentException.class,
+                () -> OrderField.parse("id,user"));
+        assertTrue(unknown.getMessage().startsWith("Неизвестное поле заказа user,"), unknown.getMessage());
+        assertThrows(IllegalArgumentException.class, () -> OrderField.parse("product_name"));
+        assertThrows(IllegalArgumentException.class, () -> OrderField.parse("ID"));
+        assertThrows(IllegalArgumentException.class, () -> OrderField.parse(""));
+        assertThrows(IllegalArgumentException.class, () -> OrderField.parse(" , "));
+    }
+
+    @Test
+    void userField_ParsesApiNames() {
+        assertEquals(EnumSet.of(UserField.ID, UserField.EMAIL, UserField.CREATED_AT),
+                UserField.parse("createdAt, email,id"));
+    }
+
+    @Test
+    void userField_RejectsOrdersUnknownAndEmptyFields() {
+        assertThrows(IllegalArgumentException.class, () -> UserField.parse("orders"));
+        assertThrows(IllegalArgumentException.class, () -> UserField.parse("id,deletedAt"));
+        assertThrows(IllegalArgumentException.class, () -> UserField.parse(""));
+        assertThrows(IllegalArgumentException.class, () -> UserField.parse(","));
+    }
+
+}
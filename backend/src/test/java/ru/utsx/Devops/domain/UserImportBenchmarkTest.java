@@ -0,0 +1,55 @@
+package ru.utsx.Devops.domain;
+
+import java.io.ByteArrayInputStream;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import ru.utsx.Devops.api.model.user.CreateUserDto;
+import ru.utsx.Devops.api.model.user.UserImportResultDto;
+import ru.utsx.Devops.core.AbstractTest;
+import ru.utsx.Devops.domain.users.UserCommandService;
+import ru.utsx.Devops.domain.users.UserImportService;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Запуск: ./mvnw test -Pbenchmark
+@Tag("benchmark")
+public class UserImportBenchmarkTest extends AbstractTest {
+
+    private static final int PER_REQUEST_USERS = 2_000;
+    private static final int IMPORTED_USERS = 200_000;
+
+    @Autowired
+    private UserCommandService userCommandService;
+    @Autowired
+    private UserImportService userImportService;
+
+    @Test
+    public void compareImportWithPerRequestCreate() {
+        long start = System.nanoTime();
+        for (int i = 0; i < PER_REQUEST_USERS; i++) {
+            userCommandService.createUser(CreateUserDto.builder()
+                    .username("single-" + i)
+                    .email("single-" + i + "@test.com")
+                    .build());
+        }
+        double perRequestRate = PER_REQUEST_USERS / ((System.nanoTime() - start) / 1e9);
+
+        StringBuilder csv = new StringBuilder("username,email\n");
+        for (int i = 0; i < IMPORTED_USERS; i++) {
+            csv.append("bulk-").append(i).append(",bulk-").append(i).append("@test.com\n");
+        }
+        start = System.nanoTime();
+        UserImportResultDto result = userImportService.importCsv(new ByteArrayInputStream(csv.toString().getBytes(UTF_8)));
+        double importRate = IMPORTED_USERS / ((System.nanoTime() - start) / 1e9);
+
+        System.out.printf("createUser: %.0f users/s, COPY import: %.0f users/s (x%.1f)%n",
+                perRequestRate, importRate, importRate / perRequestRate);
+        assertEquals(IMPORTED_USERS, result.getImported());
+        assertTrue(importRate > perRequestRate * 10);
+    }
+
+}
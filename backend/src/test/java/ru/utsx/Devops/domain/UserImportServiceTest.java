@@ -0,0 +1,93 @@
+package ru.utsx.Devops.domain;
+
+import java.io.ByteArrayInputStream;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.utsx.Devops.api.model.user.CreateUserDto;
+import ru.utsx.Devops.api.model.user.UserImportConflictDto;
+import ru.utsx.Devops.api.model.user.UserImportResultDto;
+import ru.utsx.Devops.core.AbstractTest;
+import ru.utsx.Devops.domain.users.UserImportService;
+import ru.utsx.Devops.helpers.TestUserHelper;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class UserImportServiceTest extends AbstractTest {
+
+    @Autowired
+    private UserImportService userImportService;
+    @Autowired
+    private TestUserHelper testUserHelper;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    public void testImportCsvReportsConflicts() {
+        testUserHelper.createUser(CreateUserDto.builder()
+                .username("csv-taken")
+                .email("taken@test.com")
+                .build());
+        String csv = """
+                username,email
+                csv-1,one@test.com
+                csv-taken,other@test.com
+                csv-1,dup@test.com
+                csv-2,
+                "csv,3",three@test.com
+                """;
+
+        UserImportResultDto result = userImportService.importCsv(new ByteArrayInputStream(csv.getBytes(UTF_8)));
+
+        assertEquals(5, result.getReceived());
+        assertEquals(2, result.getImported());
+        assertEquals(3, result.getConflictCount());
+        assertEquals(List.of(
+                        UserImportConflictDto.Reason.MISSING_FIELD,
+                        UserImportConflictDto.Reason.USERNAME_TAKEN,
+                        UserImportConflictDto.Reason.DUPLICATE_IN_FILE),
+                result.getConflicts().stream().map(UserImportConflictDto::getReason).sorted().toList());
+        assertEquals(1, jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM users WHERE username = 'csv,3'", Integer.class));
+    }
+
+    @Test
+    public void testImportNdjsonUsesSequenceBlocks() {
+        String ndjson = """
+                {"username":"nd-1","email":"one@test.com"}
+                {"username":"nd-2","email":"two@test.com"}
+                """;
+
+        UserImportResultDto result = userImportService.importNdjson(new ByteArrayInputStream(ndjson.getBytes(UTF_8)));
+        Long createdAfter = testUserHelper.createUser(CreateUserDto.builder()
+                .username("nd-after")
+                .email("after@test.com")
+                .build());
+
+        assertEquals(2, result.getImported());
+        List<Long> importedIds = jdbcTemplate.queryForList(
+                "SELECT id FROM users WHERE username IN ('nd-1', 'nd-2')", Long.class);
+        assertTrue(importedIds.stream().noneMatch(createdAfter::equals));
+    }
+
+    @Test
+    public void testImportNdjsonRejectsNullLine() {
+        String ndjson = """
+                {"username":"nd-null-1","email":"one@test.com"}
+                null
+                """;
+
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> userImportService.importNdjson(new ByteArrayInputStream(ndjson.getBytes(UTF_8))));
+
+        assertTrue(e.getMessage().startsWith("Некорректная строка NDJSON"), e.getMessage());
+        assertEquals(0, jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM users WHERE username = 'nd-null-1'", Integer.class));
+    }
+
+}
@@ -0,0 +1,109 @@
+package ru.utsx.Devops.domain;
+
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.utsx.Devops.core.sharding.ShardRouter;
+import ru.utsx.Devops.domain.orders.ArchivedOrderRepository;
+import ru.utsx.Devops.domain.orders.OrderRepository;
+import ru.utsx.Devops.domain.users.UserPurgeWorker;
+import ru.utsx.Devops.domain.users.UserRepository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class UserPurgeWorkerTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private OrderRepository orderRepository;
+
+    @Mock
+    private ArchivedOrderRepository archivedOrderRepository;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    private SimpleMeterRegistry meterRegistry;
+    private UserPurgeWorker worker;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        worker = new UserPurgeWorker(userRepository, orderRepository, archivedOrderRepository, transactionTemplate,
+                new ShardRouter(List.of(mock(DataSource.class))), meterRegistry, 2, 3);
+        lenient().when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+    }
+
+    @Test
+    void purge_DeletesOrdersInChunksThenUser() {
+        when(userRepository.findDeletedUserIds(any(Pageable.class))).thenReturn(List.of(1L));
+        when(orderRepository.deleteChunkByUserId(1L, 2)).thenReturn(2, 1);
+        when(userRepository.purgeIfEmpty(1L)).thenReturn(1);
+
+        worker.purge();
+
+        verify(orderRepository, times(2)).deleteChunkByUserId(1L, 2);
+        verify(userRepository).purgeIfEmpty(1L);
+        assertEquals(3.0, meterRegistry.counter("users.purge.orders.deleted").count());
+        assertEquals(1.0, meterRegistry.counter("users.purge.users.deleted").count());
+    }
+
+    @Test
+    void purge_DeletesArchivedOrdersBeforeUser() {
+        when(userRepository.findDeletedUserIds(any(Pageable.class))).thenReturn(List.of(1L));
+        when(archivedOrderRepository.deleteChunkByUserId(1L, 2)).thenReturn(2, 0);
+        when(userRepository.purgeIfEmpty(1L)).thenReturn(1);
+
+        worker.purge();
+
+        verify(archivedOrderRepository, times(2)).deleteChunkByUserId(1L, 2);
+        verify(userRepository).purgeIfEmpty(1L);
+        assertEquals(2.0, meterRegistry.counter("users.purge.orders.deleted").count());
+    }
+
+    @Test
+    void purge_StopsWhenChunkBudgetExhausted() {
+        when(userRepository.findDeletedUserIds(any(Pageable.class))).thenReturn(List.of(1L, 2L));
+        when(orderRepository.deleteChunkByUserId(1L, 2)).thenReturn(2);
+
+        worker.purge();
+
+        verify(orderRepository, times(3)).deleteChunkByUserId(1L, 2);
+        verify(orderRepository, never()).deleteChunkByUserId(2L, 2);
+        verify(userRepository, never()).purgeIfEmpty(any());
+    }
+
+    @Test
+    void purge_UpdatesBacklogGauges() {
+        when(userRepository.findDeletedUserIds(any(Pageable.class))).thenReturn(List.of());
+        when(userRepository.countByDeletedAtIsNotNull()).thenReturn(4L);
+        when(orderRepository.countOrdersOfDeletedUsers()).thenReturn(42L);
+
+        worker.purge();
+
+        assertEquals(4.0, meterRegistry.get("users.purge.backlog.users").gauge().value());
+        assertEquals(42.0, meterRegistry.get("users.purge.backlog.orders").gauge().value());
+    }
+
+}
@@ -0,0 +1,210 @@
+package ru.utsx.Devops.domain;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.BooleanSupplier;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import ru.utsx.Devops.api.model.user.CreateUserDto;
+import ru.utsx.Devops.core.AbstractTest;
+import ru.utsx.Devops.core.sql.SlowQueryRecorder;
+import ru.utsx.Devops.domain.users.UsernameFilter;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+
+// Один шард: отрицательный ответ фильтра не требует запроса в БД
+@AutoConfigureMockMvc
+@TestPropertySource(properties = {
+        "app.warmup.enabled=false",
+        "app.sql.max-statements=1000"
+})
+public class UsernameFilterTest extends AbstractTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private UsernameFilter usernameFilter;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private MeterRegistry meterRegistry;
+    @Autowired
+    private SlowQueryRecorder slowQueryRecorder;
+
+    private String prefix;
+
+    @BeforeEach
+    public void setUp() {
+        // Фильтр строится по расписанию при старте; здесь он гарантированно построен до проверок
+        usernameFilter.rebuild();
+        prefix = "filter-" + System.nanoTime() + "-";
+    }
+
+    @Test
+    public void testTakenNameIsRejectedBeforeInsert() throws Exception {
+        String username = prefix + "taken";
+        assertEquals(200, createUser(username).getStatus());
+        double present = lookups("present");
+        Map<String, Long> before = statementCounts();
+
+        MockHttpServletResponse duplicate = createUser(username);
+
+        assertEquals(400, duplicate.getStatus());
+        assertEquals(List.of(), executedSince(before, sql -> sql.startsWith("insert into users")));
+        assertEquals(present + 1, lookups("present"));
+        assertEquals(1, jdbcTemplate.queryForObject("SELECT count(*) FROM users WHERE username = ?", Long.class, username));
+        assertEquals(Map.of("username", username, "available", false), availability(username));
+    }
+
+    @Test
+    public void testFreeNameIsAnsweredWithoutQuery() throws Exception {
+        String username = prefix + "free";
+        double absent = lookups("absent");
+        Map<String, Long> before = statementCounts();
+
+        assertEquals(Map.of("username", username, "available", true), availability(username));
+        assertEquals(200, createUser(username).getStatus());
+
+        assertEquals(absent + 2, lookups("absent"));
+        assertEquals(List.of(), executedSince(before, sql -> sql.contains("from users")));
+    }
+
+    @Test
+    public void testFalsePositiveIsCounted() throws Exception {
+        // Имя попало в фильтр, но не в таблицу - как после отката импорта
+        String username = prefix + "ghost";
+        usernameFilter.add(username);
+        double falsePositives = falsePositives();
+
+        assertEquals(Map.of("username", username, "available", true), availability(username));
+        assertEquals(falsePositives + 1, falsePositives());
+
+        assertEquals(200, createUser(username).getStatus());
+        assertEquals(falsePositives + 2, falsePositives());
+    }
+
+    @Test
+    public void testRebuildPicksUpRowsInsertedElsewhere() throws Exception {
+        // Строка, вставленная в обход этого пода, попадает в фильтр только при перестройке
+        String username = prefix + "other-pod";
+        jdbcTemplate.update("INSERT INTO users (username, email, created_at, updated_at) VALUES (?, ?, now(), now())",
+                username, username + "@test.com");
+        assertEquals(true, availability(username).get("available"));
+        long rebuilds = meterRegistry.get("users.username_filter.rebuild").tag("outcome", "success").timer().count();
+
+        usernameFilter.rebuild();
+
+        assertEquals(rebuilds + 1, meterRegistry.get("users.username_filter.rebuild").tag("outcome", "success").timer().count());
+        assertEquals(false, availability(username).get("available"));
+        assertEquals(400, createUser(username).getStatus());
+        double elements = meterRegistry.get("users.username_filter.elements").gauge().value();
+        long rows = jdbcTemplate.queryForObject("SELECT count(*) FROM users", Long.class);
+        assertTrue(Math.abs(elements - rows) <= Math.max(1, rows * 0.05), elements + " vs " + rows);
+        assertTrue(meterRegistry.get("users.username_filter.expected_fpp").gauge().value() < 0.01);
+    }
+
+    @Test
+    public void testNamesPublishedByOtherPodReachFilter() {
+        // Другой под рассылает имена тем же pg_notify, что и этот
+        String first = prefix + "remote-1";
+        String second = prefix + "remote-2";
+        jdbcTemplate.queryForObject("SELECT pg_notify(?, ?)", Object.class, "username_filter", first + "\n" + second);
+
+        awaitTrue(() -> usernameFilter.mightContain(first) && usernameFilter.mightContain(second));
+
+        // Порция больше лимита payload делится на несколько сообщений
+        List<String> batch = IntStream.range(0, 100).mapToObj(i -> prefix + "x".repeat(200) + i).toList();
+        usernameFilter.addAndPublish(batch);
+        assertTrue(batch.stream().allMatch(usernameFilter::mightContain));
+    }
+
+    @Test
+    public void testNameTakenBeforeNotificationIsRejectedByConstraint() throws Exception {
+        // Уведомление о строке, вставленной другим подом, ещё не дошло: фильтр отвечает "свободно"
+        String username = prefix + "race";
+        jdbcTemplate.update("INSERT INTO users (username, email, created_at, updated_at) VALUES (?, ?, now(), now())",
+                username, username + "@test.com");
+
+        MockHttpServletResponse duplicate = createUser(username);
+
+        assertEquals(400, duplicate.getStatus());
+        assertEquals("Имя пользователя уже занято", duplicate.getContentAsString());
+        assertEquals(1, jdbcTemplate.queryForObject("SELECT count(*) FROM users WHERE username = ?", Long.class, username));
+    }
+
+    private MockHttpServletResponse createUser(String username) throws Exception {
+        String body = objectMapper.writeValueAsString(CreateUserDto.builder()
+                .username(username)
+                .email(username + "@test.com")
+                .build());
+        return perform(put("/api/v1/users/create").contentType(MediaType.APPLICATION_JSON).content(body));
+    }
+
+    private Map<String, Object> availability(String username) throws Exception {
+        MockHttpServletResponse response = perform(get("/api/v1/users/availability").param("username", username));
+        String body = response.getContentAsString();
+        assertEquals(200, response.getStatus(), body);
+        return objectMapper.readValue(body, Map.class);
+    }
+
+    private MockHttpServletResponse perform(MockHttpServletRequestBuilder request) throws Exception {
+        return mockMvc.perform(request).andReturn().getResponse();
+    }
+
+    private static void awaitTrue(BooleanSupplier condition) {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (!condition.getAsBoolean()) {
+            if (System.currentTimeMillis() > deadline) {
+                throw new AssertionError("Condition not met within 10s");
+            }
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new AssertionError(e);
+            }
+        }
+    }
+
+    private double lookups(String result) {
+        return meterRegistry.get("users.username_filter.lookups").tag("result", result).counter().count();
+    }
+
+    private double falsePositives() {
+        return meterRegistry.get("users.username_filter.false_positives").counter().count();
+    }
+
+    private Map<String, Long> statementCounts() {
+        return slowQueryRecorder.snapshot().stream()
+                .collect(Collectors.toMap(SlowQueryRecorder.StatementSnapshot::sql, SlowQueryRecorder.StatementSnapshot::count));
+    }
+
+    private List<String> executedSince(Map<String, Long> before, Predicate<String> filter) {
+        return statementCounts().entrySet().stream()
+                .filter(statement -> statement.getValue() > before.getOrDefault(statement.getKey(), 0L))
+                .map(Map.Entry::getKey)
+                .map(String::toLowerCase)
+                .filter(filter)
+                .toList();
+    }
+
+}